@@ -2,8 +2,10 @@ package dev.tasksys;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class TasksysApplication {
     public static void main(String[] args) {
         SpringApplication.run(TasksysApplication.class, args);
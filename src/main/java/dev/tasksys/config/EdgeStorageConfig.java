@@ -0,0 +1,58 @@
+package dev.tasksys.config;
+
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.support.DefaultTransactionStatus;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// The edge profile keeps its data in an embedded H2 file store, which hands a commit to the operating system
+// without forcing it to the device. This transaction manager returns from a read-write commit only once a sync
+// has covered it, so an acknowledged write survives a power loss as well as a killed process.
+@Configuration
+@ConditionalOnProperty(name = "tasks.edge.sync-commits", havingValue = "true")
+public class EdgeStorageConfig {
+
+    @Bean
+    public JpaTransactionManager transactionManager(EntityManagerFactory entityManagerFactory,
+                                                    ObjectProvider<TransactionManagerCustomizers> customizers) {
+        SyncingTransactionManager transactionManager = new SyncingTransactionManager(entityManagerFactory);
+        customizers.ifAvailable(customizer -> customizer.customize(transactionManager));
+        return transactionManager;
+    }
+
+    static class SyncingTransactionManager extends JpaTransactionManager {
+
+        private final AtomicLong commits = new AtomicLong();
+        private long synced;
+
+        SyncingTransactionManager(EntityManagerFactory entityManagerFactory) {
+            super(entityManagerFactory);
+        }
+
+        @Override
+        protected void doCommit(DefaultTransactionStatus status) {
+            super.doCommit(status);
+            if (!status.isReadOnly()) {
+                sync(commits.incrementAndGet());
+            }
+        }
+
+        // Commits that finish while a sync is running share the next one. The statement runs on the connection the
+        // transaction still holds, so waiting here never needs a second connection from the pool.
+        private synchronized void sync(long commit) {
+            if (synced >= commit) {
+                return;
+            }
+            long upTo = commits.get();
+            new JdbcTemplate(getDataSource()).execute("CHECKPOINT SYNC");
+            synced = upTo;
+        }
+    }
+}
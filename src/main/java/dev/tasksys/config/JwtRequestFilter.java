@@ -10,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -43,9 +44,18 @@ public class JwtRequestFilter extends OncePerRequestFilter {
         }
 
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = userService.loadUserByUsername(username);
+            UserDetails userDetails = null;
+            try {
+                // From the primary, as a replica that has not replayed a disabled account would still accept its tokens
+                String subject = username;
+                userDetails = ReplicaRoutingDataSource.onPrimary(() -> userService.loadUserByUsername(subject));
+            } catch (UsernameNotFoundException e) {
+                log.debug("JWT subject no longer exists: {}", username);
+            }
 
-            if (Boolean.TRUE.equals(jwtUtil.validateToken(jwtToken, userDetails))) {
+            // Checked on every request so that disabling an account revokes its outstanding tokens
+            if (userDetails != null && userDetails.isEnabled()
+                    && Boolean.TRUE.equals(jwtUtil.validateToken(jwtToken, userDetails))) {
                 UsernamePasswordAuthenticationToken authToken =
                         new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities());
                 authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
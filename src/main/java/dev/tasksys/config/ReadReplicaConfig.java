@@ -0,0 +1,72 @@
+package dev.tasksys.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Replaces the auto-configured DataSource: connections are fetched lazily, once the transaction has marked them
+// read-only or not, so that read-only transactions can be served by a replica and everything else by the primary.
+@Configuration
+@ConditionalOnProperty(name = "tasks.read-replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    // Milliseconds since the last replayed transaction, 0 when the replica has replayed everything it received, and
+    // null (out of rotation) when it is not streaming from the primary: a disconnected replica receives nothing, so
+    // its receive and replay positions match however far behind it is
+    private static final String POSTGRES_LAG_QUERY = "select case"
+            + " when not exists (select 1 from pg_stat_wal_receiver where status = 'streaming') then null"
+            + " when pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() then 0"
+            + " else extract(epoch from now() - pg_last_xact_replay_timestamp()) * 1000 end";
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource primary = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        primary.setPoolName("primary");
+        return primary;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            DataSourceProperties properties,
+            @Value("${tasks.read-replicas.urls}") List<String> urls,
+            @Value("${tasks.read-replicas.pool-size:10}") int poolSize,
+            @Value("${tasks.read-replicas.lag-query:" + POSTGRES_LAG_QUERY + "}") String lagQuery,
+            @Value("${tasks.read-replicas.max-lag-ms:1000}") long maxLagMs,
+            @Value("${tasks.read-replicas.probe-interval-ms:500}") long probeIntervalMs,
+            @Value("${tasks.read-replicas.read-your-writes-ms:5000}") long readYourWritesMs) {
+        if (maxLagMs + probeIntervalMs > readYourWritesMs) {
+            throw new IllegalStateException("tasks.read-replicas.read-your-writes-ms must cover max-lag-ms plus probe-interval-ms,"
+                    + " or a user may read from a replica that has not replayed their own write yet");
+        }
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource replica = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(urls.get(i)).build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, lagQuery, maxLagMs, probeIntervalMs, readYourWritesMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, ReplicaRoutingDataSource replicaRoutingDataSource) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryDataSource);
+        dataSource.setReadOnlyDataSource(replicaRoutingDataSource);
+        return dataSource;
+    }
+}
@@ -0,0 +1,229 @@
+package dev.tasksys.config;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.User;
+import dev.tasksys.model.UserChangeEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// Hands out connections for read-only transactions: round robin over the replicas that are within the lag limit,
+// the primary when none is, when the current user wrote within the read-your-writes window, or inside onPrimary.
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements MeterBinder {
+
+    static final String PRIMARY = "primary";
+
+    private static final ThreadLocal<Boolean> PINNED = new ThreadLocal<>();
+
+    private final List<Replica> replicas;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long probeIntervalMs;
+    private final long readYourWritesNanos;
+
+    private final AtomicInteger next = new AtomicInteger();
+    private final ConcurrentMap<Long, Long> recentWriters = new ConcurrentHashMap<>();
+    private volatile long everyoneOnPrimaryUntil = System.nanoTime();
+    private final LongAdder primaryReads = new LongAdder();
+    private final LongAdder replicaReads = new LongAdder();
+    private ScheduledExecutorService prober;
+
+    private static final class Replica {
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private volatile boolean healthy;
+        private volatile long lagMs = -1;
+
+        private Replica(String name, DataSource dataSource, int timeoutSeconds) {
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.jdbcTemplate.setQueryTimeout(timeoutSeconds);
+        }
+    }
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas, String lagQuery,
+                                    long maxLagMs, long probeIntervalMs, long readYourWritesMs) {
+        int timeoutSeconds = (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(probeIntervalMs));
+        this.replicas = replicas.entrySet().stream()
+                .map(replica -> new Replica(replica.getKey(), replica.getValue(), timeoutSeconds))
+                .toList();
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.probeIntervalMs = probeIntervalMs;
+        this.readYourWritesNanos = TimeUnit.MILLISECONDS.toNanos(readYourWritesMs);
+
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+    }
+
+    // Runs the action with reads on the primary, for lookups that must not miss rows a replica has not replayed yet.
+    public static <T> T onPrimary(Supplier<T> action) {
+        if (PINNED.get() != null) {
+            return action.get();
+        }
+        PINNED.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            PINNED.remove();
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        probe();
+        prober = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("replica-lag-probe").daemon().factory());
+        prober.scheduleWithFixedDelay(this::probe, probeIntervalMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        prober.shutdown();
+        prober.awaitTermination(5, TimeUnit.SECONDS);
+        for (Replica replica : replicas) {
+            if (replica.dataSource instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String replica = PINNED.get() == null && !wroteRecently(currentUserId()) ? nextReplica() : null;
+        if (replica == null) {
+            primaryReads.increment();
+            return PRIMARY;
+        }
+        replicaReads.increment();
+        return replica;
+    }
+
+    // After commit, as the user's next read must come from the primary that already holds the write.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChange(TaskChangeEvent event) {
+        wrote(event.getUserId());
+    }
+
+    // Account changes made here, such as a deletion request, which the replicas may not have replayed yet.
+    @EventListener
+    public void onUserChange(UserChangeEvent event) {
+        wrote(event.getUserId());
+    }
+
+    // Writes made through other nodes; the replicas may not have replayed them yet either.
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isEverything()) {
+            everyoneOnPrimaryUntil = System.nanoTime() + readYourWritesNanos;
+        } else {
+            event.getTaskOwnerIds().forEach(this::wrote);
+            event.getUserIds().forEach(this::wrote);
+        }
+    }
+
+    void probe() {
+        for (Replica replica : replicas) {
+            boolean wasHealthy = replica.healthy;
+            try {
+                Number lag = replica.jdbcTemplate.queryForObject(lagQuery, Number.class);
+                replica.lagMs = lag == null ? -1 : lag.longValue();
+                replica.healthy = lag != null && replica.lagMs <= maxLagMs;
+                if (wasHealthy && lag == null) {
+                    log.warn("Replica {} cannot tell its lag, reading from the other replicas or the primary", replica.name);
+                } else if (wasHealthy && !replica.healthy) {
+                    log.warn("Replica {} is {} ms behind, reading from the other replicas or the primary", replica.name, replica.lagMs);
+                }
+            } catch (DataAccessException e) {
+                replica.lagMs = -1;
+                replica.healthy = false;
+                if (wasHealthy) {
+                    log.warn("Replica {} is unreachable, reading from the other replicas or the primary: {}", replica.name, e.getMessage());
+                }
+            }
+            if (!wasHealthy && replica.healthy) {
+                log.info("Replica {} is back in rotation ({} ms behind)", replica.name, replica.lagMs);
+            }
+        }
+        long now = System.nanoTime();
+        recentWriters.values().removeIf(until -> until - now < 0);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tasks.datasource.reads", primaryReads, LongAdder::sum)
+                .tag("target", "primary").description("Read-only connections served by the primary").register(registry);
+        FunctionCounter.builder("tasks.datasource.reads", replicaReads, LongAdder::sum)
+                .tag("target", "replica").description("Read-only connections served by a replica").register(registry);
+        for (Replica replica : replicas) {
+            Gauge.builder("tasks.datasource.replica.lag", replica, r -> r.lagMs)
+                    .tag("replica", replica.name).baseUnit("milliseconds")
+                    .description("Replication lag at the last probe, -1 when unreachable or unknown").register(registry);
+        }
+    }
+
+    private void wrote(Long userId) {
+        if (userId != null) {
+            recentWriters.put(userId, System.nanoTime() + readYourWritesNanos);
+        }
+    }
+
+    private boolean wroteRecently(Long userId) {
+        long now = System.nanoTime();
+        if (everyoneOnPrimaryUntil - now > 0) {
+            return true;
+        }
+        Long until = userId == null ? null : recentWriters.get(userId);
+        return until != null && until - now > 0;
+    }
+
+    private String nextReplica() {
+        int size = replicas.size();
+        if (size == 0) {
+            return null;
+        }
+        int start = Math.floorMod(next.getAndIncrement(), size);
+        for (int i = 0; i < size; i++) {
+            Replica replica = replicas.get((start + i) % size);
+            if (replica.healthy) {
+                return replica.name;
+            }
+        }
+        return null;
+    }
+
+    private static Long currentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.getPrincipal() instanceof User user ? user.getId() : null;
+    }
+}
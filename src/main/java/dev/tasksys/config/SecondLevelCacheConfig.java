@@ -0,0 +1,26 @@
+package dev.tasksys.config;
+
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.Caching;
+import javax.cache.spi.CachingProvider;
+import java.net.URI;
+import java.util.UUID;
+
+// Hibernate closes its JCache manager with the session factory. The provider's default manager is shared by
+// the whole JVM, so every application context gets a manager of its own; regions still come from application.conf.
+@Configuration
+public class SecondLevelCacheConfig {
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheManagerCustomizer() {
+        return properties -> {
+            CachingProvider provider = Caching.getCachingProvider(CaffeineCachingProvider.class.getName());
+            URI uri = URI.create("tasksys:second-level-cache:" + UUID.randomUUID());
+            properties.put("hibernate.javax.cache.cache_manager", provider.getCacheManager(uri, provider.getDefaultClassLoader()));
+        };
+    }
+}
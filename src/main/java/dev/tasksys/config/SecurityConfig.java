@@ -1,8 +1,11 @@
 package dev.tasksys.config;
 
 import dev.tasksys.repository.UserRepository;
+import dev.tasksys.service.InvalidationBus;
 import dev.tasksys.service.UserService;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -42,12 +45,16 @@ public class SecurityConfig {
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http,
-                                           UserRepository userRepository) throws Exception {
-        UserService userService = new UserService(userRepository, passwordEncoder());
+                                           UserRepository userRepository,
+                                           InvalidationBus invalidationBus,
+                                           ShardRouter shardRouter,
+                                           ObjectProvider<ShardMap> shardMap) throws Exception {
+        UserService userService = new UserService(userRepository, passwordEncoder(), invalidationBus, shardRouter);
         JwtRequestFilter jwtRequestFilter = new JwtRequestFilter(userService, jwtUtil);
         http.csrf(AbstractHttpConfigurer::disable)
                 .cors(cors -> cors.configurationSource(corsConfigurationSource()))
                 .authorizeHttpRequests(authz -> authz
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/h2-console/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
@@ -58,6 +65,7 @@ public class SecurityConfig {
                 .headers(headers -> headers.frameOptions(HeadersConfigurer.FrameOptionsConfig::deny));
 
         http.addFilterBefore(jwtRequestFilter, UsernamePasswordAuthenticationFilter.class);
+        shardMap.ifAvailable(map -> http.addFilterAfter(new ShardRequestFilter(map), JwtRequestFilter.class));
 
         return http.build();
     }
@@ -66,8 +74,9 @@ public class SecurityConfig {
     public CorsConfigurationSource corsConfigurationSource() {
         CorsConfiguration configuration = new CorsConfiguration();
         configuration.setAllowedOriginPatterns(List.of("*"));
-        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
+        configuration.setAllowedMethods(List.of("GET", "POST", "PUT", "PATCH", "DELETE", "OPTIONS"));
         configuration.setAllowedHeaders(List.of("*"));
+        configuration.setExposedHeaders(List.of("ETag"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
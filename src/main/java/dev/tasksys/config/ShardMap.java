@@ -0,0 +1,110 @@
+package dev.tasksys.config;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Where a user's data lives: the placement the rebalancer recorded in the directory's user_shards table, or else the
+// configured user id range the user falls in.
+public class ShardMap {
+
+    public static final String DIRECTORY = "shard-0";
+
+    public record Placement(String shard, boolean moving) {
+    }
+
+    private final List<String> shards;
+    private final NavigableMap<Long, String> ranges;
+    // On the directory pool itself, so that lookups never join a transaction running on another shard
+    private final JdbcTemplate directory;
+    private final int maxCachedPlacements;
+    private final ConcurrentMap<Long, Placement> placements = new ConcurrentHashMap<>();
+
+    public ShardMap(List<String> shards, List<String> ranges, DataSource directory, int maxCachedPlacements) {
+        this.shards = List.copyOf(shards);
+        this.ranges = parseRanges(ranges, this.shards);
+        this.directory = new JdbcTemplate(directory);
+        this.maxCachedPlacements = maxCachedPlacements;
+    }
+
+    // "0:shard-0,1000000:shard-1": users from id 0 live on shard-0, users from id 1000000 on shard-1
+    static NavigableMap<Long, String> parseRanges(List<String> ranges, List<String> shards) {
+        NavigableMap<Long, String> parsed = new TreeMap<>();
+        for (String range : ranges) {
+            String[] parts = range.trim().split(":");
+            if (parts.length != 2 || !shards.contains(parts[1].trim())) {
+                throw new IllegalStateException("Invalid shard range '" + range + "', expected <first user id>:<one of " + shards + ">");
+            }
+            parsed.put(Long.parseLong(parts[0].trim()), parts[1].trim());
+        }
+        if (parsed.isEmpty() || parsed.firstKey() > 0) {
+            throw new IllegalStateException("tasks.sharding.map must place every user id from 0 on, got " + ranges);
+        }
+        return parsed;
+    }
+
+    public List<String> shards() {
+        return shards;
+    }
+
+    public Placement placement(Long userId) {
+        Placement cached = placements.get(userId);
+        if (cached != null) {
+            return cached;
+        }
+        List<Placement> recorded = directory.query("select shard, moving from user_shards where user_id = ?",
+                (rs, rowNum) -> new Placement(rs.getString(1), rs.getBoolean(2)), userId);
+        Placement placement = recorded.isEmpty() ? new Placement(defaultShardOf(userId), false) : recorded.get(0);
+        if (placements.size() >= maxCachedPlacements) {
+            placements.clear();
+        }
+        placements.put(userId, placement);
+        return placement;
+    }
+
+    public String shardOf(Long userId) {
+        return placement(userId).shard();
+    }
+
+    public String defaultShardOf(Long userId) {
+        return ranges.floorEntry(userId).getValue();
+    }
+
+    // Only placements that differ from the configured ranges, or that are being moved, are stored.
+    public void place(Long userId, String shard, boolean moving) {
+        if (!shards.contains(shard)) {
+            throw new IllegalArgumentException("Unknown shard " + shard + ", expected one of " + shards);
+        }
+        if (!moving && shard.equals(defaultShardOf(userId))) {
+            directory.update("delete from user_shards where user_id = ?", userId);
+        } else if (directory.update("update user_shards set shard = ?, moving = ? where user_id = ?", shard, moving, userId) == 0) {
+            directory.update("insert into user_shards (user_id, shard, moving) values (?, ?, ?)", userId, shard, moving);
+        }
+        evict(userId);
+    }
+
+    public void forget(Long userId) {
+        directory.update("delete from user_shards where user_id = ?", userId);
+        evict(userId);
+    }
+
+    public void evict(Long userId) {
+        placements.remove(userId);
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isEverything()) {
+            placements.clear();
+        } else {
+            event.getUserIds().forEach(placements::remove);
+        }
+    }
+}
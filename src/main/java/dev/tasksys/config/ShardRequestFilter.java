@@ -0,0 +1,63 @@
+package dev.tasksys.config;
+
+import dev.tasksys.model.User;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+// Pins every connection of an authenticated request to the shard of the user making it, so that all of the request's
+// transactions run there. Login and account requests stay on the directory shard, which holds the users.
+@RequiredArgsConstructor
+public class ShardRequestFilter extends OncePerRequestFilter {
+
+    private final ShardMap shardMap;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getServletPath();
+        return path.startsWith("/api/auth/") || path.startsWith("/api/account");
+    }
+
+    // Async dispatches, such as the end of an event stream, run on a container thread that has no shard set yet
+    @Override
+    protected boolean shouldNotFilterAsyncDispatch() {
+        return false;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof User user)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        ShardMap.Placement placement = shardMap.placement(user.getId());
+        // While the rebalancer copies a user's rows, their writes would be lost on the old shard
+        if (placement.moving() && !HttpMethod.GET.matches(request.getMethod()) && !HttpMethod.HEAD.matches(request.getMethod())) {
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.getWriter().write("{\"error\":\"Your tasks are being moved, retry in a moment\"}");
+            return;
+        }
+
+        String previous = ShardContext.enter(placement.shard());
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ShardContext.restore(previous);
+        }
+    }
+}
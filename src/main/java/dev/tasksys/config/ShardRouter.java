@@ -0,0 +1,190 @@
+package dev.tasksys.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BooleanSupplier;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Shard placement for work that does not run inside a request pinned to the current user's shard: scheduled jobs,
+// background writers and changes to the users table. Without sharding every action runs once, on the one database.
+@Slf4j
+@Component
+public class ShardRouter {
+
+    private static final String USER_COLUMNS = "id, username, email, password, created_at, enabled, deletion_requested_at";
+
+    private final ShardMap shardMap;
+    // Copies of user rows go straight to each shard's pool: a JPA transaction would reuse the connection an
+    // open-in-view EntityManager already holds, which belongs to whatever shard the request started on.
+    private final Map<String, Shard> shards = new LinkedHashMap<>();
+
+    public ShardRouter(ObjectProvider<ShardMap> shardMap, ObjectProvider<ShardRoutingDataSource> dataSource) {
+        this.shardMap = shardMap.getIfAvailable();
+        dataSource.ifAvailable(routing -> routing.shards().forEach((name, shard) -> shards.put(name,
+                new Shard(new JdbcTemplate(shard), new TransactionTemplate(new DataSourceTransactionManager(shard))))));
+    }
+
+    private record Shard(JdbcTemplate jdbc, TransactionTemplate transaction) {
+    }
+
+    public boolean isEnabled() {
+        return shardMap != null;
+    }
+
+    public <T> T onShardOf(Long userId, Supplier<T> action) {
+        if (shardMap == null) {
+            return action.get();
+        }
+        return pinned(shardMap.shardOf(userId), action);
+    }
+
+    public <T> T onShard(String shard, Supplier<T> action) {
+        if (shardMap == null) {
+            return action.get();
+        }
+        return pinned(shard, action);
+    }
+
+    // Per-user work split by home shard, in shard order; a single group when sharding is off.
+    public <T> Map<String, List<T>> groupByShard(List<T> items, Function<T, Long> userId) {
+        if (shardMap == null) {
+            return Map.of(ShardMap.DIRECTORY, items);
+        }
+        Map<String, List<T>> groups = new TreeMap<>(Comparator.comparingInt(shardMap.shards()::indexOf));
+        for (T item : items) {
+            groups.computeIfAbsent(shardMap.shardOf(userId.apply(item)), shard -> new ArrayList<>()).add(item);
+        }
+        return groups;
+    }
+
+    public void forEachShard(Runnable action) {
+        if (shardMap == null) {
+            action.run();
+            return;
+        }
+        for (String shard : shardMap.shards()) {
+            try {
+                pinned(shard, () -> {
+                    action.run();
+                    return null;
+                });
+            } catch (RuntimeException e) {
+                log.warn("Skipping shard {} for this run: {}", shard, e.getMessage());
+            }
+        }
+    }
+
+    // Unlike forEachShard, a failure on any shard fails the whole call, for steps that must not be skipped anywhere.
+    public <T> List<T> onEveryShard(Supplier<T> action) {
+        if (shardMap == null) {
+            return List.of(action.get());
+        }
+        return shardMap.shards().stream().map(shard -> pinned(shard, action)).toList();
+    }
+
+    // For work handed to another thread, which does not inherit the shard: fails instead of using the directory shard.
+    public void requirePinned() {
+        if (shardMap != null && ShardContext.current() == null) {
+            throw new IllegalStateException("No shard is set on " + Thread.currentThread().getName()
+                    + ", per-user data would be read from and written to the directory shard");
+        }
+    }
+
+    public boolean anyShard(BooleanSupplier check) {
+        if (shardMap == null) {
+            return check.getAsBoolean();
+        }
+        return shardMap.shards().stream().anyMatch(shard -> pinned(shard, check::getAsBoolean));
+    }
+
+    // Background work on the rows of a user being moved would be lost with the source shard, so it waits like the
+    // user's own writes do.
+    public boolean isMoving(Long userId) {
+        return shardMap != null && shardMap.placement(userId).moving();
+    }
+
+    // Users being moved count as on no shard, so that no new link to them is made behind the rebalancer's back.
+    public boolean sameShard(Long userId, Long otherUserId) {
+        if (shardMap == null) {
+            return true;
+        }
+        ShardMap.Placement placement = shardMap.placement(userId);
+        ShardMap.Placement other = shardMap.placement(otherUserId);
+        return !placement.moving() && !other.moving() && placement.shard().equals(other.shard());
+    }
+
+    // Users are created and changed in the directory; a user living on another shard keeps a copy of the row there,
+    // for the foreign keys and for lookups made while pinned to that shard. Copied once the directory change committed.
+    public void userChanged(Long userId) {
+        if (shardMap == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    copyUser(userId, shardMap.shardOf(userId));
+                }
+            });
+        } else {
+            copyUser(userId, shardMap.shardOf(userId));
+        }
+    }
+
+    // Last step of deleting an account, once its home shard holds nothing of it anymore.
+    public void userDeleted(Long userId) {
+        if (shardMap == null) {
+            return;
+        }
+        Shard directory = shards.get(ShardMap.DIRECTORY);
+        directory.transaction().execute(status -> directory.jdbc().update("delete from users where id = ?", userId));
+        shardMap.forget(userId);
+    }
+
+    public void copyUser(Long userId, String shard) {
+        if (shard.equals(ShardMap.DIRECTORY)) {
+            return;
+        }
+        List<Map<String, Object>> rows = shards.get(ShardMap.DIRECTORY).jdbc()
+                .queryForList("select " + USER_COLUMNS + " from users where id = ?", userId);
+        if (rows.isEmpty()) {
+            throw new IllegalStateException("User " + userId + " is not in the directory, cannot copy it to " + shard);
+        }
+        Map<String, Object> row = rows.get(0);
+        Shard target = shards.get(shard);
+        target.transaction().executeWithoutResult(status -> {
+            int updated = target.jdbc().update("update users set username = ?, email = ?, password = ?, created_at = ?, enabled = ?,"
+                            + " deletion_requested_at = ? where id = ?",
+                    row.get("username"), row.get("email"), row.get("password"), row.get("created_at"),
+                    row.get("enabled"), row.get("deletion_requested_at"), userId);
+            if (updated == 0) {
+                target.jdbc().update("insert into users (" + USER_COLUMNS + ") values (?, ?, ?, ?, ?, ?, ?)",
+                        userId, row.get("username"), row.get("email"), row.get("password"), row.get("created_at"),
+                        row.get("enabled"), row.get("deletion_requested_at"));
+            }
+        });
+    }
+
+    // A transaction keeps the connection it started with, so the action would silently run on the old shard.
+    private static <T> T pinned(String shard, Supplier<T> action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive() && !Objects.equals(ShardContext.current(), shard)) {
+            throw new IllegalStateException("Cannot switch to " + shard + " inside a transaction bound to another shard");
+        }
+        return ShardContext.call(shard, action);
+    }
+}
@@ -0,0 +1,42 @@
+package dev.tasksys.config;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Connections come from the shard in ShardContext, or from the directory shard when none is set.
+public class ShardRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final Map<String, DataSource> shards;
+
+    public ShardRoutingDataSource(Map<String, DataSource> shards) {
+        this.shards = Collections.unmodifiableMap(new LinkedHashMap<>(shards));
+        setTargetDataSources(new HashMap<>(shards));
+        setDefaultTargetDataSource(shards.get(ShardMap.DIRECTORY));
+        setLenientFallback(false);
+    }
+
+    // In shard order, the directory shard first
+    public Map<String, DataSource> shards() {
+        return shards;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        return ShardContext.current();
+    }
+
+    @PreDestroy
+    public void close() throws Exception {
+        for (Map.Entry<String, DataSource> shard : shards.entrySet()) {
+            if (!shard.getKey().equals(ShardMap.DIRECTORY) && shard.getValue() instanceof AutoCloseable closeable) {
+                closeable.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package dev.tasksys.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.relational.SchemaManager;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Splits per-user data over several databases by user id. spring.datasource is the directory shard (shard-0), holding
+// every account and the recorded placements; tasks.sharding.urls adds shard-1, shard-2 and so on.
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "tasks.sharding.enabled", havingValue = "true")
+public class ShardingConfig {
+
+    // Ids generated on shard n start at n * ID_RANGE, so that rows keep their ids when the rebalancer moves them
+    static final long ID_RANGE = 1_000_000_000_000L;
+    private static final List<String> IDENTITY_TABLES = List.of("task_recurrences", "task_dependencies", "task_inbox", "task_attachments");
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource directoryDataSource(DataSourceProperties properties,
+                                                @Value("${tasks.read-replicas.enabled:false}") boolean readReplicas) {
+        if (readReplicas) {
+            throw new IllegalStateException("tasks.sharding and tasks.read-replicas cannot be enabled together");
+        }
+        HikariDataSource directory = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        directory.setPoolName(ShardMap.DIRECTORY);
+        return directory;
+    }
+
+    @Bean
+    @Primary
+    public ShardRoutingDataSource dataSource(HikariDataSource directoryDataSource, DataSourceProperties properties,
+                                             @Value("${tasks.sharding.urls}") List<String> urls,
+                                             @Value("${tasks.sharding.pool-size:10}") int poolSize) {
+        Map<String, DataSource> shards = new LinkedHashMap<>();
+        shards.put(ShardMap.DIRECTORY, directoryDataSource);
+        for (int i = 0; i < urls.size(); i++) {
+            HikariDataSource shard = properties.initializeDataSourceBuilder().type(HikariDataSource.class).url(urls.get(i)).build();
+            shard.setPoolName("shard-" + (i + 1));
+            shard.setMaximumPoolSize(poolSize);
+            shards.put(shard.getPoolName(), shard);
+        }
+        return new ShardRoutingDataSource(shards);
+    }
+
+    @Bean
+    public ShardMap shardMap(ShardRoutingDataSource dataSource, HikariDataSource directoryDataSource,
+                             @Value("${tasks.sharding.map}") List<String> ranges,
+                             @Value("${tasks.sharding.max-cached-placements:100000}") int maxCachedPlacements) {
+        return new ShardMap(new ArrayList<>(dataSource.shards().keySet()), ranges, directoryDataSource, maxCachedPlacements);
+    }
+
+    // Spring's task executors (@Async, async MVC handlers) run work on the shard of the thread that submitted it
+    @Bean
+    public TaskDecorator shardContextTaskDecorator() {
+        return task -> {
+            String shard = ShardContext.current();
+            return () -> ShardContext.run(shard, task);
+        };
+    }
+
+    // Flyway and Hibernate only prepare the directory shard at startup; the other shards get the same schema here.
+    @Bean
+    public InitializingBean shardSchemaInitializer(ShardRoutingDataSource dataSource, EntityManagerFactory entityManagerFactory,
+                                                   ObjectProvider<Flyway> flyway,
+                                                   @Value("${spring.jpa.hibernate.ddl-auto:none}") String ddlAuto) {
+        return () -> {
+            int index = 0;
+            for (Map.Entry<String, DataSource> shard : dataSource.shards().entrySet()) {
+                long base = index++ * ID_RANGE;
+                if (base == 0) {
+                    continue;
+                }
+                Flyway migrations = flyway.getIfAvailable();
+                if (migrations != null) {
+                    Flyway.configure().configuration(migrations.getConfiguration()).dataSource(shard.getValue()).load().migrate();
+                } else if (ddlAuto.startsWith("create")) {
+                    ShardContext.run(shard.getKey(), () -> {
+                        SchemaManager schemaManager = entityManagerFactory.unwrap(SessionFactory.class).getSchemaManager();
+                        schemaManager.dropMappedObjects(false);
+                        schemaManager.exportMappedObjects(false);
+                    });
+                } else {
+                    log.warn("Schema of {} is neither migrated nor generated (ddl-auto={}), it must already be in place", shard.getKey(), ddlAuto);
+                }
+                reserveIdRange(new JdbcTemplate(shard.getValue()), base);
+                log.info("Shard {} ready, generating ids from {}", shard.getKey(), base);
+            }
+        };
+    }
+
+    // Only on empty tables: a shard that already generated ids keeps counting from where it is.
+    private static void reserveIdRange(JdbcTemplate shard, long base) {
+        if (isEmpty(shard, "tasks")) {
+            shard.execute("alter sequence task_seq restart with " + (base + 1000));
+        }
+        for (String table : IDENTITY_TABLES) {
+            if (isEmpty(shard, table)) {
+                shard.execute("alter table " + table + " alter column id restart with " + (base + 1));
+            }
+        }
+    }
+
+    private static boolean isEmpty(JdbcTemplate shard, String table) {
+        return !Boolean.TRUE.equals(shard.queryForObject("select exists (select 1 from " + table + ")", Boolean.class));
+    }
+}
@@ -0,0 +1,20 @@
+package dev.tasksys.controller;
+
+import dev.tasksys.service.AccountDeletionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/account")
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.DELETE})
+public class AccountController {
+    private final AccountDeletionService accountDeletionService;
+
+    @DeleteMapping
+    public ResponseEntity<Void> deleteAccount() {
+        accountDeletionService.requestDeletion();
+        return ResponseEntity.accepted().build();
+    }
+}
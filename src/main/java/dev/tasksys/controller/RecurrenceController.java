@@ -0,0 +1,52 @@
+package dev.tasksys.controller;
+
+import dev.tasksys.model.RecurrenceDto;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskPatchDto;
+import dev.tasksys.service.TaskRecurrenceService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/recurrences")
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PATCH, RequestMethod.DELETE})
+public class RecurrenceController {
+    private final TaskRecurrenceService taskRecurrenceService;
+
+    @PostMapping
+    public ResponseEntity<RecurrenceDto> createRecurrence(@Valid @RequestBody RecurrenceDto recurrenceDto) {
+        return ResponseEntity.status(HttpStatus.CREATED).body(taskRecurrenceService.createRecurrence(recurrenceDto));
+    }
+
+    @GetMapping
+    public ResponseEntity<List<RecurrenceDto>> getAllRecurrences() {
+        return ResponseEntity.ok(taskRecurrenceService.getAllRecurrences());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<RecurrenceDto> getRecurrenceById(@PathVariable Long id) {
+        return ResponseEntity.ok(taskRecurrenceService.getRecurrenceById(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteRecurrence(@PathVariable Long id) {
+        taskRecurrenceService.deleteRecurrence(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PatchMapping("/{id}/occurrences/{date}")
+    public ResponseEntity<TaskDto> updateOccurrence(@PathVariable Long id,
+                                                    @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                                    @Valid @RequestBody TaskPatchDto patch) {
+        TaskDto task = taskRecurrenceService.updateOccurrence(id, date, patch);
+        return ResponseEntity.ok().eTag(TaskETags.of(task)).body(task);
+    }
+}
@@ -0,0 +1,35 @@
+package dev.tasksys.controller;
+
+import dev.tasksys.model.InboxDto;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.service.TaskAssignmentService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/tasks")
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.PUT, RequestMethod.PATCH})
+public class TaskAssignmentController {
+    private final TaskAssignmentService taskAssignmentService;
+
+    @PutMapping("/{id}/assignee")
+    public ResponseEntity<TaskDto> assign(@PathVariable Long id, @RequestBody InboxDto.AssignRequest request) {
+        TaskDto task = taskAssignmentService.assign(id, request.getAssigneeId());
+        return ResponseEntity.ok().eTag(TaskETags.of(task)).body(task);
+    }
+
+    @GetMapping("/assigned")
+    public ResponseEntity<InboxDto.Page> getAssignedTasks(@RequestParam(required = false) String cursor,
+                                                          @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskAssignmentService.getInbox(cursor, limit));
+    }
+
+    @PatchMapping("/assigned/{id}")
+    public ResponseEntity<Void> updateAssignedTaskStatus(@PathVariable Long id, @Valid @RequestBody InboxDto.StatusRequest request) {
+        taskAssignmentService.updateStatusAsAssignee(id, request.getStatus());
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,116 @@
+package dev.tasksys.controller;
+
+import dev.tasksys.model.AttachmentDto;
+import dev.tasksys.service.TaskAttachmentService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/tasks/{taskId}/attachments")
+@CrossOrigin(origins = "*", allowedHeaders = "*", exposedHeaders = {"ETag", "Content-Range", "Accept-Ranges"},
+        methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.DELETE})
+public class TaskAttachmentController {
+    // Request attributes understood by Tomcat's NIO connector to send a file straight from the page cache
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private final TaskAttachmentService taskAttachmentService;
+
+    // The raw request body is streamed into the store; multipart is not used because it spools uploads itself.
+    @PostMapping
+    public ResponseEntity<AttachmentDto> upload(@PathVariable Long taskId, @RequestParam String name,
+                                                @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+                                                HttpServletRequest request) throws IOException {
+        AttachmentDto attachment = taskAttachmentService.upload(taskId, name, contentType, request.getInputStream());
+        return ResponseEntity.created(URI.create("/api/tasks/" + taskId + "/attachments/" + attachment.getId())).body(attachment);
+    }
+
+    @GetMapping
+    public ResponseEntity<List<AttachmentDto>> getAttachments(@PathVariable Long taskId) {
+        return ResponseEntity.ok(taskAttachmentService.getAttachments(taskId));
+    }
+
+    @GetMapping("/{id}")
+    public void download(@PathVariable Long taskId, @PathVariable Long id,
+                         @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+                         @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+                         HttpServletRequest request, HttpServletResponse response) throws IOException {
+        AttachmentDto attachment = taskAttachmentService.getAttachment(taskId, id);
+        long length = attachment.getSize();
+        String etag = "\"" + attachment.getSha256() + "\"";
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setContentType(attachment.getContentType());
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(attachment.getFileName(), StandardCharsets.UTF_8).build().toString());
+
+        long start = 0;
+        long end = length - 1;
+        HttpRange requested = range == null || (ifRange != null && !ifRange.equals(etag)) ? null : singleRange(range);
+        if (requested != null) {
+            try {
+                start = requested.getRangeStart(length);
+                end = requested.getRangeEnd(length);
+            } catch (IllegalArgumentException e) {
+                start = length;
+            }
+            // HttpRange clamps the end to the length but not the start, so a range past the end comes back as start > end
+            if (start >= length || end < start) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.setStatus(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+                return;
+            }
+            response.setStatus(HttpStatus.PARTIAL_CONTENT.value());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+        }
+        long count = end - start + 1;
+        response.setContentLengthLong(count);
+
+        Optional<Path> file = taskAttachmentService.localFile(attachment);
+        if (count > 0 && file.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.get().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            return;
+        }
+        try (WritableByteChannel out = Channels.newChannel(response.getOutputStream())) {
+            taskAttachmentService.transferTo(attachment, start, count, out);
+        }
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> deleteAttachment(@PathVariable Long taskId, @PathVariable Long id) {
+        taskAttachmentService.deleteAttachment(taskId, id);
+        return ResponseEntity.noContent().build();
+    }
+
+    // Multiple ranges would need a multipart/byteranges body; like many servers we answer those with the whole file.
+    private static HttpRange singleRange(String range) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(range);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -1,55 +1,215 @@
 package dev.tasksys.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tasksys.model.ArchiveDto;
+import dev.tasksys.model.AsyncTaskDto;
+import dev.tasksys.model.BatchDto;
+import dev.tasksys.model.BulkDto;
+import dev.tasksys.model.ImportDto;
 import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskMoveDto;
+import dev.tasksys.model.TaskPatchDto;
+import dev.tasksys.model.User;
+import dev.tasksys.service.TaskArchiveService;
+import dev.tasksys.service.TaskBatchService;
+import dev.tasksys.service.TaskBulkService;
+import dev.tasksys.service.TaskEventStreamService;
+import dev.tasksys.service.TaskImportService;
+import dev.tasksys.service.TaskListResponseCache;
+import dev.tasksys.service.TaskOrderingService;
+import dev.tasksys.service.TaskRecurrenceService;
 import dev.tasksys.service.TaskService;
+import dev.tasksys.service.TaskWriteBehindService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.function.Supplier;
 
 @RestController
 @RequiredArgsConstructor
 @RequestMapping("/api/tasks")
-@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.PATCH, RequestMethod.DELETE})
 public class TaskController {
     private final TaskService taskService;
+    private final TaskEventStreamService taskEventStreamService;
+    private final TaskBulkService taskBulkService;
+    private final TaskWriteBehindService taskWriteBehindService;
+    private final TaskBatchService taskBatchService;
+    private final TaskImportService taskImportService;
+    private final TaskOrderingService taskOrderingService;
+    private final TaskRecurrenceService taskRecurrenceService;
+    private final TaskArchiveService taskArchiveService;
+    private final TaskListResponseCache taskListResponseCache;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public ResponseEntity<TaskDto> createTask(@Valid @RequestBody TaskDto taskDto) {
         TaskDto createdTask = taskService.createTask(taskDto);
-        return new ResponseEntity<>(createdTask, HttpStatus.CREATED);
+        return ResponseEntity.status(HttpStatus.CREATED).eTag(TaskETags.of(createdTask)).body(createdTask);
+    }
+
+    @PostMapping("/async")
+    public ResponseEntity<AsyncTaskDto.Status> createTaskAsync(@Valid @RequestBody TaskDto taskDto,
+                                                               @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        AsyncTaskDto.Status status = taskWriteBehindService.accept(taskDto, idempotencyKey);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/tasks/async/" + status.getIdempotencyKey()))
+                .body(status);
+    }
+
+    @GetMapping("/async/{idempotencyKey}")
+    public ResponseEntity<AsyncTaskDto.Status> getAsyncCreateStatus(@PathVariable String idempotencyKey) {
+        return ResponseEntity.ok(taskWriteBehindService.getStatus(idempotencyKey));
+    }
+
+    @PostMapping(value = "/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<BulkDto.CreateResponse> createTasks(HttpServletRequest request) throws IOException {
+        BulkDto.CreateResponse response = taskBulkService.createTasks(request.getInputStream());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/bulk/status")
+    public ResponseEntity<BulkDto.AffectedResponse> updateTaskStatuses(@Valid @RequestBody BulkDto.StatusChangeRequest request) {
+        return ResponseEntity.ok(taskBulkService.updateStatus(request));
+    }
+
+    @PostMapping("/bulk/delete")
+    public ResponseEntity<BulkDto.AffectedResponse> deleteTasks(@Valid @RequestBody BulkDto.DeleteRequest request) {
+        return ResponseEntity.ok(taskBulkService.delete(request));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<BatchDto.Response> executeBatch(@Valid @RequestBody BatchDto.Request request) {
+        return ResponseEntity.ok(taskBatchService.execute(request));
+    }
+
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ImportDto.Report> importTasks(HttpServletRequest request) throws IOException {
+        ImportDto.Format format = MediaType.APPLICATION_NDJSON.isCompatibleWith(MediaType.parseMediaType(request.getContentType()))
+                ? ImportDto.Format.NDJSON : ImportDto.Format.CSV;
+        return ResponseEntity.ok(taskImportService.importTasks(request.getInputStream(), format));
+    }
+
+    @GetMapping("/import/progress")
+    public ResponseEntity<List<ImportDto.Progress>> getImportProgress() {
+        return ResponseEntity.ok(taskImportService.getProgress());
     }
 
     @GetMapping
-    public ResponseEntity<List<TaskDto>> getAllTasks() {
-        List<TaskDto> tasks = taskService.getAllTasks();
-        return ResponseEntity.ok(tasks);
+    public void getAllTasks(@AuthenticationPrincipal User currentUser, WebRequest webRequest,
+                            HttpServletResponse response) throws IOException {
+        writeTaskList(currentUser, "all", taskService::getAllTasks, webRequest, response);
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<TaskDto> getTaskById(@PathVariable Long id) {
         TaskDto task = taskService.getTaskById(id);
-        return ResponseEntity.ok(task);
+        return ResponseEntity.ok().eTag(TaskETags.of(task)).body(task);
     }
 
     @PutMapping("/{id}")
-    public ResponseEntity<TaskDto> updateTask(@PathVariable Long id, @Valid @RequestBody TaskDto taskDto) {
-        TaskDto updatedTask = taskService.updateTask(id, taskDto);
-        return ResponseEntity.ok(updatedTask);
+    public ResponseEntity<TaskDto> updateTask(@PathVariable Long id, @Valid @RequestBody TaskDto taskDto,
+                                              @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = TaskETags.parseIfMatch(ifMatch, id);
+        TaskDto updatedTask = expectedVersion == null
+                ? taskService.updateTask(id, taskDto)
+                : taskService.updateTask(id, taskDto, expectedVersion);
+        return ResponseEntity.ok().eTag(TaskETags.of(updatedTask)).body(updatedTask);
+    }
+
+    @PatchMapping("/{id}")
+    public ResponseEntity<Void> patchTask(@PathVariable Long id, @Valid @RequestBody TaskPatchDto patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = TaskETags.parseIfMatch(ifMatch, id);
+        Long newVersion = taskService.patchTask(id, patch, expectedVersion);
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (newVersion != null) {
+            response.eTag(TaskETags.of(id, newVersion));
+        }
+        return response.build();
+    }
+
+    @PutMapping("/{id}/position")
+    public ResponseEntity<Void> moveTask(@PathVariable Long id, @RequestBody TaskMoveDto move,
+                                         @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = TaskETags.parseIfMatch(ifMatch, id);
+        Long newVersion = taskOrderingService.moveTask(id, move, expectedVersion);
+        ResponseEntity.HeadersBuilder<?> response = ResponseEntity.noContent();
+        if (newVersion != null) {
+            response.eTag(TaskETags.of(id, newVersion));
+        }
+        return response.build();
     }
 
     @DeleteMapping("/{id}")
-    public ResponseEntity<Void> deleteTask(@PathVariable Long id) {
-        taskService.deleteTask(id);
+    public ResponseEntity<Void> deleteTask(@PathVariable Long id,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        Long expectedVersion = TaskETags.parseIfMatch(ifMatch, id);
+        if (expectedVersion == null) {
+            taskService.deleteTask(id);
+        } else {
+            taskService.deleteTask(id, expectedVersion);
+        }
         return ResponseEntity.noContent().build();
     }
 
+    @GetMapping("/due")
+    public ResponseEntity<List<TaskDto>> getTasksDue(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                                     @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(taskRecurrenceService.getTasksDueBetween(from, to));
+    }
+
+    @GetMapping("/archive")
+    public ResponseEntity<ArchiveDto.Page> getArchivedTasks(@RequestParam(required = false) String cursor,
+                                                            @RequestParam(defaultValue = "50") int limit) {
+        return ResponseEntity.ok(taskArchiveService.getArchivedTasks(cursor, limit));
+    }
+
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<TaskDto>> getTasksByStatus(@PathVariable String status) {
-        List<TaskDto> tasks = taskService.getTasksByStatus(status.toUpperCase());
-        return ResponseEntity.ok(tasks);
+    public void getTasksByStatus(@PathVariable String status, @AuthenticationPrincipal User currentUser,
+                                 WebRequest webRequest, HttpServletResponse response) throws IOException {
+        String normalized = status.toUpperCase();
+        writeTaskList(currentUser, "status:" + normalized, () -> taskService.getTasksByStatus(normalized), webRequest, response);
+    }
+
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamTaskEvents(@AuthenticationPrincipal User currentUser,
+                                       @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        return taskEventStreamService.subscribe(currentUser.getId(), lastEventId);
+    }
+
+    // Cached bodies are written as-is; the ETag hashes the exact bytes sent, so it is strong.
+    private void writeTaskList(User currentUser, String view, Supplier<List<TaskDto>> loader,
+                               WebRequest webRequest, HttpServletResponse response) throws IOException {
+        Long userId = currentUser == null ? null : currentUser.getId();
+        TaskListResponseCache.Entry entry = taskListResponseCache.get(userId, view);
+        if (entry == null) {
+            TaskListResponseCache.Ticket ticket = taskListResponseCache.begin(userId);
+            byte[] body = objectMapper.writeValueAsBytes(loader.get());
+            entry = new TaskListResponseCache.Entry(body, TaskETags.of(body));
+            taskListResponseCache.put(ticket, view, entry);
+        }
+        response.setHeader(HttpHeaders.ETAG, entry.etag());
+        if (webRequest.checkNotModified(entry.etag())) {
+            return;
+        }
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(entry.body().length);
+        response.getOutputStream().write(entry.body());
     }
-}
\ No newline at end of file
+}
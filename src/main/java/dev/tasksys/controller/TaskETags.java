@@ -0,0 +1,47 @@
+package dev.tasksys.controller;
+
+import dev.tasksys.exception.TaskVersionMismatchException;
+import dev.tasksys.model.TaskDto;
+import org.springframework.util.DigestUtils;
+
+final class TaskETags {
+
+    private TaskETags() {
+    }
+
+    static String of(TaskDto task) {
+        return of(task.getId(), versionOf(task));
+    }
+
+    static String of(Long id, long version) {
+        return "\"" + id + "." + version + "\"";
+    }
+
+    static String of(byte[] body) {
+        return "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+    }
+
+    static Long parseIfMatch(String ifMatch, Long id) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.startsWith("W/") || tag.contains(",")) {
+            throw new TaskVersionMismatchException("If-Match requires a single strong entity tag");
+        }
+        tag = tag.replace("\"", "");
+        int separator = tag.lastIndexOf('.');
+        if (separator < 0 || !tag.substring(0, separator).equals(String.valueOf(id))) {
+            throw new TaskVersionMismatchException("Entity tag " + ifMatch + " does not match task " + id);
+        }
+        try {
+            return Long.parseLong(tag.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            throw new TaskVersionMismatchException("Unrecognized entity tag: " + ifMatch, e);
+        }
+    }
+
+    private static long versionOf(TaskDto task) {
+        return task.getVersion() == null ? 0L : task.getVersion();
+    }
+}
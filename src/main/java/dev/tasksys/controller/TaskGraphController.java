@@ -0,0 +1,51 @@
+package dev.tasksys.controller;
+
+import dev.tasksys.model.TaskGraphDto;
+import dev.tasksys.service.TaskGraphService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequiredArgsConstructor
+@RequestMapping("/api/tasks")
+@CrossOrigin(origins = "*", allowedHeaders = "*", methods = {RequestMethod.GET, RequestMethod.POST, RequestMethod.PUT, RequestMethod.DELETE})
+public class TaskGraphController {
+    private final TaskGraphService taskGraphService;
+
+    @PutMapping("/{id}/parent")
+    public ResponseEntity<Void> setParent(@PathVariable Long id, @RequestBody TaskGraphDto.ParentRequest request) {
+        taskGraphService.setParent(id, request.getParentId());
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/{id}/dependencies")
+    public ResponseEntity<Void> addDependency(@PathVariable Long id, @Valid @RequestBody TaskGraphDto.DependencyRequest request) {
+        taskGraphService.addDependency(id, request.getBlockedById());
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/{id}/dependencies/{blockedById}")
+    public ResponseEntity<Void> removeDependency(@PathVariable Long id, @PathVariable Long blockedById) {
+        taskGraphService.removeDependency(id, blockedById);
+        return ResponseEntity.noContent().build();
+    }
+
+    @GetMapping("/{id}/readiness")
+    public ResponseEntity<TaskGraphDto.Readiness> getReadiness(@PathVariable Long id) {
+        return ResponseEntity.ok(taskGraphService.getReadiness(id));
+    }
+
+    @GetMapping("/{id}/unblocks")
+    public ResponseEntity<TaskGraphDto.Unblocks> getUnblocks(@PathVariable Long id) {
+        return ResponseEntity.ok(taskGraphService.getUnblocks(id));
+    }
+
+    @GetMapping("/ready")
+    public ResponseEntity<List<Long>> getReadyTaskIds() {
+        return ResponseEntity.ok(taskGraphService.getReadyTaskIds());
+    }
+}
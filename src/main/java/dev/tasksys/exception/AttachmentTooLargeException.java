@@ -0,0 +1,11 @@
+package dev.tasksys.exception;
+
+public class AttachmentTooLargeException extends RuntimeException {
+    public AttachmentTooLargeException(String message) {
+        super(message);
+    }
+
+    public AttachmentTooLargeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
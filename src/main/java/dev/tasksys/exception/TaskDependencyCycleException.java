@@ -0,0 +1,11 @@
+package dev.tasksys.exception;
+
+public class TaskDependencyCycleException extends RuntimeException {
+    public TaskDependencyCycleException(String message) {
+        super(message);
+    }
+
+    public TaskDependencyCycleException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,11 @@
+package dev.tasksys.exception;
+
+public class TaskVersionMismatchException extends RuntimeException {
+    public TaskVersionMismatchException(String message) {
+        super(message);
+    }
+
+    public TaskVersionMismatchException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
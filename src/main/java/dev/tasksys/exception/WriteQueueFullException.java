@@ -0,0 +1,11 @@
+package dev.tasksys.exception;
+
+public class WriteQueueFullException extends RuntimeException {
+    public WriteQueueFullException(String message) {
+        super(message);
+    }
+
+    public WriteQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,18 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+public class ArchiveDto {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Page {
+        private List<TaskDto> tasks;
+        private String nextCursor;
+    }
+}
@@ -0,0 +1,22 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+public class AsyncTaskDto {
+
+    public enum State {
+        PENDING, PERSISTED, FAILED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Status {
+        private String idempotencyKey;
+        private State state;
+        private Long taskId;
+        private String error;
+    }
+}
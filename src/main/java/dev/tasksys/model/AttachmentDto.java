@@ -0,0 +1,20 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttachmentDto {
+    private Long id;
+    private Long taskId;
+    private String fileName;
+    private String contentType;
+    private Long size;
+    private String sha256;
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,64 @@
+package dev.tasksys.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchDto {
+
+    public enum Mode {
+        ATOMIC, BEST_EFFORT
+    }
+
+    public enum OperationType {
+        CREATE, UPDATE, PATCH, DELETE
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Operation {
+        @NotNull(message = "Operation type is required")
+        private OperationType op;
+        private Long id;
+        private Long expectedVersion;
+        private TaskDto task;
+        private TaskPatchDto patch;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Request {
+        private Mode mode = Mode.ATOMIC;
+
+        @NotEmpty(message = "At least one operation is required")
+        private List<@Valid @NotNull Operation> operations;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class OperationResult {
+        private int index;
+        private OperationType op;
+        private int status;
+        private Long id;
+        private TaskDto task;
+        private String error;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Response {
+        private boolean committed;
+        private List<OperationResult> results = new ArrayList<>();
+    }
+}
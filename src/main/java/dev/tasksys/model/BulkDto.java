@@ -0,0 +1,85 @@
+package dev.tasksys.model;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BulkDto {
+
+    public enum ItemStatus {
+        CREATED, REJECTED, FAILED
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ItemResult {
+        private int index;
+        private Long id;
+        private ItemStatus status;
+        private String error;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class CreateResponse {
+        private int created;
+        private int rejected;
+        private int failed;
+        private List<ItemResult> results = new ArrayList<>();
+
+        public void add(ItemResult result) {
+            results.add(result);
+            switch (result.getStatus()) {
+                case CREATED -> created++;
+                case REJECTED -> rejected++;
+                case FAILED -> failed++;
+            }
+        }
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Filter {
+        private String status;
+        private LocalDate dueFrom;
+        private LocalDate dueTo;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusChangeRequest {
+        private List<Long> ids;
+
+        @Valid
+        private Filter filter;
+
+        @NotBlank(message = "Status is required")
+        private String status;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DeleteRequest {
+        private List<Long> ids;
+
+        @Valid
+        private Filter filter;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AffectedResponse {
+        private int affected;
+    }
+}
@@ -0,0 +1,30 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.Set;
+
+// Raised on a node when another node reports writes that its in-process caches have not seen.
+@Getter
+@AllArgsConstructor
+public class CacheInvalidationEvent {
+
+    private final boolean everything;
+
+    private final boolean allTasks;
+
+    private final Set<Long> taskOwnerIds;
+
+    private final Set<Long> taskIds;
+
+    private final Set<Long> userIds;
+
+    public static CacheInvalidationEvent everything() {
+        return new CacheInvalidationEvent(true, true, Set.of(), Set.of(), Set.of());
+    }
+
+    public boolean affectsTasksOf(Long userId) {
+        return everything || taskOwnerIds.contains(userId);
+    }
+}
@@ -0,0 +1,46 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class ImportDto {
+
+    public enum Format {
+        CSV, NDJSON
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Rejection {
+        private long row;
+        private String error;
+    }
+
+    @Data
+    @NoArgsConstructor
+    public static class Report {
+        private String method;
+        private long imported;
+        private long rejected;
+        private long failed;
+        private long elapsedMs;
+        private boolean rejectionsTruncated;
+        private List<Rejection> rejections = new ArrayList<>();
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Progress {
+        private String method;
+        private long imported;
+        private long rejected;
+        private long failed;
+        private long elapsedMs;
+    }
+}
@@ -0,0 +1,46 @@
+package dev.tasksys.model;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class InboxDto {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class AssignRequest {
+        private Long assigneeId;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class StatusRequest {
+        @NotBlank(message = "Status is required")
+        private String status;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Entry {
+        private Long taskId;
+        private Long ownerId;
+        private String title;
+        private LocalDate dueDate;
+        private String status;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Page {
+        private List<Entry> entries;
+        private String nextCursor;
+    }
+}
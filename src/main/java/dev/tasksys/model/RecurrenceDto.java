@@ -0,0 +1,41 @@
+package dev.tasksys.model;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecurrenceDto {
+    private Long id;
+
+    @NotBlank(message = "Title is required")
+    private String title;
+
+    @Size(max = 500, message = "Description must be at most 500 characters")
+    private String description;
+
+    private String status;
+
+    @NotBlank(message = "Frequency is required")
+    private String frequency;
+
+    @Min(value = 1, message = "Interval must be at least 1")
+    @Max(value = 1000, message = "Interval must be at most 1000")
+    private int interval = 1;
+
+    @NotNull(message = "Start date is required")
+    private LocalDate startDate;
+
+    private LocalDate untilDate;
+
+    private Long version;
+}
@@ -4,18 +4,34 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "tasks")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "tasks")
+// Indexes for the H2 profiles; PostgreSQL gets its (partial) indexes from db/migration/postgresql
+@Table(name = "tasks",
+        indexes = {
+                @Index(name = "idx_tasks_user_status_position", columnList = "user_id, status, board_position"),
+                @Index(name = "idx_tasks_user_due_date", columnList = "user_id, due_date"),
+                @Index(name = "idx_tasks_parent", columnList = "parent_id"),
+                @Index(name = "idx_tasks_assignee", columnList = "assignee_id"),
+                @Index(name = "idx_tasks_archivable", columnList = "status, completed_at")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_tasks_recurrence_occurrence", columnNames = {"recurrence_id", "occurrence_date"}))
 @NoArgsConstructor
 @AllArgsConstructor
 @Getter
 @Setter
 public class Task {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "task_seq")
+    @SequenceGenerator(name = "task_seq", sequenceName = "task_seq", initialValue = 1000, allocationSize = 50)
     private Long id;
 
     @NotBlank(message = "Title is required")
@@ -25,18 +41,47 @@ public class Task {
     @Column(length = 500)
     private String description;
 
+    @Column(name = "body_preview", length = 200)
+    private String bodyPreview;
+
     @NotNull(message = "Due date is required")
-    @Column(nullable = false)
+    @Column(name = "due_date", nullable = false)
     private LocalDate dueDate;
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private TaskStatus status = TaskStatus.TO_DO;
 
+    // Set on insert only; moves and rebalancing rewrite it with their own statements, which entity saves must not undo
+    @Column(name = "board_position", length = 64, updatable = false)
+    private String position;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @Column(name = "parent_id")
+    private Long parentId;
+
+    @Column(name = "assignee_id")
+    private Long assigneeId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "recurrence_id")
+    private TaskRecurrence recurrence;
+
+    @Column(name = "occurrence_date")
+    private LocalDate occurrenceDate;
+
+    // When the task last became DONE, null while it is not; archival measures a task's age from here
+    @Column(name = "completed_at")
+    private LocalDateTime completedAt;
+
+    @Version
+    @ColumnDefault("0")
+    @Column(nullable = false)
+    private Long version;
+
     public Task(String title, String description, LocalDate dueDate, TaskStatus status, User user) {
         this.title = title;
         this.description = description;
@@ -44,4 +89,15 @@ public class Task {
         this.status = status;
         this.user = user;
     }
+
+    // Statement-level status changes in TaskRepository and the JDBC paths keep completed_at the same way
+    @PrePersist
+    @PreUpdate
+    protected void trackCompletion() {
+        if (status != TaskStatus.DONE) {
+            completedAt = null;
+        } else if (completedAt == null) {
+            completedAt = LocalDateTime.now();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,54 @@
+package dev.tasksys.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "task_attachments",
+        indexes = {
+                @Index(name = "idx_task_attachments_task", columnList = "task_id"),
+                @Index(name = "idx_task_attachments_user", columnList = "user_id"),
+                @Index(name = "idx_task_attachments_sha256", columnList = "sha256")
+        })
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TaskAttachment {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "file_name", nullable = false)
+    private String fileName;
+
+    @Column(name = "content_type", nullable = false, length = 100)
+    private String contentType;
+
+    @Column(nullable = false)
+    private Long size;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    public TaskAttachment(Long taskId, Long userId, String fileName, String contentType, Long size, String sha256) {
+        this.taskId = taskId;
+        this.userId = userId;
+        this.fileName = fileName;
+        this.contentType = contentType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.createdAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,24 @@
+package dev.tasksys.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// Long-form task text, kept out of the tasks table so that list queries never read it.
+@Entity
+@Table(name = "task_bodies", indexes = @Index(name = "idx_task_bodies_user", columnList = "user_id"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TaskBody {
+    @Id
+    @Column(name = "task_id")
+    private Long taskId;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Convert(converter = CompressedTextConverter.class)
+    @Column(nullable = false, length = 1048576)
+    private String content;
+}
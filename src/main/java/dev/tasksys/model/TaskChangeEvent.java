@@ -0,0 +1,47 @@
+package dev.tasksys.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class TaskChangeEvent {
+
+    public enum Type {
+        CREATED, UPDATED, DELETED, BULK_UPDATED, BULK_DELETED
+    }
+
+    @JsonIgnore
+    private final Long userId;
+
+    private final Type type;
+
+    private final Long taskId;
+
+    private final TaskDto task;
+
+    public static TaskChangeEvent created(Long userId, TaskDto task) {
+        return new TaskChangeEvent(userId, Type.CREATED, task.getId(), task);
+    }
+
+    public static TaskChangeEvent updated(Long userId, TaskDto task) {
+        return new TaskChangeEvent(userId, Type.UPDATED, task.getId(), task);
+    }
+
+    public static TaskChangeEvent patched(Long userId, Long taskId) {
+        return new TaskChangeEvent(userId, Type.UPDATED, taskId, null);
+    }
+
+    public static TaskChangeEvent deleted(Long userId, Long taskId) {
+        return new TaskChangeEvent(userId, Type.DELETED, taskId, null);
+    }
+
+    public static TaskChangeEvent bulkUpdated(Long userId) {
+        return new TaskChangeEvent(userId, Type.BULK_UPDATED, null, null);
+    }
+
+    public static TaskChangeEvent bulkDeleted(Long userId) {
+        return new TaskChangeEvent(userId, Type.BULK_DELETED, null, null);
+    }
+}
@@ -0,0 +1,36 @@
+package dev.tasksys.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(name = "task_dependencies",
+        indexes = {
+                @Index(name = "idx_task_dependencies_user", columnList = "user_id"),
+                @Index(name = "idx_task_dependencies_blocked_by", columnList = "blocked_by_id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_task_dependencies_edge", columnNames = {"task_id", "blocked_by_id"}))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TaskDependency {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "blocked_by_id", nullable = false)
+    private Long blockedById;
+
+    public TaskDependency(Long userId, Long taskId, Long blockedById) {
+        this.userId = userId;
+        this.taskId = taskId;
+        this.blockedById = blockedById;
+    }
+}
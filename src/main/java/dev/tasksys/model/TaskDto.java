@@ -2,6 +2,7 @@ package dev.tasksys.model;
 
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -19,12 +20,30 @@ public class TaskDto {
 
     private String description;
 
+    // Only filled in when a single task is requested; lists carry the preview alone
+    @Size(max = 100000, message = "Body must be at most 100000 characters")
+    private String body;
+
+    private String bodyPreview;
+
     @NotNull(message = "Due date is required")
     private LocalDate dueDate;
 
     @NotBlank(message = "Status is required")
     private String status;
 
+    private Long version;
+
+    private String position;
+
+    private Long parentId;
+
+    private Long assigneeId;
+
+    private Long recurrenceId;
+
+    private LocalDate occurrenceDate;
+
     public TaskDto(String title, String description, LocalDate dueDate, String status) {
         this.title = title;
         this.description = description;
@@ -0,0 +1,44 @@
+package dev.tasksys.model;
+
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+public class TaskGraphDto {
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ParentRequest {
+        private Long parentId;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class DependencyRequest {
+        @NotNull(message = "blockedById is required")
+        private Long blockedById;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Readiness {
+        private Long taskId;
+        private boolean ready;
+        private List<Long> openBlockers;
+        private List<Long> openSubtasks;
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Unblocks {
+        private Long taskId;
+        private List<Long> unblocked;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.tasksys.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+// Denormalized copy of an assigned task, kept in the assignee's inbox so that "assigned to me"
+// is a single index range scan that never touches the owners' rows.
+@Entity
+@Table(name = "task_inbox",
+        indexes = {
+                @Index(name = "idx_task_inbox_assignee_due_date", columnList = "assignee_id, due_date, task_id"),
+                @Index(name = "idx_task_inbox_owner", columnList = "owner_id")
+        },
+        uniqueConstraints = @UniqueConstraint(name = "uk_task_inbox_task", columnNames = "task_id"))
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class TaskInboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "assignee_id", nullable = false)
+    private Long assigneeId;
+
+    @Column(name = "task_id", nullable = false)
+    private Long taskId;
+
+    @Column(name = "owner_id", nullable = false)
+    private Long ownerId;
+
+    @Column(nullable = false)
+    private String title;
+
+    @Column(name = "due_date", nullable = false)
+    private LocalDate dueDate;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TaskStatus status;
+
+    public TaskInboxEntry(Long assigneeId, Task task) {
+        this.assigneeId = assigneeId;
+        this.taskId = task.getId();
+        this.ownerId = task.getUser().getId();
+        this.title = task.getTitle();
+        this.dueDate = task.getDueDate();
+        this.status = task.getStatus();
+    }
+}
@@ -0,0 +1,16 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskMoveDto {
+    private Long afterId;
+
+    private Long beforeId;
+
+    private String status;
+}
@@ -0,0 +1,35 @@
+package dev.tasksys.model;
+
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskPatchDto {
+    @Pattern(regexp = ".*\\S.*", message = "Title must not be blank")
+    private String title;
+
+    @Size(max = 500, message = "Description must be at most 500 characters")
+    private String description;
+
+    private LocalDate dueDate;
+
+    private String status;
+
+    @Size(max = 100000, message = "Body must be at most 100000 characters")
+    private String body;
+
+    public TaskPatchDto(String title, String description, LocalDate dueDate, String status) {
+        this(title, description, dueDate, status, null);
+    }
+
+    public boolean isEmpty() {
+        return title == null && description == null && dueDate == null && status == null && body == null;
+    }
+}
@@ -0,0 +1,12 @@
+package dev.tasksys.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+// Raised on the node that changed a user, once the change has committed.
+@Getter
+@AllArgsConstructor
+public class UserChangeEvent {
+
+    private final Long userId;
+}
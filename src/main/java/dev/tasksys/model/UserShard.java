@@ -0,0 +1,24 @@
+package dev.tasksys.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+// A user placed on another shard than the configured id ranges say, or being moved there by the rebalancer.
+// Read through ShardMap on the directory shard only.
+@Entity
+@Table(name = "user_shards")
+@NoArgsConstructor
+@AllArgsConstructor
+@Getter
+@Setter
+public class UserShard {
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(nullable = false, length = 64)
+    private String shard;
+
+    @Column(nullable = false)
+    private boolean moving;
+}
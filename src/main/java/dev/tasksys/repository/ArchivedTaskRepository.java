@@ -0,0 +1,33 @@
+package dev.tasksys.repository;
+
+import dev.tasksys.model.ArchivedTask;
+import dev.tasksys.model.TaskStatus;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ArchivedTaskRepository extends JpaRepository<ArchivedTask, Long> {
+
+    @Query("select a from ArchivedTask a where a.userId = :userId" +
+            " and (:beforeDate is null or a.dueDate < :beforeDate or (a.dueDate = :beforeDate and a.id < :beforeId))" +
+            " order by a.dueDate desc, a.id desc")
+    List<ArchivedTask> findPage(@Param("userId") Long userId, @Param("beforeDate") LocalDate beforeDate,
+                                @Param("beforeId") Long beforeId, Limit limit);
+
+    @Query("select a.id from ArchivedTask a where a.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Query("insert into ArchivedTask (id, userId, title, description, dueDate, status, archivedAt)" +
+            " select t.id, t.user.id, t.title, t.description, t.dueDate, t.status, local datetime from Task t" +
+            " where t.id in :ids and t.status = :status")
+    int copyFromTasks(@Param("ids") Collection<Long> ids, @Param("status") TaskStatus status);
+}
@@ -0,0 +1,33 @@
+package dev.tasksys.repository;
+
+import dev.tasksys.model.TaskAttachment;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskAttachmentRepository extends JpaRepository<TaskAttachment, Long> {
+    List<TaskAttachment> findByTaskIdAndUserIdOrderByIdAsc(Long taskId, Long userId);
+    Optional<TaskAttachment> findByIdAndTaskIdAndUserId(Long id, Long taskId, Long userId);
+    boolean existsBySha256(String sha256);
+
+    @Query("select a.id from TaskAttachment a where a.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Query("delete from TaskAttachment a where a.taskId = :taskId")
+    int deleteByTask(@Param("taskId") Long taskId);
+
+    // Archived tasks keep their attachments.
+    @Modifying
+    @Query("delete from TaskAttachment a where a.userId = :userId" +
+            " and not exists (select 1 from Task t where t.id = a.taskId)" +
+            " and not exists (select 1 from ArchivedTask t where t.id = a.taskId)")
+    int deleteOrphans(@Param("userId") Long userId);
+}
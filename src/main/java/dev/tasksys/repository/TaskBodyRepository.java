@@ -0,0 +1,29 @@
+package dev.tasksys.repository;
+
+import dev.tasksys.model.TaskBody;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskBodyRepository extends JpaRepository<TaskBody, Long> {
+
+    @Query("select b.taskId from TaskBody b where b.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Query("delete from TaskBody b where b.taskId = :taskId")
+    int deleteByTask(@Param("taskId") Long taskId);
+
+    // Archived tasks keep their bodies.
+    @Modifying
+    @Query("delete from TaskBody b where b.userId = :userId" +
+            " and not exists (select 1 from Task t where t.id = b.taskId)" +
+            " and not exists (select 1 from ArchivedTask t where t.id = b.taskId)")
+    int deleteOrphans(@Param("userId") Long userId);
+}
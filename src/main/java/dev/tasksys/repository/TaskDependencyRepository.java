@@ -0,0 +1,23 @@
+package dev.tasksys.repository;
+
+import dev.tasksys.model.TaskDependency;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaskDependencyRepository extends JpaRepository<TaskDependency, Long> {
+    List<TaskDependency> findByUserId(Long userId);
+
+    @Query("select d.id from TaskDependency d where d.userId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Query("delete from TaskDependency d where d.userId = :userId and d.taskId = :taskId and d.blockedById = :blockedById")
+    int deleteEdge(@Param("userId") Long userId, @Param("taskId") Long taskId, @Param("blockedById") Long blockedById);
+}
@@ -0,0 +1,50 @@
+package dev.tasksys.repository;
+
+import dev.tasksys.model.TaskInboxEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskInboxRepository extends JpaRepository<TaskInboxEntry, Long> {
+    Optional<TaskInboxEntry> findByTaskId(Long taskId);
+    Optional<TaskInboxEntry> findByTaskIdAndAssigneeId(Long taskId, Long assigneeId);
+
+    @Query("select e from TaskInboxEntry e where e.assigneeId = :assigneeId" +
+            " and (:afterDate is null or e.dueDate > :afterDate or (e.dueDate = :afterDate and e.taskId > :afterId))" +
+            " order by e.dueDate asc, e.taskId asc")
+    List<TaskInboxEntry> findPage(@Param("assigneeId") Long assigneeId, @Param("afterDate") LocalDate afterDate,
+                                  @Param("afterId") Long afterId, Limit limit);
+
+    @Query("select e.id from TaskInboxEntry e where e.ownerId = :userId or e.assigneeId = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Modifying
+    @Query("update TaskInboxEntry e set e.title = (select t.title from Task t where t.id = e.taskId)," +
+            " e.dueDate = (select t.dueDate from Task t where t.id = e.taskId)," +
+            " e.status = (select t.status from Task t where t.id = e.taskId)" +
+            " where e.taskId = :taskId and exists (select 1 from Task t where t.id = e.taskId)")
+    int refreshFromTask(@Param("taskId") Long taskId);
+
+    @Modifying
+    @Query("update TaskInboxEntry e set e.title = (select t.title from Task t where t.id = e.taskId)," +
+            " e.dueDate = (select t.dueDate from Task t where t.id = e.taskId)," +
+            " e.status = (select t.status from Task t where t.id = e.taskId)" +
+            " where e.ownerId = :ownerId and exists (select 1 from Task t where t.id = e.taskId)")
+    int refreshFromOwnerTasks(@Param("ownerId") Long ownerId);
+
+    @Modifying
+    @Query("delete from TaskInboxEntry e where e.taskId = :taskId")
+    int deleteByTask(@Param("taskId") Long taskId);
+
+    @Modifying
+    @Query("delete from TaskInboxEntry e where e.ownerId = :ownerId and not exists (select 1 from Task t where t.id = e.taskId)")
+    int deleteOrphans(@Param("ownerId") Long ownerId);
+}
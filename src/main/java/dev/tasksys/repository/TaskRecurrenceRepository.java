@@ -0,0 +1,25 @@
+package dev.tasksys.repository;
+
+import dev.tasksys.model.TaskRecurrence;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TaskRecurrenceRepository extends JpaRepository<TaskRecurrence, Long> {
+    List<TaskRecurrence> findByUserIdOrderByIdAsc(Long userId);
+    Optional<TaskRecurrence> findByIdAndUserId(Long id, Long userId);
+
+    @Query("select r.id from TaskRecurrence r where r.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("select r from TaskRecurrence r where r.user.id = :userId and r.startDate <= :to" +
+            " and (r.untilDate is null or r.untilDate >= :from)")
+    List<TaskRecurrence> findActiveBetween(@Param("userId") Long userId, @Param("from") LocalDate from, @Param("to") LocalDate to);
+}
@@ -2,16 +2,208 @@ package dev.tasksys.repository;
 
 import dev.tasksys.model.Task;
 import dev.tasksys.model.TaskStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
+
+    // Cached task finders share a region of their own, dropped when another node reports task writes
+    String QUERY_CACHE_REGION = "task-queries";
+
+    // The ids of the user's tasks matching a bulk filter, for the statements that have to run before deleting them
+    String FILTERED_IDS = "select f.id from Task f where f.user.id = :userId and (:status is null or f.status = :status)" +
+            " and (:dueFrom is null or f.dueDate >= :dueFrom) and (:dueTo is null or f.dueDate <= :dueTo)";
+
+    // Keeps completedAt in step with the status a statement sets, as Task's callbacks do for entity saves: it is kept
+    // while a task stays DONE and cleared when it leaves DONE. The second form is for statements that may keep the status.
+    String SET_COMPLETED_AT = "t.completedAt = case when :status = dev.tasksys.model.TaskStatus.DONE" +
+            " then coalesce(t.completedAt, local datetime) else null end";
+    String SET_COMPLETED_AT_IF_STATUS = "t.completedAt = case when coalesce(:status, t.status) = dev.tasksys.model.TaskStatus.DONE" +
+            " then coalesce(t.completedAt, local datetime) else null end";
+
     List<Task> findByUserIdAndStatus(Long userId, TaskStatus status);
+
+    @Transactional(readOnly = true)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
     List<Task> findByUserId(Long userId);
+
+    @Transactional(readOnly = true)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
     Optional<Task> findByIdAndUserId(Long id, Long userId);
+
     List<Task> findByUserIdAndTitleContainingIgnoreCase(Long userId, String title);
+    boolean existsByIdAndUserId(Long id, Long userId);
+    List<Task> findByUserIdAndDueDateBetweenOrderByDueDateAscIdAsc(Long userId, LocalDate from, LocalDate to);
+    Optional<Task> findByRecurrenceIdAndOccurrenceDate(Long recurrenceId, LocalDate occurrenceDate);
+
+    @Query("select t.recurrence.id, t.occurrenceDate from Task t where t.recurrence.id in :recurrenceIds" +
+            " and t.occurrenceDate between :from and :to")
+    List<Object[]> findMaterializedOccurrences(@Param("recurrenceIds") Collection<Long> recurrenceIds,
+                                               @Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    long countByUserIdAndIdIn(Long userId, Collection<Long> ids);
+
+    @Query("select t.id from Task t where t.user.id = :userId")
+    List<Long> findIdsByUserId(@Param("userId") Long userId, Limit limit);
+
+    @Query("select t.id, t.status, t.parentId from Task t where t.user.id = :userId")
+    List<Object[]> findGraphNodes(@Param("userId") Long userId);
+
+    @Query("select t.status from Task t where t.id = :id")
+    Optional<TaskStatus> findStatusById(@Param("id") Long id);
+
+    @Modifying
+    @Query("update Task t set t.parentId = :parentId, t.version = t.version + 1 where t.id = :id and t.user.id = :userId")
+    int updateParent(@Param("id") Long id, @Param("userId") Long userId, @Param("parentId") Long parentId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Task t set t.parentId = null, t.version = t.version + 1 where t.user.id = :userId and t.parentId = :parentId")
+    int clearParent(@Param("userId") Long userId, @Param("parentId") Long parentId);
+
+    @Modifying
+    @Query("update Task t set t.status = :status, " + SET_COMPLETED_AT + ", t.version = t.version + 1" +
+            " where t.id = :id and t.assigneeId = :assigneeId")
+    int updateStatusAsAssignee(@Param("id") Long id, @Param("assigneeId") Long assigneeId, @Param("status") TaskStatus status);
+
+    @Query("select distinct t.user.id from Task t where t.assigneeId = :assigneeId")
+    List<Long> findOwnerIdsByAssigneeId(@Param("assigneeId") Long assigneeId);
+
+    @Modifying
+    @Query("update Task t set t.assigneeId = null, t.version = t.version + 1 where t.assigneeId = :assigneeId")
+    int clearAssignee(@Param("assigneeId") Long assigneeId);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("delete from TaskDependency d where d.taskId = :taskId or d.blockedById = :taskId")
+    int deleteDependenciesOf(@Param("taskId") Long taskId);
+
+    // Recurring occurrences stay hot: archiving one would make its computed occurrence reappear.
+    @Query("select t.id, t.user.id from Task t where t.status = :status and t.completedAt < :cutoff and t.recurrence is null")
+    List<Object[]> findArchivable(@Param("status") TaskStatus status, @Param("cutoff") LocalDateTime cutoff, Limit limit);
+
+    @Modifying
+    @Query("delete from TaskDependency d where d.taskId in :ids or d.blockedById in :ids")
+    int deleteDependenciesOfAll(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Task t set t.parentId = null, t.version = t.version + 1 where t.parentId in :ids")
+    int clearParentOfAll(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Task t where t.id in :ids and t.status = :status")
+    int deleteByIdsAndStatus(@Param("ids") Collection<Long> ids, @Param("status") TaskStatus status);
+
+    @Modifying
+    @Query("update Task t set t.recurrence = null where t.recurrence.id = :recurrenceId")
+    int detachFromRecurrence(@Param("recurrenceId") Long recurrenceId);
+
+    interface PositionView {
+        Long getId();
+        TaskStatus getStatus();
+        String getPosition();
+        Long getVersion();
+    }
+
+    @Transactional(readOnly = true)
+    @Query("select t from Task t where t.user.id = :userId and t.status = :status order by t.position asc nulls last, t.id asc")
+    List<Task> findByUserIdAndStatusInBoardOrder(@Param("userId") Long userId, @Param("status") TaskStatus status);
+
+    @Query("select t.id as id, t.status as status, t.position as position, t.version as version from Task t" +
+            " where t.user.id = :userId and t.id in :ids")
+    List<PositionView> findPositions(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Query("select t.id as id, t.status as status, t.position as position, t.version as version from Task t" +
+            " where t.user.id = :userId and t.status = :status order by t.position asc nulls last, t.id asc")
+    List<PositionView> findPositionsInBoardOrder(@Param("userId") Long userId, @Param("status") TaskStatus status);
+
+    @Query("select t.position from Task t where t.user.id = :userId and t.status = :status and t.position is not null" +
+            " order by t.position desc limit 1")
+    Optional<String> findLastPosition(@Param("userId") Long userId, @Param("status") TaskStatus status);
+
+    @Query("select distinct t.user.id, t.status from Task t where t.position is null or length(t.position) > :maxLength")
+    List<Object[]> findColumnsWithUnbalancedPositions(@Param("maxLength") int maxLength, Limit limit);
+
+    @Query("select t.user.id, t.status from Task t where t.position is not null" +
+            " group by t.user.id, t.status, t.position having count(t) > 1")
+    List<Object[]> findColumnsWithDuplicatePositions(Limit limit);
+
+    @Modifying
+    @Query("update Task t set t.position = :position, t.status = coalesce(:status, t.status), " + SET_COMPLETED_AT_IF_STATUS +
+            ", t.version = t.version + 1 where t.id = :id and t.user.id = :userId and (:version is null or t.version = :version)")
+    int move(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version,
+             @Param("position") String position, @Param("status") TaskStatus status);
+
+    // Single-task writes share a persistence context with entity saves in a batch, so they must not leave it stale
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Task t set t.title = coalesce(:title, t.title), t.description = coalesce(:description, t.description)," +
+            " t.dueDate = coalesce(:dueDate, t.dueDate), t.status = coalesce(:status, t.status), " + SET_COMPLETED_AT_IF_STATUS +
+            ", t.version = t.version + 1" +
+            " where t.id = :id and t.user.id = :userId and (:version is null or t.version = :version)")
+    int patch(@Param("id") Long id, @Param("userId") Long userId, @Param("version") Long version,
+              @Param("title") String title, @Param("description") String description,
+              @Param("dueDate") LocalDate dueDate, @Param("status") TaskStatus status);
+
+    @Modifying(clearAutomatically = true, flushAutomatically = true)
+    @Query("update Task t set t.bodyPreview = :bodyPreview where t.id = :id and t.user.id = :userId")
+    int updateBodyPreview(@Param("id") Long id, @Param("userId") Long userId, @Param("bodyPreview") String bodyPreview);
+
+    @Modifying
+    @Query("update Task t set t.status = :status, " + SET_COMPLETED_AT + ", t.version = t.version + 1" +
+            " where t.user.id = :userId and t.id in :ids")
+    int updateStatusByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids, @Param("status") TaskStatus status);
+
+    @Modifying
+    @Query("update Task t set t.status = :status, " + SET_COMPLETED_AT + ", t.version = t.version + 1" +
+            " where t.user.id = :userId and (:currentStatus is null or t.status = :currentStatus)" +
+            " and (:dueFrom is null or t.dueDate >= :dueFrom) and (:dueTo is null or t.dueDate <= :dueTo)")
+    int updateStatusByFilter(@Param("userId") Long userId, @Param("currentStatus") TaskStatus currentStatus,
+                             @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo,
+                             @Param("status") TaskStatus status);
+
+    @Modifying
+    @Query("delete from TaskDependency d where d.userId = :userId and (d.taskId in :ids or d.blockedById in :ids)")
+    int deleteDependenciesOfUserTasks(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("update Task t set t.parentId = null, t.version = t.version + 1 where t.user.id = :userId and t.parentId in :ids")
+    int clearParentOfUserTasks(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from TaskDependency d where d.userId = :userId" +
+            " and (d.taskId in (" + FILTERED_IDS + ") or d.blockedById in (" + FILTERED_IDS + "))")
+    int deleteDependenciesByFilter(@Param("userId") Long userId, @Param("status") TaskStatus status,
+                                   @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo);
+
+    @Modifying
+    @Query("update Task t set t.parentId = null, t.version = t.version + 1 where t.user.id = :userId" +
+            " and t.parentId in (" + FILTERED_IDS + ")")
+    int clearParentByFilter(@Param("userId") Long userId, @Param("status") TaskStatus status,
+                            @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo);
+
+    @Modifying
+    @Query("delete from Task t where t.user.id = :userId and t.id in :ids")
+    int deleteByIds(@Param("userId") Long userId, @Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Task t where t.user.id = :userId" +
+            " and (:status is null or t.status = :status)" +
+            " and (:dueFrom is null or t.dueDate >= :dueFrom) and (:dueTo is null or t.dueDate <= :dueTo)")
+    int deleteByFilter(@Param("userId") Long userId, @Param("status") TaskStatus status,
+                       @Param("dueFrom") LocalDate dueFrom, @Param("dueTo") LocalDate dueTo);
 }
\ No newline at end of file
@@ -1,15 +1,43 @@
 package dev.tasksys.repository;
 
 import dev.tasksys.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
+    // Cached user finders share a region of their own, dropped when another node reports user writes
+    String QUERY_CACHE_REGION = "user-queries";
+
+    @Transactional(readOnly = true)
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = QUERY_CACHE_REGION)})
     Optional<User> findByUsername(String username);
+
+    // Not cached, for confirming a miss that may come from a lagging replica or a cached result taken from one
+    @Query("select u from User u where u.username = :username")
+    Optional<User> findUncachedByUsername(@Param("username") String username);
+
     Optional<User> findByEmail(String email);
     Boolean existsByUsername(String username);
     Boolean existsByEmail(String email);
+
+    @Modifying
+    @Query("update User u set u.enabled = false, u.deletionRequestedAt = :requestedAt where u.id = :id and u.deletionRequestedAt is null")
+    int markForDeletion(@Param("id") Long id, @Param("requestedAt") LocalDateTime requestedAt);
+
+    @Query("select u.id from User u where u.deletionRequestedAt is not null order by u.deletionRequestedAt asc")
+    List<Long> findIdsPendingDeletion(Limit limit);
 }
\ No newline at end of file
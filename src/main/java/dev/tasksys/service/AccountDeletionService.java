@@ -0,0 +1,160 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.ArchivedTaskRepository;
+import dev.tasksys.repository.TaskAttachmentRepository;
+import dev.tasksys.repository.TaskBodyRepository;
+import dev.tasksys.repository.TaskDependencyRepository;
+import dev.tasksys.repository.TaskInboxRepository;
+import dev.tasksys.repository.TaskRecurrenceRepository;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// Accounts are disabled as soon as deletion is requested and purged later by a background job.
+// The rows are removed in short transactions of chunk-size rows with a pause between chunks, so a
+// heavy account never turns into one long lock-holding delete. Progress is the data itself: a run
+// that stops midway (time budget, restart, error) resumes where the previous one left off.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AccountDeletionService {
+
+    private final UserRepository userRepository;
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository dependencyRepository;
+    private final TaskRecurrenceRepository recurrenceRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TaskInboxRepository inboxRepository;
+    private final TaskAttachmentRepository attachmentRepository;
+    private final TaskBodyRepository taskBodyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final InvalidationBus invalidationBus;
+    private final ShardRouter shardRouter;
+
+    @Value("${accounts.deletion.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${accounts.deletion.pause-ms:100}")
+    private long pauseMs;
+
+    @Value("${accounts.deletion.run-budget-ms:5000}")
+    private long runBudgetMs;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @Transactional
+    public void requestDeletion() {
+        User currentUser = getCurrentUser();
+        if (userRepository.markForDeletion(currentUser.getId(), LocalDateTime.now()) > 0) {
+            invalidationBus.userChanged(currentUser.getId());
+            shardRouter.userChanged(currentUser.getId());
+            log.info("Account {} disabled and scheduled for deletion", currentUser.getId());
+        }
+    }
+
+    @Scheduled(initialDelayString = "${accounts.deletion.initial-delay-ms:10000}",
+            fixedDelayString = "${accounts.deletion.interval-ms:60000}")
+    public void purge() {
+        long deadline = System.currentTimeMillis() + runBudgetMs;
+        for (Long userId : userRepository.findIdsPendingDeletion(Limit.of(10))) {
+            try {
+                if (!shardRouter.onShardOf(userId, () -> purgeAccount(userId, deadline))) {
+                    return;
+                }
+            } catch (DataAccessException e) {
+                log.warn("Deleting account {} failed, will retry: {}", userId, e.getMessage());
+            }
+        }
+    }
+
+    // Returns false when the run budget was used up before the account was gone.
+    boolean purgeAccount(Long userId, long deadline) {
+        List<Step> steps = List.of(
+                new Step("inbox entries", limit -> inboxRepository.findIdsByUserId(userId, limit),
+                        inboxRepository::deleteAllByIdInBatch),
+                new Step("attachments", limit -> attachmentRepository.findIdsByUserId(userId, limit),
+                        attachmentRepository::deleteAllByIdInBatch),
+                new Step("task bodies", limit -> taskBodyRepository.findIdsByUserId(userId, limit),
+                        taskBodyRepository::deleteAllByIdInBatch),
+                new Step("task dependencies", limit -> dependencyRepository.findIdsByUserId(userId, limit),
+                        dependencyRepository::deleteAllByIdInBatch),
+                new Step("tasks", limit -> taskRepository.findIdsByUserId(userId, limit),
+                        taskRepository::deleteAllByIdInBatch),
+                new Step("archived tasks", limit -> archivedTaskRepository.findIdsByUserId(userId, limit),
+                        archivedTaskRepository::deleteAllByIdInBatch),
+                new Step("recurrences", limit -> recurrenceRepository.findIdsByUserId(userId, limit),
+                        recurrenceRepository::deleteAllByIdInBatch));
+
+        for (Step step : steps) {
+            int deleted;
+            do {
+                if (System.currentTimeMillis() >= deadline || !pause()) {
+                    return false;
+                }
+                deleted = transactionTemplate.execute(status -> {
+                    List<Long> ids = step.ids().apply(Limit.of(chunkSize));
+                    if (!ids.isEmpty()) {
+                        step.delete().accept(ids);
+                    }
+                    return ids.size();
+                });
+                if (deleted > 0) {
+                    log.debug("Deleted {} {} of account {}", deleted, step.name(), userId);
+                }
+            } while (deleted == chunkSize);
+        }
+
+        // Assignments are made on the owner's shard, so every shard may still name the user as an assignee
+        List<Long> ownersOfAssigned = shardRouter.onEveryShard(() -> transactionTemplate.execute(status -> {
+            List<Long> owners = taskRepository.findOwnerIdsByAssigneeId(userId);
+            taskRepository.clearAssignee(userId);
+            return owners;
+        })).stream().flatMap(List::stream).distinct().toList();
+        transactionTemplate.executeWithoutResult(status -> userRepository.deleteById(userId));
+        shardRouter.userDeleted(userId);
+        invalidationBus.userChanged(userId);
+        eventPublisher.publishEvent(TaskChangeEvent.bulkDeleted(userId));
+        ownersOfAssigned.forEach(ownerId -> eventPublisher.publishEvent(TaskChangeEvent.bulkUpdated(ownerId)));
+        log.info("Account {} deleted", userId);
+        return true;
+    }
+
+    private boolean pause() {
+        if (pauseMs <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(pauseMs);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private record Step(String name, Function<Limit, List<Long>> ids, Consumer<List<Long>> delete) {
+    }
+}
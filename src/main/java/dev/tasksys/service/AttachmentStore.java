@@ -0,0 +1,40 @@
+package dev.tasksys.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// Content-addressed blob storage for attachments: blobs are named by the SHA-256 of their content,
+// so identical uploads are stored once no matter how many tasks reference them.
+public interface AttachmentStore {
+
+    record StoredBlob(String sha256, long size) {
+    }
+
+    // Streams the content into the store without buffering it in memory.
+    StoredBlob store(InputStream content, long maxSize) throws IOException;
+
+    long transferTo(String sha256, long position, long count, WritableByteChannel target) throws IOException;
+
+    // Blobs backed by a local file can be handed to the container for sendfile.
+    default Optional<Path> localFile(String sha256) {
+        return Optional.empty();
+    }
+
+    List<String> findUnmodifiedSince(Instant cutoff) throws IOException;
+
+    // Moves a blob aside if it is still unmodified since the cutoff; returns false when an upload refreshed it meanwhile.
+    // A quarantined blob can still be read until it is deleted.
+    boolean quarantine(String sha256, Instant cutoff) throws IOException;
+
+    List<String> findQuarantined() throws IOException;
+
+    // Puts a quarantined blob back, or drops it when an upload of the same content has stored it again since.
+    void restore(String sha256) throws IOException;
+
+    void deleteQuarantined(String sha256) throws IOException;
+}
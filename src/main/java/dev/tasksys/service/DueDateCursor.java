@@ -0,0 +1,25 @@
+package dev.tasksys.service;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+// Keyset cursor for listings ordered by (due date, id), written as "<due date>:<id>".
+record DueDateCursor(LocalDate dueDate, Long id) {
+
+    static DueDateCursor parse(String cursor) {
+        if (cursor == null) {
+            return new DueDateCursor(null, null);
+        }
+        int separator = cursor.indexOf(':');
+        try {
+            return new DueDateCursor(LocalDate.parse(cursor.substring(0, Math.max(separator, 0))),
+                    Long.valueOf(cursor.substring(separator + 1)));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor " + cursor);
+        }
+    }
+
+    static String format(LocalDate dueDate, Long id) {
+        return dueDate + ":" + id;
+    }
+}
@@ -0,0 +1,210 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.AttachmentTooLargeException;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Optional;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+// Blobs live under <root>/<aa>/<bb>/<sha256>; uploads are written to <root>/tmp first and moved into
+// place once their hash is known. A duplicate upload only refreshes the existing blob's modification
+// time, which keeps it out of the orphan sweep while the new attachment row is being written.
+// The sweep moves orphans to <root>/quarantine before deleting them on its next run.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "tasks.attachments.store", havingValue = "filesystem", matchIfMissing = true)
+public class FileSystemAttachmentStore implements AttachmentStore {
+
+    private static final Pattern SHA256 = Pattern.compile("[0-9a-f]{64}");
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Value("${tasks.attachments.root:${java.io.tmpdir}/tasksys-attachments}")
+    private String root;
+
+    private Path rootDir;
+    private Path tmpDir;
+    private Path quarantineDir;
+
+    @PostConstruct
+    void init() throws IOException {
+        rootDir = Paths.get(root).toAbsolutePath().normalize();
+        tmpDir = rootDir.resolve("tmp");
+        quarantineDir = rootDir.resolve("quarantine");
+        Files.createDirectories(tmpDir);
+        Files.createDirectories(quarantineDir);
+        log.info("Storing attachments in {}", rootDir);
+    }
+
+    @Override
+    public StoredBlob store(InputStream content, long maxSize) throws IOException {
+        Path temp = Files.createTempFile(tmpDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp, StandardOpenOption.WRITE)) {
+                byte[] buffer = new byte[BUFFER_SIZE];
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > maxSize) {
+                        throw new AttachmentTooLargeException("Attachment exceeds the maximum size of " + maxSize + " bytes");
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+
+            String hash = HexFormat.of().formatHex(digest.digest());
+            Path target = path(hash);
+            Files.createDirectories(target.getParent());
+            if (!touch(target)) {
+                // A concurrent upload of the same content may win the rename; replacing it is harmless
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            }
+            return new StoredBlob(hash, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public long transferTo(String sha256, long position, long count, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(existing(sha256), StandardOpenOption.READ)) {
+            long sent = 0;
+            while (sent < count) {
+                long transferred = channel.transferTo(position + sent, count - sent, target);
+                if (transferred <= 0) {
+                    break;
+                }
+                sent += transferred;
+            }
+            return sent;
+        }
+    }
+
+    @Override
+    public Optional<Path> localFile(String sha256) {
+        Path file = existing(sha256);
+        return Files.isRegularFile(file) ? Optional.of(file) : Optional.empty();
+    }
+
+    @Override
+    public List<String> findUnmodifiedSince(Instant cutoff) throws IOException {
+        try (Stream<Path> files = Files.walk(rootDir)) {
+            return files.filter(file -> !file.startsWith(tmpDir) && !file.startsWith(quarantineDir))
+                    .filter(file -> SHA256.matcher(file.getFileName().toString()).matches())
+                    .filter(file -> modifiedBefore(file, cutoff))
+                    .map(file -> file.getFileName().toString())
+                    .toList();
+        }
+    }
+
+    @Override
+    public boolean quarantine(String sha256, Instant cutoff) throws IOException {
+        Path file = path(sha256);
+        if (!modifiedBefore(file, cutoff)) {
+            return false;
+        }
+        try {
+            Files.move(file, quarantined(sha256), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public List<String> findQuarantined() throws IOException {
+        try (Stream<Path> files = Files.list(quarantineDir)) {
+            return files.map(file -> file.getFileName().toString())
+                    .filter(name -> SHA256.matcher(name).matches())
+                    .toList();
+        }
+    }
+
+    @Override
+    public void restore(String sha256) throws IOException {
+        Path target = path(sha256);
+        Files.createDirectories(target.getParent());
+        if (touch(target)) {
+            Files.deleteIfExists(quarantined(sha256));
+            return;
+        }
+        try {
+            Files.move(quarantined(sha256), target, StandardCopyOption.ATOMIC_MOVE);
+            touch(target);
+        } catch (NoSuchFileException e) {
+            log.debug("Quarantined attachment blob {} was already restored or deleted", sha256);
+        }
+    }
+
+    @Override
+    public void deleteQuarantined(String sha256) throws IOException {
+        Files.deleteIfExists(quarantined(sha256));
+    }
+
+    // A blob quarantined while an upload of it was being committed is still served until the next sweep restores it
+    private Path existing(String sha256) {
+        Path file = path(sha256);
+        Path quarantined = quarantined(sha256);
+        return !Files.exists(file) && Files.exists(quarantined) ? quarantined : file;
+    }
+
+    private Path quarantined(String sha256) {
+        return quarantineDir.resolve(path(sha256).getFileName());
+    }
+
+    private Path path(String sha256) {
+        if (sha256 == null || !SHA256.matcher(sha256).matches()) {
+            throw new IllegalArgumentException("Invalid attachment hash " + sha256);
+        }
+        return rootDir.resolve(sha256.substring(0, 2)).resolve(sha256.substring(2, 4)).resolve(sha256);
+    }
+
+    private static boolean touch(Path file) throws IOException {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    private static boolean modifiedBefore(Path file, Instant cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(cutoff);
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
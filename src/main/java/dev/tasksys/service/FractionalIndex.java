@@ -0,0 +1,95 @@
+package dev.tasksys.service;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Order keys are base-36 fractions written as strings: comparing two keys as strings compares the
+// fractions, so a key between any two neighbours always exists and a move rewrites a single row.
+// Only digits and lower-case letters are used so that database collations sort them like ASCII.
+final class FractionalIndex {
+
+    static final String DIGITS = "0123456789abcdefghijklmnopqrstuvwxyz";
+    static final int MAX_LENGTH = 64;
+    private static final int BASE = DIGITS.length();
+
+    private FractionalIndex() {
+    }
+
+    static String between(String before, String after) {
+        if (before != null && after != null && before.compareTo(after) >= 0) {
+            throw new IllegalArgumentException("Order key " + before + " must sort before " + after);
+        }
+        if (after == null) {
+            return before == null ? String.valueOf(DIGITS.charAt(BASE / 2)) : increment(before);
+        }
+        return midpoint(before == null ? "" : before, after);
+    }
+
+    // Evenly spaced keys for a freshly rebalanced column of the given size.
+    static List<String> spread(int count) {
+        int width = 1;
+        long space = BASE;
+        while (space < 2L * (count + 1)) {
+            width++;
+            space *= BASE;
+        }
+        long step = space / (count + 1);
+        List<String> keys = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            keys.add(encode(step * i, width));
+        }
+        return keys;
+    }
+
+    // Shortest key after the given one; appending keeps keys short instead of halving towards the end.
+    private static String increment(String key) {
+        for (int i = 0; i < key.length(); i++) {
+            int digit = digit(key.charAt(i));
+            if (digit < BASE - 1) {
+                return key.substring(0, i) + DIGITS.charAt(digit + 1);
+            }
+        }
+        return key + DIGITS.charAt(1);
+    }
+
+    private static String midpoint(String a, String b) {
+        int prefix = 0;
+        while (prefix < b.length() && (prefix < a.length() ? a.charAt(prefix) : '0') == b.charAt(prefix)) {
+            prefix++;
+        }
+        if (prefix > 0) {
+            return b.substring(0, prefix) + midpoint(prefix < a.length() ? a.substring(prefix) : "", b.substring(prefix));
+        }
+        int digitA = a.isEmpty() ? 0 : digit(a.charAt(0));
+        int digitB = digit(b.charAt(0));
+        if (digitB - digitA > 1) {
+            return String.valueOf(DIGITS.charAt((digitA + digitB + 1) / 2));
+        }
+        if (b.length() > 1) {
+            return b.substring(0, 1);
+        }
+        String rest = a.length() > 1 ? a.substring(1) : "";
+        return DIGITS.charAt(digitA) + (rest.isEmpty() ? String.valueOf(DIGITS.charAt(BASE / 2)) : increment(rest));
+    }
+
+    private static String encode(long value, int width) {
+        char[] chars = new char[width];
+        for (int i = width - 1; i >= 0; i--) {
+            chars[i] = DIGITS.charAt((int) (value % BASE));
+            value /= BASE;
+        }
+        int length = width;
+        while (length > 1 && chars[length - 1] == '0') {
+            length--;
+        }
+        return new String(chars, 0, length);
+    }
+
+    private static int digit(char c) {
+        int digit = DIGITS.indexOf(c);
+        if (digit < 0) {
+            throw new IllegalArgumentException("Invalid order key character '" + c + "'");
+        }
+        return digit;
+    }
+}
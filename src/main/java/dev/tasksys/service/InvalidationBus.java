@@ -0,0 +1,181 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.UserChangeEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Tells the other nodes which users and tasks changed here, so their in-process caches can drop them.
+// Local caches are kept up to date by the TaskChangeEvent and UserChangeEvent listeners; only remote messages raise a
+// CacheInvalidationEvent.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvalidationBus {
+
+    // Wire format: origin|flags|task owner ids|task ids|user ids, flags being "*" (everything) or "T" (all tasks)
+    private static final String SEPARATOR = "|";
+
+    private final InvalidationTransport transport;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${tasks.invalidation.flush-interval-ms:20}")
+    private long flushIntervalMs;
+
+    // PostgreSQL rejects NOTIFY payloads of 8000 bytes or more
+    @Value("${tasks.invalidation.max-message-bytes:7900}")
+    private int maxMessageBytes;
+
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private Batch pending = new Batch();
+    private ScheduledExecutorService flusher;
+
+    private static final class Batch {
+        private boolean everything;
+        private boolean allTasks;
+        private final Set<Long> taskOwnerIds = new LinkedHashSet<>();
+        private final Set<Long> taskIds = new LinkedHashSet<>();
+        private final Set<Long> userIds = new LinkedHashSet<>();
+
+        private boolean isEmpty() {
+            return !everything && taskOwnerIds.isEmpty() && userIds.isEmpty();
+        }
+
+        private void addAll(Batch other) {
+            everything |= other.everything;
+            allTasks |= other.allTasks;
+            taskOwnerIds.addAll(other.taskOwnerIds);
+            taskIds.addAll(other.taskIds);
+            userIds.addAll(other.userIds);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        transport.subscribe(this::receive, () -> eventPublisher.publishEvent(CacheInvalidationEvent.everything()));
+        flusher = Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("cache-invalidation").daemon().factory());
+        flusher.scheduleWithFixedDelay(this::flush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(5, TimeUnit.SECONDS);
+        flush();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChange(TaskChangeEvent event) {
+        synchronized (this) {
+            pending.taskOwnerIds.add(event.getUserId());
+            if (event.getTaskId() == null) {
+                pending.allTasks = true;
+            } else {
+                pending.taskIds.add(event.getTaskId());
+            }
+        }
+    }
+
+    // Queued once the surrounding transaction has committed, so other nodes cannot reload the old row.
+    public void userChanged(Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    committedUserChange(userId);
+                }
+            });
+        } else {
+            committedUserChange(userId);
+        }
+    }
+
+    void flush() {
+        Batch batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new Batch();
+        }
+        String message = encode(nodeId, batch);
+        if (message.length() > maxMessageBytes) {
+            Batch everything = new Batch();
+            everything.everything = true;
+            message = encode(nodeId, everything);
+        }
+        try {
+            transport.send(message);
+        } catch (RuntimeException e) {
+            log.warn("Could not publish cache invalidation, retrying with the next batch: {}", e.getMessage());
+            synchronized (this) {
+                pending.addAll(batch);
+            }
+        }
+    }
+
+    void receive(String message) {
+        try {
+            String[] parts = message.split("\\|", -1);
+            if (parts.length != 5) {
+                throw new IllegalArgumentException("expected 5 fields");
+            }
+            if (parts[0].equals(nodeId)) {
+                return;
+            }
+            CacheInvalidationEvent event = parts[1].equals("*")
+                    ? CacheInvalidationEvent.everything()
+                    : new CacheInvalidationEvent(false, parts[1].equals("T"), ids(parts[2]), ids(parts[3]), ids(parts[4]));
+            eventPublisher.publishEvent(event);
+        } catch (IllegalArgumentException e) {
+            log.warn("Dropping all caches after unreadable invalidation message '{}': {}", message, e.getMessage());
+            eventPublisher.publishEvent(CacheInvalidationEvent.everything());
+        }
+    }
+
+    String nodeId() {
+        return nodeId;
+    }
+
+    private void committedUserChange(Long userId) {
+        synchronized (this) {
+            pending.userIds.add(userId);
+        }
+        eventPublisher.publishEvent(new UserChangeEvent(userId));
+    }
+
+    private static String encode(String origin, Batch batch) {
+        String flags = batch.everything ? "*" : batch.allTasks ? "T" : "";
+        return String.join(SEPARATOR, origin, flags, join(batch.taskOwnerIds), join(batch.allTasks ? Set.of() : batch.taskIds), join(batch.userIds));
+    }
+
+    private static String join(Set<Long> ids) {
+        return ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+    }
+
+    private static Set<Long> ids(String field) {
+        if (field.isEmpty()) {
+            return Set.of();
+        }
+        return Arrays.stream(field.split(",")).map(Long::valueOf).collect(Collectors.toUnmodifiableSet());
+    }
+}
@@ -0,0 +1,12 @@
+package dev.tasksys.service;
+
+import java.util.function.Consumer;
+
+// Carries encoded invalidation batches between nodes, including back to the sending node.
+public interface InvalidationTransport {
+
+    void send(String message);
+
+    // onGap runs whenever messages may have been lost, e.g. after the transport reconnected.
+    void subscribe(Consumer<String> receiver, Runnable onGap);
+}
@@ -0,0 +1,281 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskPatchDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Cache;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.simple.JdbcClient;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Serves task reads, creates and updates straight from SQL into TaskDto, without entities, proxies or a
+// persistence context. Deletes stay on the JPA path, which also clears dependencies and parent links.
+@Service
+@Profile("jdbc")
+public class JdbcTaskService extends TaskService {
+
+    private static final String SELECT_TASK = "select id, title, description, body_preview, due_date, status, version,"
+            + " board_position, parent_id, assignee_id, recurrence_id, occurrence_date from tasks";
+
+    private static final String SELECT_BY_USER = SELECT_TASK + " where user_id = ? order by id";
+
+    private static final String SELECT_BY_ID_AND_USER = SELECT_TASK + " where id = ? and user_id = ?";
+
+    private static final String SELECT_BY_USER_AND_STATUS = SELECT_TASK
+            + " where user_id = ? and status = ? order by board_position asc nulls last, id asc";
+
+    private static final String SELECT_LAST_POSITION = "select board_position from tasks where user_id = ? and status = ?"
+            + " and board_position is not null order by board_position desc fetch first 1 rows only";
+
+    private static final String SELECT_VERSION = "select version from tasks where id = ? and user_id = ?";
+
+    private static final String INSERT_TASK = "insert into tasks (id, title, description, body_preview, due_date, status,"
+            + " completed_at, board_position, user_id, version) values (?, ?, ?, ?, ?, ?, ?, ?, ?, 0)";
+
+    // completed_at follows the new status the way Task's callbacks keep it, so the status is bound a second time
+    private static final String UPDATE_TASK = "update tasks set title = ?, description = ?, due_date = ?, status = ?,"
+            + " completed_at = case when ? = 'DONE' then coalesce(completed_at, localtimestamp) end,"
+            + " version = version + 1 where id = ? and user_id = ?";
+
+    private static final String PATCH_TASK = "update tasks set title = coalesce(?, title), description = coalesce(?, description),"
+            + " due_date = coalesce(?, due_date), status = coalesce(?, status),"
+            + " completed_at = case when coalesce(?, status) = 'DONE' then coalesce(completed_at, localtimestamp) end,"
+            + " version = version + 1 where id = ? and user_id = ?";
+
+    // Appended to UPDATE_TASK and PATCH_TASK when the client sent If-Match
+    private static final String VERSION_MATCHES = " and version = ?";
+
+    private static final String UPDATE_BODY_PREVIEW = "update tasks set body_preview = ? where id = ? and user_id = ?";
+
+    static final RowMapper<TaskDto> TASK_DTO = (rs, rowNum) -> {
+        TaskDto dto = new TaskDto();
+        dto.setId(rs.getLong("id"));
+        dto.setTitle(rs.getString("title"));
+        dto.setDescription(rs.getString("description"));
+        dto.setBodyPreview(rs.getString("body_preview"));
+        dto.setDueDate(rs.getDate("due_date").toLocalDate());
+        dto.setStatus(rs.getString("status"));
+        dto.setVersion(rs.getLong("version"));
+        dto.setPosition(rs.getString("board_position"));
+        dto.setParentId(rs.getObject("parent_id", Long.class));
+        dto.setAssigneeId(rs.getObject("assignee_id", Long.class));
+        Long recurrenceId = rs.getObject("recurrence_id", Long.class);
+        if (recurrenceId != null) {
+            Date occurrenceDate = rs.getDate("occurrence_date");
+            dto.setRecurrenceId(recurrenceId);
+            dto.setOccurrenceDate(occurrenceDate == null ? null : occurrenceDate.toLocalDate());
+        }
+        return dto;
+    };
+
+    private final JdbcClient jdbcClient;
+    private final Cache secondLevelCache;
+    private final String nextSequenceValue;
+
+    // The block of ids taken from the sequence that this node has not used yet
+    private long nextId;
+    private long lastId = -1;
+
+    public JdbcTaskService(TaskRepository taskRepository, TaskBodyService taskBodyService,
+                           ApplicationEventPublisher eventPublisher, JdbcClient jdbcClient,
+                           EntityManager entityManager, EntityManagerFactory entityManagerFactory) {
+        super(taskRepository, taskBodyService, eventPublisher, entityManager);
+        this.jdbcClient = jdbcClient;
+        SessionFactoryImplementor sessionFactory = entityManagerFactory.unwrap(SessionFactoryImplementor.class);
+        this.secondLevelCache = sessionFactory.getCache();
+        this.nextSequenceValue = sessionFactory.getJdbcServices().getDialect().getSequenceSupport()
+                .getSequenceNextValString(TaskImportService.TASK_SEQ.sequenceName());
+    }
+
+    @Override
+    public List<TaskDto> getAllTasks() {
+        User currentUser = getCurrentUser();
+        return coalesce(currentUser.getId(), "all", () -> jdbcClient.sql(SELECT_BY_USER)
+                .param(currentUser.getId())
+                .query(TASK_DTO)
+                .list());
+    }
+
+    @Override
+    public TaskDto getTaskById(Long id) {
+        User currentUser = getCurrentUser();
+        return coalesce(currentUser.getId(), "id:" + id, () -> {
+            TaskDto dto = findTask(id, currentUser.getId());
+            if (dto.getBodyPreview() != null) {
+                dto.setBody(taskBodyService.read(id).orElse(null));
+            }
+            return dto;
+        });
+    }
+
+    @Override
+    public List<TaskDto> getTasksByStatus(String status) {
+        User currentUser = getCurrentUser();
+        TaskStatus taskStatus = TaskStatus.valueOf(status);
+        return coalesce(currentUser.getId(), "status:" + taskStatus, () -> jdbcClient.sql(SELECT_BY_USER_AND_STATUS)
+                .param(currentUser.getId())
+                .param(taskStatus.name())
+                .query(TASK_DTO)
+                .list());
+    }
+
+    @Override
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
+    public TaskDto createTask(TaskDto taskDto) {
+        User currentUser = getCurrentUser();
+        TaskStatus status = TaskStatus.valueOf(taskDto.getStatus());
+        String position = jdbcClient.sql(SELECT_LAST_POSITION)
+                .param(currentUser.getId())
+                .param(status.name())
+                .query(String.class)
+                .optional()
+                .map(last -> FractionalIndex.between(last, null))
+                .filter(candidate -> candidate.length() <= FractionalIndex.MAX_LENGTH)
+                .orElse(null);
+        String body = taskDto.getBody();
+        String bodyPreview = body != null && !body.isEmpty() ? TaskBodyService.preview(body) : null;
+
+        long id = nextId();
+        jdbcClient.sql(INSERT_TASK)
+                .params(id, taskDto.getTitle(), taskDto.getDescription(), bodyPreview, taskDto.getDueDate(), status.name(),
+                        status == TaskStatus.DONE ? LocalDateTime.now() : null, position, currentUser.getId())
+                .update();
+        if (bodyPreview != null) {
+            taskBodyService.write(id, currentUser.getId(), body);
+        }
+        evictAfterCommit(id);
+
+        TaskDto createdTask = new TaskDto();
+        createdTask.setId(id);
+        createdTask.setTitle(taskDto.getTitle());
+        createdTask.setDescription(taskDto.getDescription());
+        createdTask.setBodyPreview(bodyPreview);
+        createdTask.setDueDate(taskDto.getDueDate());
+        createdTask.setStatus(status.name());
+        createdTask.setVersion(0L);
+        createdTask.setPosition(position);
+        eventPublisher.publishEvent(TaskChangeEvent.created(currentUser.getId(), createdTask));
+        return createdTask;
+    }
+
+    // A missing body leaves the stored one untouched; an empty body removes it.
+    @Override
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
+    public TaskDto updateTask(Long id, TaskDto taskDto, Long expectedVersion) {
+        User currentUser = getCurrentUser();
+        TaskStatus status = TaskStatus.valueOf(taskDto.getStatus());
+        JdbcClient.StatementSpec update = jdbcClient.sql(expectedVersion == null ? UPDATE_TASK : UPDATE_TASK + VERSION_MATCHES)
+                .params(taskDto.getTitle(), taskDto.getDescription(), taskDto.getDueDate(), status.name(), status.name(), id,
+                        currentUser.getId());
+        if (expectedVersion != null) {
+            update = update.param(expectedVersion);
+        }
+        if (update.update() == 0) {
+            throw missingOrModified(id, currentUser.getId(), expectedVersion);
+        }
+        if (taskDto.getBody() != null) {
+            updateBodyPreview(id, currentUser.getId(), taskBodyService.write(id, currentUser.getId(), taskDto.getBody()));
+        }
+        evictAfterCommit(id);
+
+        TaskDto result = findTask(id, currentUser.getId());
+        eventPublisher.publishEvent(TaskChangeEvent.updated(currentUser.getId(), result));
+        return result;
+    }
+
+    @Override
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
+    public Long patchTask(Long id, TaskPatchDto patch, Long expectedVersion) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch must change at least one field");
+        }
+        User currentUser = getCurrentUser();
+        String status = patch.getStatus() == null ? null : TaskStatus.valueOf(patch.getStatus().toUpperCase()).name();
+
+        JdbcClient.StatementSpec update = jdbcClient.sql(expectedVersion == null ? PATCH_TASK : PATCH_TASK + VERSION_MATCHES)
+                .params(patch.getTitle(), patch.getDescription(), patch.getDueDate(), status, status, id, currentUser.getId());
+        if (expectedVersion != null) {
+            update = update.param(expectedVersion);
+        }
+        if (update.update() == 0) {
+            throw missingOrModified(id, currentUser.getId(), expectedVersion);
+        }
+        if (patch.getBody() != null) {
+            updateBodyPreview(id, currentUser.getId(), taskBodyService.write(id, currentUser.getId(), patch.getBody()));
+        }
+        evictAfterCommit(id);
+        eventPublisher.publishEvent(TaskChangeEvent.patched(currentUser.getId(), id));
+        return expectedVersion == null ? null : expectedVersion + 1;
+    }
+
+    private TaskDto findTask(Long id, Long userId) {
+        return jdbcClient.sql(SELECT_BY_ID_AND_USER)
+                .param(id)
+                .param(userId)
+                .query(TASK_DTO)
+                .optional()
+                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+    }
+
+    private void updateBodyPreview(Long id, Long userId, String bodyPreview) {
+        jdbcClient.sql(UPDATE_BODY_PREVIEW).params(bodyPreview, id, userId).update();
+    }
+
+    // Tells a task that is gone from one whose version moved on, for the same errors the JPA path raises
+    private RuntimeException missingOrModified(Long id, Long userId, Long expectedVersion) {
+        return jdbcClient.sql(SELECT_VERSION)
+                .params(id, userId)
+                .query(Long.class)
+                .optional()
+                .<RuntimeException>map(current -> new TaskVersionMismatchException("Task " + id + " has been modified (current version "
+                        + current + ", expected " + expectedVersion + ")"))
+                .orElseGet(() -> new TaskNotFoundException("Task not found with id: " + id));
+    }
+
+    // Ids come in blocks the way Hibernate's pooled optimizer hands them out, so both paths can insert side by side
+    private synchronized long nextId() {
+        if (nextId > lastId) {
+            long high = jdbcClient.sql(nextSequenceValue).query(Long.class).single();
+            nextId = high == TaskImportService.TASK_SEQ.initialValue() ? high : high - TaskImportService.TASK_SEQ.allocationSize() + 1;
+            lastId = high;
+        }
+        return nextId++;
+    }
+
+    // Hibernate does not see these statements, so once they commit its copy of the task and the cached finder
+    // results for tasks are dropped; other nodes hear about the write from the TaskChangeEvent as usual.
+    private void evictAfterCommit(Long id) {
+        Runnable evict = () -> {
+            secondLevelCache.evictEntityData(Task.class, id);
+            secondLevelCache.evictQueryRegion(TaskRepository.QUERY_CACHE_REGION);
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict.run();
+                }
+            });
+        } else {
+            evict.run();
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package dev.tasksys.service;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+// Delivers messages synchronously within the JVM; enough for a single node and for tests.
+@Component
+@ConditionalOnProperty(name = "tasks.invalidation.transport", havingValue = "loopback", matchIfMissing = true)
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+    private final List<Consumer<String>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(String message) {
+        receivers.forEach(receiver -> receiver.accept(message));
+    }
+
+    @Override
+    public void subscribe(Consumer<String> receiver, Runnable onGap) {
+        receivers.add(receiver);
+    }
+}
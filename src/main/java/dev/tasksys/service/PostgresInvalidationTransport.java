@@ -0,0 +1,106 @@
+package dev.tasksys.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+// NOTIFY on a pooled connection, LISTEN on one dedicated connection held for the lifetime of the node.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "tasks.invalidation.transport", havingValue = "postgres")
+public class PostgresInvalidationTransport implements InvalidationTransport {
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${tasks.invalidation.channel:tasksys_invalidation}")
+    private String channel;
+
+    @Value("${tasks.invalidation.poll-timeout-ms:500}")
+    private int pollTimeoutMs;
+
+    @Value("${tasks.invalidation.reconnect-delay-ms:1000}")
+    private long reconnectDelayMs;
+
+    private final List<Consumer<String>> receivers = new CopyOnWriteArrayList<>();
+    private final List<Runnable> gapHandlers = new CopyOnWriteArrayList<>();
+    private Thread listener;
+    private volatile boolean running;
+
+    @PostConstruct
+    public void start() {
+        if (!channel.matches("[a-z_][a-z0-9_]{0,62}")) {
+            throw new IllegalStateException("Invalid invalidation channel name: " + channel);
+        }
+        running = true;
+        listener = Thread.ofPlatform().name("cache-invalidation-listener").daemon().start(this::listen);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        listener.interrupt();
+        listener.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    @Override
+    public void send(String message) {
+        jdbcTemplate.queryForList("select pg_notify(?, ?)", channel, message);
+    }
+
+    @Override
+    public void subscribe(Consumer<String> receiver, Runnable onGap) {
+        receivers.add(receiver);
+        gapHandlers.add(onGap);
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                // Nothing sent while this node was not listening will be delivered
+                gapHandlers.forEach(Runnable::run);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            receivers.forEach(receiver -> receiver.accept(notification.getParameter()));
+                        }
+                    }
+                }
+            } catch (SQLException | RuntimeException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Cache invalidation listener lost its connection, reconnecting: {}", e.getMessage());
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.TaskRecurrence;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+
+// Occurrence n is always computed from the start date (start + n * interval units), so the cost of a
+// window depends only on how many occurrences fall into it and month-end dates do not drift.
+final class RecurrenceRule {
+
+    private RecurrenceRule() {
+    }
+
+    static List<LocalDate> occurrences(TaskRecurrence recurrence, LocalDate from, LocalDate to) {
+        LocalDate start = recurrence.getStartDate();
+        LocalDate end = recurrence.getUntilDate() == null || recurrence.getUntilDate().isAfter(to) ? to : recurrence.getUntilDate();
+        if (end.isBefore(start) || end.isBefore(from)) {
+            return List.of();
+        }
+        ChronoUnit unit = recurrence.getFrequency().getUnit();
+        int interval = recurrence.getInterval();
+        long index = from.isAfter(start) ? unit.between(start, from) / interval : 0;
+
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = start.plus(index * interval, unit); !date.isAfter(end); date = start.plus(++index * interval, unit)) {
+            if (!date.isBefore(from)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    static boolean occursOn(TaskRecurrence recurrence, LocalDate date) {
+        return !occurrences(recurrence, date, date).isEmpty();
+    }
+}
@@ -0,0 +1,44 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+// Hibernate only tracks writes made through this node, so remote writes are evicted from its regions here.
+@Component
+@RequiredArgsConstructor
+public class SecondLevelCacheInvalidator {
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        Cache cache = entityManagerFactory.unwrap(SessionFactory.class).getCache();
+        if (event.isEverything()) {
+            cache.evictAllRegions();
+            return;
+        }
+        if (event.isAllTasks()) {
+            cache.evictEntityData(Task.class);
+        } else {
+            event.getTaskIds().forEach(id -> cache.evictEntityData(Task.class, id));
+        }
+        event.getUserIds().forEach(id -> cache.evictEntityData(User.class, id));
+        // Cached query results are validated against this node's update timestamps, which never saw the remote write,
+        // so the finder region of each entity written remotely goes too; the other regions stay warm
+        if (event.isAllTasks() || !event.getTaskOwnerIds().isEmpty() || !event.getTaskIds().isEmpty()) {
+            cache.evictQueryRegion(TaskRepository.QUERY_CACHE_REGION);
+        }
+        if (!event.getUserIds().isEmpty()) {
+            cache.evictQueryRegion(UserRepository.QUERY_CACHE_REGION);
+        }
+    }
+}
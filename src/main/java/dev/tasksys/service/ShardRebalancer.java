@@ -0,0 +1,224 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardMap;
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.config.ShardRoutingDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.jmx.annotation.JmxEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+// Moves a user's data to another shard while the application keeps running:
+//  1. the placement is marked as moving, which turns the user's writes away with 503 on every node and has the
+//     background writers (write-behind creates, position rebalancing, archiving) leave the user's rows alone,
+//  2. after a grace period for writes already in flight, the rows are copied in one transaction on the target,
+//  3. the copy is checked against the source, the placement is flipped to the target,
+//  4. after another grace period for reads still pinned to the source, the source rows are deleted in chunks.
+// Rows keep their ids, which each shard generates from its own range. Exposed over JMX only, as an operator tool.
+@Slf4j
+@Service
+@JmxEndpoint(id = "shards")
+@ConditionalOnProperty(name = "tasks.sharding.enabled", havingValue = "true")
+public class ShardRebalancer {
+
+    // In foreign key order; each table with the column naming the owning user, a unique key to page by and, where
+    // rows are changed in place, the version every change increments
+    private static final List<Table> TABLES = List.of(
+            new Table("task_recurrences", "user_id", "id", "version"),
+            new Table("tasks", "user_id", "id", "version"),
+            new Table("task_bodies", "user_id", "task_id", null),
+            new Table("task_dependencies", "user_id", "id", null),
+            new Table("task_attachments", "user_id", "id", null),
+            new Table("archived_tasks", "user_id", "id", null),
+            new Table("task_inbox", "owner_id", "id", null));
+
+    private final ShardMap shardMap;
+    private final ShardRouter shardRouter;
+    private final InvalidationBus invalidationBus;
+    private final Map<String, DataSource> shards;
+
+    @Value("${tasks.sharding.move-grace-ms:2000}")
+    private long graceMs;
+
+    @Value("${tasks.sharding.move-chunk-size:1000}")
+    private int chunkSize;
+
+    public ShardRebalancer(ShardMap shardMap, ShardRouter shardRouter, InvalidationBus invalidationBus,
+                           ShardRoutingDataSource dataSource) {
+        this.shardMap = shardMap;
+        this.shardRouter = shardRouter;
+        this.invalidationBus = invalidationBus;
+        this.shards = dataSource.shards();
+    }
+
+    private record Table(String name, String ownerColumn, String keyColumn, String versionColumn) {
+    }
+
+    @ReadOperation
+    public Map<String, Object> shards() {
+        return Map.of("shards", shardMap.shards());
+    }
+
+    @ReadOperation
+    public Map<String, Object> placement(@Selector Long userId) {
+        ShardMap.Placement placement = shardMap.placement(userId);
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("userId", userId);
+        result.put("shard", placement.shard());
+        result.put("moving", placement.moving());
+        result.put("defaultShard", shardMap.defaultShardOf(userId));
+        return result;
+    }
+
+    // One move at a time per node; the moving flag refuses a second move of the same user from another node.
+    @WriteOperation
+    public synchronized Map<String, Object> move(Long userId, String shard) {
+        ShardMap.Placement placement = shardMap.placement(userId);
+        String source = placement.shard();
+        if (!shards.containsKey(shard)) {
+            throw new IllegalArgumentException("Unknown shard " + shard + ", expected one of " + shardMap.shards());
+        }
+        if (placement.moving()) {
+            throw new IllegalStateException("User " + userId + " is already being moved");
+        }
+        if (source.equals(shard)) {
+            return placement(userId);
+        }
+
+        JdbcTemplate from = new JdbcTemplate(shards.get(source));
+        JdbcTemplate to = new JdbcTemplate(shards.get(shard));
+        setPlacement(userId, source, true);
+        Map<String, Integer> copied;
+        try {
+            awaitGrace();
+            requireNoAssignmentsWithOthers(from, userId);
+            shardRouter.copyUser(userId, shard);
+            copied = copy(from, to, shards.get(shard), userId);
+            verify(from, to, userId);
+        } catch (RuntimeException e) {
+            log.warn("Moving user {} from {} to {} failed, keeping them on {}: {}", userId, source, shard, source, e.getMessage());
+            deleteRows(to, userId, shard);
+            setPlacement(userId, source, false);
+            throw e;
+        }
+        setPlacement(userId, shard, false);
+        log.info("User {} moved from {} to {}: {}", userId, source, shard, copied);
+
+        awaitGrace();
+        deleteRows(from, userId, source);
+
+        Map<String, Object> result = placement(userId);
+        result.put("movedFrom", source);
+        result.put("rows", copied);
+        return result;
+    }
+
+    private void setPlacement(Long userId, String shard, boolean moving) {
+        shardMap.place(userId, shard, moving);
+        // Other nodes cache placements until they hear about the user
+        invalidationBus.userChanged(userId);
+    }
+
+    // Task assignment only links users on the same shard; such links would dangle once the user moved.
+    private static void requireNoAssignmentsWithOthers(JdbcTemplate from, Long userId) {
+        Integer links = from.queryForObject("select count(*) from tasks where (user_id = ? and assignee_id <> ?)"
+                + " or (assignee_id = ? and user_id <> ?)", Integer.class, userId, userId, userId, userId);
+        if (links != null && links > 0) {
+            throw new IllegalStateException("User " + userId + " has " + links + " task assignments with other users,"
+                    + " unassign them before moving the user");
+        }
+    }
+
+    // Pages through the source by key and inserts into the target, all in one target transaction.
+    private Map<String, Integer> copy(JdbcTemplate from, JdbcTemplate to, DataSource target, Long userId) {
+        TransactionTemplate transaction = new TransactionTemplate(new DataSourceTransactionManager(target));
+        return transaction.execute(status -> {
+            Map<String, Integer> copied = new LinkedHashMap<>();
+            for (Table table : TABLES) {
+                int count = 0;
+                Object after = null;
+                List<Map<String, Object>> rows;
+                do {
+                    rows = after == null
+                            ? from.queryForList("select * from " + table.name() + " where " + table.ownerColumn() + " = ?"
+                            + " order by " + table.keyColumn() + " fetch first " + chunkSize + " rows only", userId)
+                            : from.queryForList("select * from " + table.name() + " where " + table.ownerColumn() + " = ?"
+                            + " and " + table.keyColumn() + " > ? order by " + table.keyColumn()
+                            + " fetch first " + chunkSize + " rows only", userId, after);
+                    if (rows.isEmpty()) {
+                        break;
+                    }
+                    insert(to, table.name(), rows);
+                    count += rows.size();
+                    after = rows.get(rows.size() - 1).get(table.keyColumn());
+                } while (rows.size() == chunkSize);
+                copied.put(table.name(), count);
+            }
+            return copied;
+        });
+    }
+
+    private static void insert(JdbcTemplate to, String table, List<Map<String, Object>> rows) {
+        List<String> columns = new ArrayList<>(rows.get(0).keySet());
+        String sql = "insert into " + table + " (" + String.join(", ", columns) + ") values ("
+                + String.join(", ", columns.stream().map(column -> "?").toList()) + ")";
+        List<Object[]> values = rows.stream().map(row -> columns.stream().map(row::get).toArray()).toList();
+        to.batchUpdate(sql, values);
+    }
+
+    // Row counts, key sums and version sums must match. Background jobs leave a moving user's rows alone, so this
+    // catches whatever else changed them meanwhile, such as a position rebalance or a status change, and fails the move.
+    static void verify(JdbcTemplate from, JdbcTemplate to, Long userId) {
+        for (Table table : TABLES) {
+            String versions = table.versionColumn() == null ? "0" : "coalesce(sum(" + table.versionColumn() + "), 0)";
+            String sql = "select count(*), coalesce(sum(" + table.keyColumn() + "), 0), " + versions + " from "
+                    + table.name() + " where " + table.ownerColumn() + " = ?";
+            RowMapper<List<Long>> sums = (rs, rowNum) -> List.of(rs.getLong(1), rs.getLong(2), rs.getLong(3));
+            List<Long> source = from.queryForObject(sql, sums, userId);
+            List<Long> target = to.queryForObject(sql, sums, userId);
+            if (!Objects.equals(source, target)) {
+                throw new IllegalStateException("Copy of " + table.name() + " does not match the source: "
+                        + source + " rows, key and version sums on the source, " + target + " on the target");
+            }
+        }
+    }
+
+    // In reverse foreign key order and in chunks, like account deletion. The user row stays on the directory shard.
+    private void deleteRows(JdbcTemplate shard, Long userId, String shardName) {
+        for (Table table : TABLES.reversed()) {
+            int deleted;
+            do {
+                deleted = shard.update("delete from " + table.name() + " where " + table.keyColumn() + " in (select "
+                        + table.keyColumn() + " from " + table.name() + " where " + table.ownerColumn() + " = ?"
+                        + " fetch first " + chunkSize + " rows only)", userId);
+            } while (deleted == chunkSize);
+        }
+        if (!shardName.equals(ShardMap.DIRECTORY)) {
+            shard.update("delete from users where id = ?", userId);
+        }
+    }
+
+    private void awaitGrace() {
+        try {
+            Thread.sleep(graceMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for in-flight requests", e);
+        }
+    }
+}
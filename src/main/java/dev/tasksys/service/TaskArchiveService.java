@@ -0,0 +1,132 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.model.ArchiveDto;
+import dev.tasksys.model.ArchivedTask;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.ArchivedTaskRepository;
+import dev.tasksys.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Tasks completed more than min-age-days ago are moved from tasks into archived_tasks, so the hot table and its
+// indexes only hold live work. Age counts from completion rather than the due date, so a long-overdue task does not
+// vanish right after it is marked done. Each chunk copies and deletes the same rows in one transaction; if a task
+// changed in between (e.g. was reopened) the chunk is rolled back and retried.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskArchiveService {
+
+    private final TaskRepository taskRepository;
+    private final ArchivedTaskRepository archivedTaskRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+
+    @Value("${tasks.archive.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tasks.archive.min-age-days:90}")
+    private int minAgeDays;
+
+    @Value("${tasks.archive.chunk-size:1000}")
+    private int chunkSize;
+
+    @Value("${tasks.archive.run-budget-ms:10000}")
+    private long runBudgetMs;
+
+    @Value("${tasks.archive.max-page-size:100}")
+    private int maxPageSize;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    public ArchiveDto.Page getArchivedTasks(String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        DueDateCursor before = DueDateCursor.parse(cursor);
+        List<ArchivedTask> page = archivedTaskRepository.findPage(getCurrentUser().getId(), before.dueDate(), before.id(), Limit.of(limit));
+        String nextCursor = null;
+        if (page.size() == limit) {
+            ArchivedTask last = page.get(page.size() - 1);
+            nextCursor = DueDateCursor.format(last.getDueDate(), last.getId());
+        }
+        return new ArchiveDto.Page(page.stream().map(TaskArchiveService::convertToDto).toList(), nextCursor);
+    }
+
+    @Scheduled(initialDelayString = "${tasks.archive.initial-delay-ms:60000}",
+            fixedDelayString = "${tasks.archive.interval-ms:3600000}")
+    public void archive() {
+        if (enabled) {
+            LocalDateTime cutoff = LocalDateTime.now().minusDays(minAgeDays);
+            shardRouter.forEachShard(() -> archiveCompletedBefore(cutoff));
+        }
+    }
+
+    int archiveCompletedBefore(LocalDateTime cutoff) {
+        long deadline = System.currentTimeMillis() + runBudgetMs;
+        Set<Long> userIds = new HashSet<>();
+        int archived = 0;
+        try {
+            int moved;
+            do {
+                moved = transactionTemplate.execute(status -> {
+                    // Users being moved are archived on their new shard
+                    List<Object[]> rows = taskRepository.findArchivable(TaskStatus.DONE, cutoff, Limit.of(chunkSize)).stream()
+                            .filter(row -> !shardRouter.isMoving((Long) row[1])).toList();
+                    if (rows.isEmpty()) {
+                        return 0;
+                    }
+                    List<Long> ids = rows.stream().map(row -> (Long) row[0]).toList();
+                    int copied = archivedTaskRepository.copyFromTasks(ids, TaskStatus.DONE);
+                    taskRepository.deleteDependenciesOfAll(ids);
+                    taskRepository.clearParentOfAll(ids);
+                    int deleted = taskRepository.deleteByIdsAndStatus(ids, TaskStatus.DONE);
+                    if (copied != deleted) {
+                        log.debug("Tasks changed while being archived, retrying chunk later");
+                        status.setRollbackOnly();
+                        return 0;
+                    }
+                    rows.forEach(row -> userIds.add((Long) row[1]));
+                    return ids.size();
+                });
+                archived += moved;
+            } while (moved == chunkSize && System.currentTimeMillis() < deadline);
+        } catch (DataAccessException e) {
+            log.warn("Archiving completed tasks failed: {}", e.getMessage());
+        }
+
+        userIds.forEach(userId -> eventPublisher.publishEvent(TaskChangeEvent.bulkDeleted(userId)));
+        if (archived > 0) {
+            log.info("Archived {} tasks completed before {} for {} users", archived, cutoff, userIds.size());
+        }
+        return archived;
+    }
+
+    static TaskDto convertToDto(ArchivedTask task) {
+        TaskDto dto = new TaskDto(task.getTitle(), task.getDescription(), task.getDueDate(), task.getStatus().name());
+        dto.setId(task.getId());
+        return dto;
+    }
+}
@@ -0,0 +1,128 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.model.InboxDto;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskInboxEntry;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskInboxRepository;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+// The inbox is written on the write path (fan-out on write): assignment changes write it directly and
+// every other task change reaches it through TaskChangeEvent, handled synchronously so that the inbox
+// commits or rolls back together with the change itself.
+@Service
+@RequiredArgsConstructor
+public class TaskAssignmentService {
+
+    private final TaskRepository taskRepository;
+    private final TaskInboxRepository inboxRepository;
+    private final UserRepository userRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+
+    @Value("${tasks.inbox.max-page-size:100}")
+    private int maxPageSize;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @Transactional
+    public TaskDto assign(Long taskId, Long assigneeId) {
+        User currentUser = getCurrentUser();
+        Task task = taskRepository.findByIdAndUserId(taskId, currentUser.getId())
+                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + taskId));
+        // The inbox entry lives next to the task, so the assignee has to read it from the same database
+        if (assigneeId != null && !shardRouter.sameShard(currentUser.getId(), assigneeId)) {
+            throw new IllegalArgumentException("Tasks can only be assigned to users on the same shard");
+        }
+        if (assigneeId != null && !userRepository.findById(assigneeId).map(User::isEnabled).orElse(false)) {
+            throw new IllegalArgumentException("Unknown assignee " + assigneeId);
+        }
+
+        task.setAssigneeId(assigneeId);
+        TaskDto saved = TaskService.convertToDto(taskRepository.saveAndFlush(task));
+
+        TaskInboxEntry entry = inboxRepository.findByTaskId(taskId).orElse(null);
+        if (assigneeId == null) {
+            if (entry != null) {
+                inboxRepository.delete(entry);
+            }
+        } else if (entry == null) {
+            inboxRepository.save(new TaskInboxEntry(assigneeId, task));
+        } else {
+            entry.setAssigneeId(assigneeId);
+        }
+
+        eventPublisher.publishEvent(TaskChangeEvent.updated(currentUser.getId(), saved));
+        return saved;
+    }
+
+    @Transactional(readOnly = true)
+    public InboxDto.Page getInbox(String cursor, int limit) {
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("limit must be between 1 and " + maxPageSize);
+        }
+        DueDateCursor after = DueDateCursor.parse(cursor);
+        List<TaskInboxEntry> page = inboxRepository.findPage(getCurrentUser().getId(), after.dueDate(), after.id(), Limit.of(limit));
+        String nextCursor = null;
+        if (page.size() == limit) {
+            TaskInboxEntry last = page.get(page.size() - 1);
+            nextCursor = DueDateCursor.format(last.getDueDate(), last.getTaskId());
+        }
+        return new InboxDto.Page(page.stream().map(TaskAssignmentService::convertToDto).toList(), nextCursor);
+    }
+
+    // Assignees may move a task through its statuses; everything else stays with the owner.
+    @Transactional
+    public void updateStatusAsAssignee(Long taskId, String status) {
+        User currentUser = getCurrentUser();
+        TaskInboxEntry entry = inboxRepository.findByTaskIdAndAssigneeId(taskId, currentUser.getId())
+                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + taskId));
+        TaskStatus taskStatus;
+        try {
+            taskStatus = TaskStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status " + status);
+        }
+        if (taskRepository.updateStatusAsAssignee(taskId, currentUser.getId(), taskStatus) == 0) {
+            throw new TaskNotFoundException("Task not found with id: " + taskId);
+        }
+        eventPublisher.publishEvent(TaskChangeEvent.patched(entry.getOwnerId(), taskId));
+    }
+
+    @EventListener
+    @Transactional
+    public void onTaskChange(TaskChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED -> {
+            }
+            case UPDATED -> inboxRepository.refreshFromTask(event.getTaskId());
+            case DELETED -> inboxRepository.deleteByTask(event.getTaskId());
+            case BULK_UPDATED -> inboxRepository.refreshFromOwnerTasks(event.getUserId());
+            case BULK_DELETED -> inboxRepository.deleteOrphans(event.getUserId());
+        }
+    }
+
+    static InboxDto.Entry convertToDto(TaskInboxEntry entry) {
+        return new InboxDto.Entry(entry.getTaskId(), entry.getOwnerId(), entry.getTitle(), entry.getDueDate(), entry.getStatus().name());
+    }
+}
@@ -0,0 +1,156 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.model.AttachmentDto;
+import dev.tasksys.model.TaskAttachment;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskAttachmentRepository;
+import dev.tasksys.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+// Uploads are streamed into the AttachmentStore before any transaction is opened; only the metadata
+// row is written to the database. Blobs are shared between attachments with the same content and are
+// removed by a periodic sweep once no attachment references them any more.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskAttachmentService {
+
+    private final TaskAttachmentRepository attachmentRepository;
+    private final TaskRepository taskRepository;
+    private final AttachmentStore attachmentStore;
+    private final ShardRouter shardRouter;
+
+    @Value("${tasks.attachments.max-size-bytes:104857600}")
+    private long maxSizeBytes;
+
+    @Value("${tasks.attachments.orphan-grace-minutes:60}")
+    private long orphanGraceMinutes;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    public AttachmentDto upload(Long taskId, String fileName, String contentType, InputStream content) throws IOException {
+        User currentUser = getCurrentUser();
+        if (fileName == null || fileName.isBlank() || fileName.length() > 255) {
+            throw new IllegalArgumentException("File name must be between 1 and 255 characters");
+        }
+        requireTask(taskId, currentUser);
+
+        AttachmentStore.StoredBlob blob = attachmentStore.store(content, maxSizeBytes);
+        TaskAttachment attachment = new TaskAttachment(taskId, currentUser.getId(), fileName,
+                contentType == null ? "application/octet-stream" : contentType, blob.size(), blob.sha256());
+        return convertToDto(attachmentRepository.save(attachment));
+    }
+
+    public List<AttachmentDto> getAttachments(Long taskId) {
+        User currentUser = getCurrentUser();
+        requireTask(taskId, currentUser);
+        return attachmentRepository.findByTaskIdAndUserIdOrderByIdAsc(taskId, currentUser.getId()).stream()
+                .map(TaskAttachmentService::convertToDto)
+                .toList();
+    }
+
+    public AttachmentDto getAttachment(Long taskId, Long id) {
+        return convertToDto(findAttachment(taskId, id, getCurrentUser()));
+    }
+
+    public long transferTo(AttachmentDto attachment, long position, long count, WritableByteChannel target) throws IOException {
+        return attachmentStore.transferTo(attachment.getSha256(), position, count, target);
+    }
+
+    public Optional<Path> localFile(AttachmentDto attachment) {
+        return attachmentStore.localFile(attachment.getSha256());
+    }
+
+    public void deleteAttachment(Long taskId, Long id) {
+        attachmentRepository.delete(findAttachment(taskId, id, getCurrentUser()));
+    }
+
+    @EventListener
+    @Transactional
+    public void onTaskChange(TaskChangeEvent event) {
+        switch (event.getType()) {
+            case DELETED -> attachmentRepository.deleteByTask(event.getTaskId());
+            case BULK_DELETED -> attachmentRepository.deleteOrphans(event.getUserId());
+            default -> {
+            }
+        }
+    }
+
+    // The grace period covers uploads whose blob is stored but whose row is not committed yet. A duplicate upload only
+    // refreshes an existing blob, so an orphan is first moved aside, and only if nothing touched it since it was listed;
+    // the next run deletes it if it is still unreferenced by then, or puts it back. Blobs are shared between users, and
+    // so between shards: a blob is kept while any shard references it.
+    @Scheduled(initialDelayString = "${tasks.attachments.sweep-initial-delay-ms:300000}",
+            fixedDelayString = "${tasks.attachments.sweep-interval-ms:3600000}")
+    public void sweepOrphanedBlobs() {
+        try {
+            int deleted = 0;
+            int restored = 0;
+            for (String sha256 : attachmentStore.findQuarantined()) {
+                if (isReferenced(sha256)) {
+                    attachmentStore.restore(sha256);
+                    restored++;
+                } else {
+                    attachmentStore.deleteQuarantined(sha256);
+                    deleted++;
+                }
+            }
+            int quarantined = 0;
+            Instant cutoff = Instant.now().minus(Duration.ofMinutes(orphanGraceMinutes));
+            for (String sha256 : attachmentStore.findUnmodifiedSince(cutoff)) {
+                if (!isReferenced(sha256) && attachmentStore.quarantine(sha256, cutoff)) {
+                    quarantined++;
+                }
+            }
+            if (deleted > 0 || restored > 0 || quarantined > 0) {
+                log.info("Attachment blob sweep deleted {}, restored {} and quarantined {} blobs", deleted, restored, quarantined);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Sweeping attachment blobs failed: {}", e.getMessage());
+        }
+    }
+
+    private boolean isReferenced(String sha256) {
+        return shardRouter.anyShard(() -> attachmentRepository.existsBySha256(sha256));
+    }
+
+    private void requireTask(Long taskId, User currentUser) {
+        if (!taskRepository.existsByIdAndUserId(taskId, currentUser.getId())) {
+            throw new TaskNotFoundException("Task not found with id: " + taskId);
+        }
+    }
+
+    private TaskAttachment findAttachment(Long taskId, Long id, User currentUser) {
+        return attachmentRepository.findByIdAndTaskIdAndUserId(id, taskId, currentUser.getId())
+                .orElseThrow(() -> new TaskNotFoundException("Attachment not found with id: " + id));
+    }
+
+    static AttachmentDto convertToDto(TaskAttachment attachment) {
+        return new AttachmentDto(attachment.getId(), attachment.getTaskId(), attachment.getFileName(), attachment.getContentType(),
+                attachment.getSize(), attachment.getSha256(), attachment.getCreatedAt());
+    }
+}
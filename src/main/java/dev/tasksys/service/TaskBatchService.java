@@ -0,0 +1,167 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
+import dev.tasksys.model.BatchDto;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskDto;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskBatchService {
+
+    private final TaskService taskService;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+
+    @Value("${tasks.batch.max-operations:500}")
+    private int maxOperations;
+
+    public BatchDto.Response execute(BatchDto.Request request) {
+        List<BatchDto.Operation> operations = request.getOperations();
+        if (operations.size() > maxOperations) {
+            throw new IllegalArgumentException("At most " + maxOperations + " operations are allowed per batch");
+        }
+        boolean atomic = request.getMode() != BatchDto.Mode.BEST_EFFORT;
+        List<BatchDto.OperationResult> results = new ArrayList<>(operations.size());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                for (int i = 0; i < operations.size(); i++) {
+                    BatchDto.OperationResult result = apply(i, operations.get(i));
+                    results.add(result);
+                    if (atomic && result.getError() != null) {
+                        status.setRollbackOnly();
+                        return;
+                    }
+                }
+                entityManager.flush();
+                refreshVersions(results);
+            });
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Task batch of {} operations rolled back: {}", operations.size(), e.getMessage());
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            return new BatchDto.Response(false, rolledBack(results, operations, cause));
+        }
+
+        boolean failed = results.stream().anyMatch(r -> r.getError() != null);
+        if (atomic && failed) {
+            return new BatchDto.Response(false, rolledBack(results, operations, null));
+        }
+        return new BatchDto.Response(true, results);
+    }
+
+    private BatchDto.OperationResult apply(int index, BatchDto.Operation operation) {
+        BatchDto.OperationType type = operation.getOp();
+        try {
+            if (type == null) {
+                throw new IllegalArgumentException("Operation type is required");
+            }
+            return switch (type) {
+                case CREATE -> {
+                    TaskDto created = taskService.createTask(validated(operation.getTask(), "Task"));
+                    yield success(index, type, HttpStatus.CREATED, created.getId(), created);
+                }
+                case UPDATE -> {
+                    TaskDto updated = taskService.updateTask(requireId(operation), validated(operation.getTask(), "Task"),
+                            operation.getExpectedVersion());
+                    yield success(index, type, HttpStatus.OK, updated.getId(), updated);
+                }
+                case PATCH -> {
+                    taskService.patchTask(requireId(operation), validated(operation.getPatch(), "Patch"),
+                            operation.getExpectedVersion());
+                    yield success(index, type, HttpStatus.NO_CONTENT, operation.getId(), null);
+                }
+                case DELETE -> {
+                    taskService.deleteTask(requireId(operation), operation.getExpectedVersion());
+                    yield success(index, type, HttpStatus.NO_CONTENT, operation.getId(), null);
+                }
+            };
+        } catch (TaskNotFoundException e) {
+            return failure(index, type, HttpStatus.NOT_FOUND, operation.getId(), e.getMessage());
+        } catch (TaskVersionMismatchException e) {
+            return failure(index, type, HttpStatus.PRECONDITION_FAILED, operation.getId(), e.getMessage());
+        } catch (IllegalArgumentException e) {
+            return failure(index, type, HttpStatus.BAD_REQUEST, operation.getId(), e.getMessage());
+        }
+    }
+
+    private <T> T validated(T body, String name) {
+        if (body == null) {
+            throw new IllegalArgumentException(name + " body is required");
+        }
+        Set<ConstraintViolation<T>> violations = validator.validate(body);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return body;
+    }
+
+    private Long requireId(BatchDto.Operation operation) {
+        if (operation.getId() == null) {
+            throw new IllegalArgumentException("Task id is required for " + operation.getOp());
+        }
+        return operation.getId();
+    }
+
+    private void refreshVersions(List<BatchDto.OperationResult> results) {
+        for (BatchDto.OperationResult result : results) {
+            if (result.getTask() != null) {
+                Task managed = entityManager.find(Task.class, result.getId());
+                if (managed != null) {
+                    result.getTask().setVersion(managed.getVersion());
+                }
+            }
+        }
+    }
+
+    private List<BatchDto.OperationResult> rolledBack(List<BatchDto.OperationResult> results,
+                                                      List<BatchDto.Operation> operations, String cause) {
+        List<BatchDto.OperationResult> rolledBack = new ArrayList<>(operations.size());
+        for (BatchDto.OperationResult result : results) {
+            if (result.getError() == null) {
+                rolledBack.add(failure(result.getIndex(), result.getOp(), HttpStatus.FAILED_DEPENDENCY, result.getId(),
+                        cause == null ? "Rolled back because another operation failed" : "Rolled back: " + cause));
+            } else {
+                rolledBack.add(result);
+            }
+        }
+        for (int i = results.size(); i < operations.size(); i++) {
+            BatchDto.Operation operation = operations.get(i);
+            rolledBack.add(failure(i, operation.getOp(), HttpStatus.FAILED_DEPENDENCY, operation.getId(),
+                    "Not executed because an earlier operation failed"));
+        }
+        return rolledBack;
+    }
+
+    private BatchDto.OperationResult success(int index, BatchDto.OperationType type, HttpStatus status, Long id, TaskDto task) {
+        return new BatchDto.OperationResult(index, type, status.value(), id, task, null);
+    }
+
+    private BatchDto.OperationResult failure(int index, BatchDto.OperationType type, HttpStatus status, Long id, String error) {
+        return new BatchDto.OperationResult(index, type, status.value(), id, null, error);
+    }
+}
@@ -0,0 +1,57 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.TaskBody;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.repository.TaskBodyRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Service
+@RequiredArgsConstructor
+public class TaskBodyService {
+
+    static final int PREVIEW_LENGTH = 160;
+
+    private final TaskBodyRepository taskBodyRepository;
+
+    // Stores the body (an empty body removes it) and returns the preview to keep on the task row.
+    public String write(Long taskId, Long userId, String body) {
+        if (body.isEmpty()) {
+            taskBodyRepository.deleteByTask(taskId);
+            return null;
+        }
+        taskBodyRepository.save(new TaskBody(taskId, userId, body));
+        return preview(body);
+    }
+
+    public Optional<String> read(Long taskId) {
+        return taskBodyRepository.findById(taskId).map(TaskBody::getContent);
+    }
+
+    @EventListener
+    @Transactional
+    public void onTaskChange(TaskChangeEvent event) {
+        switch (event.getType()) {
+            case DELETED -> taskBodyRepository.deleteByTask(event.getTaskId());
+            case BULK_DELETED -> taskBodyRepository.deleteOrphans(event.getUserId());
+            default -> {
+            }
+        }
+    }
+
+    static String preview(String body) {
+        String collapsed = body.strip().replaceAll("\\s+", " ");
+        if (collapsed.length() <= PREVIEW_LENGTH) {
+            return collapsed;
+        }
+        int end = PREVIEW_LENGTH - 1;
+        if (Character.isHighSurrogate(collapsed.charAt(end - 1))) {
+            end--;
+        }
+        return collapsed.substring(0, end) + "\u2026";
+    }
+}
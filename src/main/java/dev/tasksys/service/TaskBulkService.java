@@ -0,0 +1,212 @@
+package dev.tasksys.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tasksys.model.BulkDto;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskBulkService {
+
+    private final TaskRepository taskRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${tasks.bulk.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${tasks.bulk.max-ids:10000}")
+    private int maxIds;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    public BulkDto.CreateResponse createTasks(InputStream body) throws IOException {
+        User currentUser = getCurrentUser();
+        BulkDto.CreateResponse response = new BulkDto.CreateResponse();
+        List<Pending> chunk = new ArrayList<>(chunkSize);
+        int index = 0;
+
+        try (MappingIterator<TaskDto> items = objectMapper.readerFor(TaskDto.class).readValues(body)) {
+            while (true) {
+                TaskDto dto;
+                try {
+                    if (!items.hasNextValue()) {
+                        break;
+                    }
+                    dto = items.nextValue();
+                } catch (JsonProcessingException e) {
+                    flushChunk(currentUser, chunk, response);
+                    response.add(new BulkDto.ItemResult(index, null, BulkDto.ItemStatus.FAILED,
+                            "Malformed task, remaining input skipped: " + e.getOriginalMessage()));
+                    return response;
+                }
+
+                String rejection = validate(dto);
+                if (rejection != null) {
+                    response.add(new BulkDto.ItemResult(index++, null, BulkDto.ItemStatus.REJECTED, rejection));
+                    continue;
+                }
+
+                chunk.add(new Pending(index++, dto));
+                if (chunk.size() >= chunkSize) {
+                    flushChunk(currentUser, chunk, response);
+                }
+            }
+        }
+        flushChunk(currentUser, chunk, response);
+        return response;
+    }
+
+    @Transactional
+    public BulkDto.AffectedResponse updateStatus(BulkDto.StatusChangeRequest request) {
+        User currentUser = getCurrentUser();
+        TaskStatus status = parseStatus(request.getStatus());
+        int affected;
+        if (hasIds(request.getIds(), request.getFilter())) {
+            affected = taskRepository.updateStatusByIds(currentUser.getId(), request.getIds(), status);
+        } else {
+            BulkDto.Filter filter = request.getFilter();
+            affected = taskRepository.updateStatusByFilter(currentUser.getId(), parseStatus(filter.getStatus()),
+                    filter.getDueFrom(), filter.getDueTo(), status);
+        }
+        if (affected > 0) {
+            eventPublisher.publishEvent(TaskChangeEvent.bulkUpdated(currentUser.getId()));
+        }
+        return new BulkDto.AffectedResponse(affected);
+    }
+
+    @Transactional
+    public BulkDto.AffectedResponse delete(BulkDto.DeleteRequest request) {
+        User currentUser = getCurrentUser();
+        int affected;
+        // Like a single delete: the tasks' dependency edges go with them and their subtasks become top-level
+        if (hasIds(request.getIds(), request.getFilter())) {
+            taskRepository.deleteDependenciesOfUserTasks(currentUser.getId(), request.getIds());
+            taskRepository.clearParentOfUserTasks(currentUser.getId(), request.getIds());
+            affected = taskRepository.deleteByIds(currentUser.getId(), request.getIds());
+        } else {
+            BulkDto.Filter filter = request.getFilter();
+            TaskStatus status = parseStatus(filter.getStatus());
+            taskRepository.deleteDependenciesByFilter(currentUser.getId(), status, filter.getDueFrom(), filter.getDueTo());
+            taskRepository.clearParentByFilter(currentUser.getId(), status, filter.getDueFrom(), filter.getDueTo());
+            affected = taskRepository.deleteByFilter(currentUser.getId(), status, filter.getDueFrom(), filter.getDueTo());
+        }
+        if (affected > 0) {
+            eventPublisher.publishEvent(TaskChangeEvent.bulkDeleted(currentUser.getId()));
+        }
+        return new BulkDto.AffectedResponse(affected);
+    }
+
+    private boolean hasIds(List<Long> ids, BulkDto.Filter filter) {
+        boolean hasIds = ids != null && !ids.isEmpty();
+        boolean hasFilter = filter != null
+                && (filter.getStatus() != null || filter.getDueFrom() != null || filter.getDueTo() != null);
+        if (hasIds == hasFilter) {
+            throw new IllegalArgumentException("Provide either a non-empty id list or a filter with at least one criterion");
+        }
+        if (hasIds && ids.size() > maxIds) {
+            throw new IllegalArgumentException("At most " + maxIds + " ids can be changed in one request");
+        }
+        return hasIds;
+    }
+
+    private TaskStatus parseStatus(String status) {
+        if (status == null) {
+            return null;
+        }
+        try {
+            return TaskStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status " + status);
+        }
+    }
+
+    private String validate(TaskDto dto) {
+        Set<ConstraintViolation<TaskDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        try {
+            TaskService.convertToEntity(dto);
+        } catch (IllegalArgumentException e) {
+            return "status: Unknown status " + dto.getStatus();
+        }
+        return null;
+    }
+
+    private void flushChunk(User currentUser, List<Pending> chunk, BulkDto.CreateResponse response) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            List<Task> saved = transactionTemplate.execute(status -> {
+                List<Task> tasks = new ArrayList<>(chunk.size());
+                for (Pending pending : chunk) {
+                    Task task = TaskService.convertToEntity(pending.dto());
+                    task.setUser(currentUser);
+                    tasks.add(task);
+                }
+                taskRepository.saveAll(tasks);
+                entityManager.flush();
+                entityManager.clear();
+                return tasks;
+            });
+            for (int i = 0; i < chunk.size(); i++) {
+                Task task = saved.get(i);
+                response.add(new BulkDto.ItemResult(chunk.get(i).index(), task.getId(), BulkDto.ItemStatus.CREATED, null));
+                eventPublisher.publishEvent(TaskChangeEvent.created(currentUser.getId(), TaskService.convertToDto(task)));
+            }
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Bulk task chunk of {} items failed: {}", chunk.size(), e.getMessage());
+            String cause = NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+            for (Pending pending : chunk) {
+                response.add(new BulkDto.ItemResult(pending.index(), null, BulkDto.ItemStatus.FAILED,
+                        "Chunk rolled back: " + cause));
+            }
+        }
+        chunk.clear();
+    }
+
+    private record Pending(int index, TaskDto dto) {
+    }
+}
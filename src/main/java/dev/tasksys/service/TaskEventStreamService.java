@@ -0,0 +1,218 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.TaskChangeEvent;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Slf4j
+@Service
+public class TaskEventStreamService {
+
+    static final String RESET_EVENT = "RESET";
+
+    @Value("${tasks.events.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${tasks.events.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${tasks.events.history-size:256}")
+    private int historySize;
+
+    @Value("${tasks.events.idle-retention-ms:120000}")
+    private long idleRetentionMs;
+
+    private final Map<Long, UserChannel> channels = new ConcurrentHashMap<>();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public SseEmitter subscribe(Long userId, Long lastEventId) {
+        SseEmitter emitter = new SseEmitter(timeoutMs);
+        Subscription subscription = new Subscription(emitter, new ArrayBlockingQueue<>(bufferSize));
+        // Added under the map's lock, so that pruneIdleChannels cannot drop the channel in between
+        UserChannel channel = channels.compute(userId, (id, existing) -> {
+            UserChannel joined = existing == null ? new UserChannel() : existing;
+            joined.add(subscription, lastEventId);
+            return joined;
+        });
+
+        emitter.onCompletion(() -> channel.remove(subscription));
+        emitter.onTimeout(() -> channel.remove(subscription));
+        emitter.onError(e -> channel.remove(subscription));
+
+        schedule(channel, subscription);
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChange(TaskChangeEvent event) {
+        UserChannel channel = channels.get(event.getUserId());
+        if (channel == null) {
+            return;
+        }
+        for (Subscription subscription : channel.append(event)) {
+            schedule(channel, subscription);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${tasks.events.heartbeat-ms:25000}")
+    public void sendHeartbeats() {
+        channels.values().forEach(channel -> {
+            for (Subscription subscription : channel.subscribers) {
+                if (subscription.queue().isEmpty() && subscription.queue().offer(StoredEvent.HEARTBEAT)) {
+                    schedule(channel, subscription);
+                }
+            }
+        });
+    }
+
+    // A channel outlives its last subscriber by idle-retention-ms, so that a client reconnecting with Last-Event-ID
+    // can still resume from its history; after that it is dropped and a late reconnect gets a RESET.
+    @Scheduled(fixedDelayString = "${tasks.events.heartbeat-ms:25000}")
+    public void pruneIdleChannels() {
+        long now = System.nanoTime();
+        channels.keySet().forEach(userId -> channels.computeIfPresent(userId,
+                (id, channel) -> channel.idleLongerThan(now, TimeUnit.MILLISECONDS.toNanos(idleRetentionMs)) ? null : channel));
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        senders.shutdownNow();
+        channels.values().forEach(channel -> channel.subscribers.forEach(s -> s.emitter().complete()));
+        channels.clear();
+    }
+
+    public boolean hasChannel(Long userId) {
+        return channels.containsKey(userId);
+    }
+
+    public int subscriberCount(Long userId) {
+        UserChannel channel = channels.get(userId);
+        return channel == null ? 0 : channel.subscribers.size();
+    }
+
+    List<StoredEvent> eventsAfter(Long userId, long lastEventId) {
+        UserChannel channel = channels.get(userId);
+        return channel == null ? List.of() : channel.eventsAfter(lastEventId);
+    }
+
+    private void schedule(UserChannel channel, Subscription subscription) {
+        if (subscription.draining().compareAndSet(false, true)) {
+            senders.execute(() -> drain(channel, subscription));
+        }
+    }
+
+    private void drain(UserChannel channel, Subscription subscription) {
+        try {
+            StoredEvent next;
+            while ((next = subscription.queue().poll()) != null) {
+                subscription.emitter().send(next.toSseEvent());
+            }
+        } catch (IOException | IllegalStateException e) {
+            log.debug("Dropping task event subscriber: {}", e.getMessage());
+            channel.remove(subscription);
+            subscription.emitter().completeWithError(e);
+        } finally {
+            subscription.draining().set(false);
+        }
+        if (!subscription.queue().isEmpty() && channel.subscribers.contains(subscription)) {
+            schedule(channel, subscription);
+        }
+    }
+
+    record StoredEvent(long id, String name, Object data) {
+        static final StoredEvent HEARTBEAT = new StoredEvent(-1, null, null);
+
+        SseEmitter.SseEventBuilder toSseEvent() {
+            if (this == HEARTBEAT) {
+                return SseEmitter.event().comment("keepalive");
+            }
+            return SseEmitter.event().id(Long.toString(id)).name(name).data(data, MediaType.APPLICATION_JSON);
+        }
+    }
+
+    private record Subscription(SseEmitter emitter, BlockingQueue<StoredEvent> queue, AtomicBoolean draining) {
+        Subscription(SseEmitter emitter, BlockingQueue<StoredEvent> queue) {
+            this(emitter, queue, new AtomicBoolean());
+        }
+    }
+
+    private class UserChannel {
+        private final List<Subscription> subscribers = new CopyOnWriteArrayList<>();
+        private final ArrayDeque<StoredEvent> history = new ArrayDeque<>();
+        private long sequence;
+        private volatile long idleSince = System.nanoTime();
+
+        synchronized void add(Subscription subscription, Long lastEventId) {
+            if (lastEventId != null) {
+                StoredEvent oldest = history.peekFirst();
+                if (lastEventId > sequence || (oldest != null && lastEventId < oldest.id() - 1)
+                        || (oldest == null && lastEventId < sequence)) {
+                    subscription.queue().offer(new StoredEvent(sequence, RESET_EVENT, Map.of("lastEventId", sequence)));
+                } else {
+                    for (StoredEvent event : eventsAfter(lastEventId)) {
+                        if (!subscription.queue().offer(event)) {
+                            subscription.queue().clear();
+                            subscription.queue().offer(new StoredEvent(sequence, RESET_EVENT, Map.of("lastEventId", sequence)));
+                            break;
+                        }
+                    }
+                }
+            }
+            subscribers.add(subscription);
+        }
+
+        synchronized List<Subscription> append(TaskChangeEvent event) {
+            StoredEvent stored = new StoredEvent(++sequence, event.getType().name(), event);
+            history.addLast(stored);
+            if (history.size() > historySize) {
+                history.removeFirst();
+            }
+
+            List<Subscription> ready = new ArrayList<>(subscribers.size());
+            for (Subscription subscription : subscribers) {
+                if (subscription.queue().offer(stored)) {
+                    ready.add(subscription);
+                } else {
+                    log.debug("Task event buffer full, disconnecting slow subscriber");
+                    remove(subscription);
+                    subscription.emitter().complete();
+                }
+            }
+            return ready;
+        }
+
+        synchronized List<StoredEvent> eventsAfter(long lastEventId) {
+            return history.stream().filter(e -> e.id() > lastEventId).toList();
+        }
+
+        synchronized void remove(Subscription subscription) {
+            if (subscribers.remove(subscription) && subscribers.isEmpty()) {
+                idleSince = System.nanoTime();
+            }
+        }
+
+        synchronized boolean idleLongerThan(long now, long retentionNanos) {
+            return subscribers.isEmpty() && now - idleSince >= retentionNanos;
+        }
+    }
+}
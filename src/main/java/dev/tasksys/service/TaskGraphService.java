@@ -0,0 +1,362 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.TaskDependencyCycleException;
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDependency;
+import dev.tasksys.model.TaskGraphDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskDependencyRepository;
+import dev.tasksys.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskGraphService {
+
+    private final TaskRepository taskRepository;
+    private final TaskDependencyRepository dependencyRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${tasks.graph.max-cached-users:10000}")
+    private int maxCachedUsers;
+
+    private final Map<Long, Graph> graphs = new ConcurrentHashMap<>();
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @Transactional
+    public void setParent(Long taskId, Long parentId) {
+        User currentUser = getCurrentUser();
+        if (taskId.equals(parentId)) {
+            throw new TaskDependencyCycleException("A task cannot be its own parent");
+        }
+        requireOwned(currentUser.getId(), parentId == null ? List.of(taskId) : List.of(taskId, parentId));
+        Graph graph = graph(currentUser.getId());
+
+        Long previous;
+        synchronized (graph) {
+            if (parentId != null && graph.reaches(taskId, parentId)) {
+                throw new TaskDependencyCycleException("Making task " + parentId + " the parent of task " + taskId + " would create a cycle");
+            }
+            previous = graph.setParent(taskId, parentId);
+        }
+        afterCompletion(currentUser.getId(), graph, () -> graph.setParent(taskId, previous));
+
+        taskRepository.updateParent(taskId, currentUser.getId(), parentId);
+        eventPublisher.publishEvent(TaskChangeEvent.patched(currentUser.getId(), taskId));
+    }
+
+    @Transactional
+    public void addDependency(Long taskId, Long blockedById) {
+        User currentUser = getCurrentUser();
+        if (taskId.equals(blockedById)) {
+            throw new TaskDependencyCycleException("A task cannot be blocked by itself");
+        }
+        requireOwned(currentUser.getId(), List.of(taskId, blockedById));
+        Graph graph = graph(currentUser.getId());
+
+        synchronized (graph) {
+            if (graph.isBlockedBy(taskId, blockedById)) {
+                return;
+            }
+            if (graph.reaches(blockedById, taskId)) {
+                throw new TaskDependencyCycleException("Task " + blockedById + " already waits for task " + taskId);
+            }
+            graph.addBlocker(taskId, blockedById);
+        }
+        afterCompletion(currentUser.getId(), graph, () -> graph.removeBlocker(taskId, blockedById));
+
+        dependencyRepository.save(new TaskDependency(currentUser.getId(), taskId, blockedById));
+        eventPublisher.publishEvent(TaskChangeEvent.patched(currentUser.getId(), taskId));
+    }
+
+    @Transactional
+    public void removeDependency(Long taskId, Long blockedById) {
+        User currentUser = getCurrentUser();
+        if (dependencyRepository.deleteEdge(currentUser.getId(), taskId, blockedById) == 0) {
+            throw new TaskNotFoundException("Task " + taskId + " is not blocked by task " + blockedById);
+        }
+        Graph graph = graph(currentUser.getId());
+        synchronized (graph) {
+            graph.removeBlocker(taskId, blockedById);
+        }
+        afterCompletion(currentUser.getId(), graph, () -> graph.addBlocker(taskId, blockedById));
+        eventPublisher.publishEvent(TaskChangeEvent.patched(currentUser.getId(), taskId));
+    }
+
+    public TaskGraphDto.Readiness getReadiness(Long taskId) {
+        Graph graph = graph(getCurrentUser().getId());
+        synchronized (graph) {
+            requireNode(graph, taskId);
+            List<Long> openBlockers = graph.open(graph.blockedBy.get(taskId), null);
+            List<Long> openSubtasks = graph.open(graph.children.get(taskId), null);
+            boolean ready = graph.status.get(taskId) != TaskStatus.DONE && openBlockers.isEmpty() && openSubtasks.isEmpty();
+            return new TaskGraphDto.Readiness(taskId, ready, openBlockers, openSubtasks);
+        }
+    }
+
+    // Tasks that become actionable once the given task is done.
+    public TaskGraphDto.Unblocks getUnblocks(Long taskId) {
+        Graph graph = graph(getCurrentUser().getId());
+        synchronized (graph) {
+            requireNode(graph, taskId);
+            Set<Long> candidates = new HashSet<>(graph.blocks.getOrDefault(taskId, Set.of()));
+            Long parent = graph.parent.get(taskId);
+            if (parent != null) {
+                candidates.add(parent);
+            }
+            List<Long> unblocked = candidates.stream()
+                    .filter(id -> graph.status.containsKey(id) && graph.status.get(id) != TaskStatus.DONE)
+                    .filter(id -> graph.open(graph.blockedBy.get(id), taskId).isEmpty()
+                            && graph.open(graph.children.get(id), taskId).isEmpty())
+                    .sorted()
+                    .toList();
+            return new TaskGraphDto.Unblocks(taskId, unblocked);
+        }
+    }
+
+    public List<Long> getReadyTaskIds() {
+        Graph graph = graph(getCurrentUser().getId());
+        synchronized (graph) {
+            return graph.status.entrySet().stream()
+                    .filter(e -> e.getValue() != TaskStatus.DONE)
+                    .map(Map.Entry::getKey)
+                    .filter(id -> graph.open(graph.blockedBy.get(id), null).isEmpty()
+                            && graph.open(graph.children.get(id), null).isEmpty())
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChange(TaskChangeEvent event) {
+        switch (event.getType()) {
+            case CREATED, UPDATED -> {
+                if (!graphs.containsKey(event.getUserId())) {
+                    return;
+                }
+                TaskStatus status = event.getTask() != null
+                        ? TaskStatus.valueOf(event.getTask().getStatus())
+                        : taskRepository.findStatusById(event.getTaskId()).orElse(null);
+                graphs.computeIfPresent(event.getUserId(), (userId, graph) -> {
+                    synchronized (graph) {
+                        if (status == null) {
+                            graph.removeTask(event.getTaskId());
+                        } else {
+                            graph.status.put(event.getTaskId(), status);
+                        }
+                    }
+                    return graph;
+                });
+            }
+            case DELETED -> graphs.computeIfPresent(event.getUserId(), (userId, graph) -> {
+                synchronized (graph) {
+                    graph.removeTask(event.getTaskId());
+                }
+                return graph;
+            });
+            case BULK_UPDATED, BULK_DELETED -> graphs.remove(event.getUserId());
+        }
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        graphs.keySet().removeIf(event::affectsTasksOf);
+    }
+
+    int cachedUsers() {
+        return graphs.size();
+    }
+
+    private Graph graph(Long userId) {
+        Graph graph = graphs.get(userId);
+        if (graph != null) {
+            return graph;
+        }
+        if (graphs.size() >= maxCachedUsers) {
+            Iterator<Long> eldest = graphs.keySet().iterator();
+            if (eldest.hasNext()) {
+                graphs.remove(eldest.next());
+            }
+        }
+        return graphs.computeIfAbsent(userId, this::load);
+    }
+
+    private Graph load(Long userId) {
+        Graph graph = new Graph();
+        for (Object[] row : taskRepository.findGraphNodes(userId)) {
+            graph.status.put((Long) row[0], (TaskStatus) row[1]);
+            if (row[2] != null) {
+                graph.parent.put((Long) row[0], (Long) row[2]);
+            }
+        }
+        graph.parent.forEach((child, parent) -> {
+            if (graph.status.containsKey(parent)) {
+                graph.children.computeIfAbsent(parent, k -> new HashSet<>()).add(child);
+            }
+        });
+        for (TaskDependency dependency : dependencyRepository.findByUserId(userId)) {
+            if (graph.status.containsKey(dependency.getTaskId()) && graph.status.containsKey(dependency.getBlockedById())) {
+                graph.addBlocker(dependency.getTaskId(), dependency.getBlockedById());
+            }
+        }
+        log.debug("Loaded task graph for user {} with {} tasks", userId, graph.status.size());
+        return graph;
+    }
+
+    private void requireOwned(Long userId, List<Long> ids) {
+        if (taskRepository.countByUserIdAndIdIn(userId, ids) != ids.size()) {
+            throw new TaskNotFoundException("Task not found with id: " + ids);
+        }
+    }
+
+    private void requireNode(Graph graph, Long taskId) {
+        if (!graph.status.containsKey(taskId)) {
+            throw new TaskNotFoundException("Task not found with id: " + taskId);
+        }
+    }
+
+    // The cache is updated while the graph lock is held so concurrent inserts see each other's edges.
+    // If the transaction does not commit the change is reverted; if the graph was evicted and reloaded
+    // meanwhile, the reloaded copy may predate the commit and is dropped.
+    private void afterCompletion(Long userId, Graph graph, Runnable revert) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        revert.run();
+                    } else if (graphs.get(userId) != graph) {
+                        graphs.remove(userId);
+                    }
+                }
+            });
+        }
+    }
+
+    // Per-user adjacency: a task waits for its blockers and for its subtasks.
+    static final class Graph {
+        final Map<Long, TaskStatus> status = new HashMap<>();
+        final Map<Long, Long> parent = new HashMap<>();
+        final Map<Long, Set<Long>> children = new HashMap<>();
+        final Map<Long, Set<Long>> blockedBy = new HashMap<>();
+        final Map<Long, Set<Long>> blocks = new HashMap<>();
+
+        synchronized boolean isBlockedBy(Long taskId, Long blockerId) {
+            return blockedBy.getOrDefault(taskId, Set.of()).contains(blockerId);
+        }
+
+        synchronized void addBlocker(Long taskId, Long blockerId) {
+            blockedBy.computeIfAbsent(taskId, k -> new HashSet<>()).add(blockerId);
+            blocks.computeIfAbsent(blockerId, k -> new HashSet<>()).add(taskId);
+        }
+
+        synchronized void removeBlocker(Long taskId, Long blockerId) {
+            removeFrom(blockedBy, taskId, blockerId);
+            removeFrom(blocks, blockerId, taskId);
+        }
+
+        synchronized Long setParent(Long taskId, Long parentId) {
+            Long previous = parentId == null ? parent.remove(taskId) : parent.put(taskId, parentId);
+            if (previous != null) {
+                removeFrom(children, previous, taskId);
+            }
+            if (parentId != null) {
+                children.computeIfAbsent(parentId, k -> new HashSet<>()).add(taskId);
+            }
+            return previous;
+        }
+
+        synchronized void removeTask(Long taskId) {
+            status.remove(taskId);
+            for (Long blocker : blockedBy.getOrDefault(taskId, Set.of())) {
+                removeFrom(blocks, blocker, taskId);
+            }
+            for (Long blocked : blocks.getOrDefault(taskId, Set.of())) {
+                removeFrom(blockedBy, blocked, taskId);
+            }
+            blockedBy.remove(taskId);
+            blocks.remove(taskId);
+            for (Long child : children.getOrDefault(taskId, Set.of())) {
+                parent.remove(child);
+            }
+            children.remove(taskId);
+            Long previous = parent.remove(taskId);
+            if (previous != null) {
+                removeFrom(children, previous, taskId);
+            }
+        }
+
+        // True when "to" can be reached from "from" by following blocker and subtask edges.
+        synchronized boolean reaches(Long from, Long to) {
+            Deque<Long> pending = new ArrayDeque<>();
+            Set<Long> seen = new HashSet<>();
+            pending.push(from);
+            while (!pending.isEmpty()) {
+                Long current = pending.pop();
+                if (current.equals(to)) {
+                    return true;
+                }
+                if (seen.add(current)) {
+                    pending.addAll(blockedBy.getOrDefault(current, Set.of()));
+                    pending.addAll(children.getOrDefault(current, Set.of()));
+                }
+            }
+            return false;
+        }
+
+        List<Long> open(Set<Long> ids, Long assumeDone) {
+            if (ids == null) {
+                return List.of();
+            }
+            List<Long> open = new ArrayList<>();
+            for (Long id : ids) {
+                TaskStatus taskStatus = status.get(id);
+                if (!id.equals(assumeDone) && taskStatus != null && taskStatus != TaskStatus.DONE) {
+                    open.add(id);
+                }
+            }
+            open.sort(null);
+            return open;
+        }
+
+        private static void removeFrom(Map<Long, Set<Long>> edges, Long key, Long value) {
+            Set<Long> values = edges.get(key);
+            if (values != null) {
+                values.remove(value);
+                if (values.isEmpty()) {
+                    edges.remove(key);
+                }
+            }
+        }
+    }
+}
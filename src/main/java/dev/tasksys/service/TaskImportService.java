@@ -0,0 +1,440 @@
+package dev.tasksys.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tasksys.model.ImportDto;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceException;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.cache.spi.RegionFactory;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskImportService implements MeterBinder {
+
+    // Read from Task's generator so reserved ids follow Hibernate's pooled optimizer: a sequence value v owns ids
+    // v-(allocationSize-1)..v, except the initial value, which Hibernate's first caller takes as the start of its block.
+    static final SequenceGenerator TASK_SEQ = taskSequence();
+
+    private static final String COPY_SQL =
+            "COPY tasks (id, title, description, due_date, status, completed_at, user_id, version) FROM STDIN WITH (FORMAT csv)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final LongAdder importedRows = new LongAdder();
+
+    @Value("${tasks.import.chunk-size:5000}")
+    private int chunkSize;
+
+    @Value("${tasks.import.max-rejections:1000}")
+    private int maxRejections;
+
+    @Value("${tasks.import.copy-enabled:true}")
+    private boolean copyEnabled;
+
+    private boolean copySupported;
+
+    // Running imports by import number, their progress replaced after every chunk
+    private final Map<Long, RunningImport> running = new ConcurrentHashMap<>();
+    private final AtomicLong importNumbers = new AtomicLong();
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @PostConstruct
+    void detectCopySupport() {
+        copySupported = copyEnabled && Boolean.TRUE.equals(
+                jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> connection.isWrapperFor(PGConnection.class)));
+        log.info("Task import will use {}", copySupported ? "PostgreSQL COPY" : "batched inserts");
+    }
+
+    public List<ImportDto.Progress> getProgress() {
+        Long userId = getCurrentUser().getId();
+        return running.values().stream()
+                .filter(runningImport -> runningImport.userId().equals(userId))
+                .map(RunningImport::progress)
+                .toList();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("tasks.import.running", running, Map::size)
+                .description("Task imports in progress").register(registry);
+        FunctionCounter.builder("tasks.import.rows", importedRows, LongAdder::sum)
+                .description("Rows written by task imports").register(registry);
+    }
+
+    public ImportDto.Report importTasks(InputStream body, ImportDto.Format format) throws IOException {
+        User currentUser = getCurrentUser();
+        long number = importNumbers.incrementAndGet();
+        running.put(number, new RunningImport(currentUser.getId(),
+                new ImportDto.Progress(copySupported ? "COPY" : "BATCH", 0, 0, 0, 0)));
+        try {
+            return importTasks(number, currentUser, body, format);
+        } finally {
+            running.remove(number);
+        }
+    }
+
+    private ImportDto.Report importTasks(long number, User currentUser, InputStream body, ImportDto.Format format) throws IOException {
+        long started = System.nanoTime();
+        ImportDto.Report report = new ImportDto.Report();
+        report.setMethod(copySupported ? "COPY" : "BATCH");
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        try (RowSource rows = format == ImportDto.Format.CSV ? new CsvRowSource(reader) : new NdjsonRowSource(reader)) {
+            while (true) {
+                ParsedRow row;
+                try {
+                    row = rows.next();
+                } catch (IOException e) {
+                    reject(report, rows.row(), "Malformed input, remaining rows skipped: " + e.getMessage());
+                    break;
+                }
+                if (row == null) {
+                    break;
+                }
+                String rejection = row.error() != null ? row.error() : validate(row.task());
+                if (rejection != null) {
+                    reject(report, row.row(), rejection);
+                    continue;
+                }
+                chunk.add(row);
+                if (chunk.size() >= chunkSize) {
+                    writeChunk(number, currentUser.getId(), chunk, report, started);
+                }
+            }
+        }
+        writeChunk(number, currentUser.getId(), chunk, report, started);
+
+        report.setElapsedMs(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
+        log.info("Task import for user {} finished in {} ms: {} imported, {} rejected, {} failed",
+                currentUser.getId(), report.getElapsedMs(), report.getImported(), report.getRejected(), report.getFailed());
+        if (report.getImported() > 0) {
+            eventPublisher.publishEvent(TaskChangeEvent.bulkUpdated(currentUser.getId()));
+        }
+        return report;
+    }
+
+    private void writeChunk(long number, Long userId, List<ParsedRow> chunk, ImportDto.Report report, long started) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        try {
+            if (copySupported) {
+                copyChunk(userId, chunk);
+            } else {
+                insertChunk(userId, chunk);
+            }
+            report.setImported(report.getImported() + chunk.size());
+            importedRows.add(chunk.size());
+        } catch (DataAccessException | TransactionException | PersistenceException e) {
+            log.warn("Task import chunk of {} rows failed: {}", chunk.size(), e.getMessage());
+            report.setFailed(report.getFailed() + chunk.size());
+            addRejection(report, chunk.get(0).row(), "Rows " + chunk.get(0).row() + "-" + chunk.get(chunk.size() - 1).row()
+                    + " rolled back: " + NestedExceptionUtils.getMostSpecificCause(e).getMessage());
+        }
+        running.put(number, new RunningImport(userId, new ImportDto.Progress(report.getMethod(), report.getImported(),
+                report.getRejected(), report.getFailed(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started))));
+        chunk.clear();
+    }
+
+    private void copyChunk(Long userId, List<ParsedRow> chunk) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            long[] ids = reserveIds(connection, chunk.size());
+            // Rows imported as DONE count as completed now, as entity saves do
+            String completedAt = LocalDateTime.now().toString();
+            StringBuilder data = new StringBuilder(chunk.size() * 128);
+            for (int i = 0; i < chunk.size(); i++) {
+                TaskDto task = chunk.get(i).task();
+                data.append(ids[i]).append(',');
+                appendCsv(data, task.getTitle()).append(',');
+                appendCsv(data, task.getDescription()).append(',');
+                data.append(task.getDueDate()).append(',')
+                        .append(task.getStatus()).append(',')
+                        .append(TaskStatus.DONE.name().equals(task.getStatus()) ? completedAt : "").append(',')
+                        .append(userId).append(",0\n");
+            }
+            CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+            try {
+                return copyManager.copyIn(COPY_SQL, new StringReader(data.toString()));
+            } catch (IOException e) {
+                throw new SQLException("COPY into tasks failed", e);
+            }
+        }));
+        // COPY is invisible to Hibernate, so nothing it caches about tasks can be trusted to include the new rows
+        Cache cache = entityManager.getEntityManagerFactory().unwrap(SessionFactory.class).getCache();
+        cache.evictEntityData(Task.class);
+        cache.evictRegion(RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME);
+        cache.evictQueryRegions();
+    }
+
+    static long[] reserveIds(Connection connection, int count) throws SQLException {
+        int blockSize = TASK_SEQ.allocationSize();
+        long[] ids = new long[count];
+        int i = 0;
+        // The initial value yields a single id, so a first round may come up short and need another
+        for (int round = 0; i < count && round < 2; round++) {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "select nextval('" + TASK_SEQ.sequenceName() + "') from generate_series(1, ?)")) {
+                statement.setInt(1, (count - i + blockSize - 1) / blockSize);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    while (resultSet.next() && i < count) {
+                        long high = resultSet.getLong(1);
+                        long low = high == TASK_SEQ.initialValue() ? high : high - blockSize + 1;
+                        for (long id = low; id <= high && i < count; id++) {
+                            ids[i++] = id;
+                        }
+                    }
+                }
+            }
+        }
+        if (i < count) {
+            throw new SQLException("Could not reserve " + count + " task ids from " + TASK_SEQ.sequenceName());
+        }
+        return ids;
+    }
+
+    private static SequenceGenerator taskSequence() {
+        try {
+            return Task.class.getDeclaredField("id").getAnnotation(SequenceGenerator.class);
+        } catch (NoSuchFieldException e) {
+            throw new IllegalStateException("Task has no id field", e);
+        }
+    }
+
+    private void insertChunk(Long userId, List<ParsedRow> chunk) {
+        transactionTemplate.executeWithoutResult(status -> {
+            User user = entityManager.getReference(User.class, userId);
+            for (ParsedRow row : chunk) {
+                Task task = TaskService.convertToEntity(row.task());
+                task.setUser(user);
+                entityManager.persist(task);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+    }
+
+    private String validate(TaskDto dto) {
+        dto.setStatus(dto.getStatus() == null || dto.getStatus().isBlank()
+                ? TaskStatus.TO_DO.name() : dto.getStatus().trim().toUpperCase(Locale.ROOT));
+        Set<ConstraintViolation<TaskDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty()) {
+            return violations.stream()
+                    .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                    .sorted()
+                    .collect(Collectors.joining(", "));
+        }
+        if (dto.getDescription() != null && dto.getDescription().length() > 500) {
+            return "description: size must be at most 500";
+        }
+        try {
+            TaskStatus.valueOf(dto.getStatus());
+        } catch (IllegalArgumentException e) {
+            return "status: Unknown status " + dto.getStatus();
+        }
+        return null;
+    }
+
+    private void reject(ImportDto.Report report, long row, String error) {
+        report.setRejected(report.getRejected() + 1);
+        addRejection(report, row, error);
+    }
+
+    private void addRejection(ImportDto.Report report, long row, String error) {
+        if (report.getRejections().size() < maxRejections) {
+            report.getRejections().add(new ImportDto.Rejection(row, error));
+        } else {
+            report.setRejectionsTruncated(true);
+        }
+    }
+
+    private static StringBuilder appendCsv(StringBuilder out, String value) {
+        if (value == null) {
+            return out;
+        }
+        return out.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private record RunningImport(Long userId, ImportDto.Progress progress) {
+    }
+
+    private record ParsedRow(long row, TaskDto task, String error) {
+    }
+
+    private interface RowSource extends Closeable {
+        // Returns null at end of input; throws when the rest of the input cannot be parsed.
+        ParsedRow next() throws IOException;
+
+        long row();
+    }
+
+    private static final class CsvRowSource implements RowSource {
+        private final TaskCsvReader csv;
+        private int title = -1;
+        private int description = -1;
+        private int dueDate = -1;
+        private int status = -1;
+        private long row;
+
+        CsvRowSource(BufferedReader reader) throws IOException {
+            csv = new TaskCsvReader(reader);
+            List<String> header = csv.readRecord();
+            if (header == null) {
+                throw new IllegalArgumentException("CSV import requires a header row");
+            }
+            for (int i = 0; i < header.size(); i++) {
+                String name = header.get(i).replace("\uFEFF", "").trim().replace("_", "").replace(" ", "").toLowerCase(Locale.ROOT);
+                switch (name) {
+                    case "title" -> title = i;
+                    case "description" -> description = i;
+                    case "duedate" -> dueDate = i;
+                    case "status" -> status = i;
+                    default -> {
+                    }
+                }
+            }
+            if (title < 0 || dueDate < 0) {
+                throw new IllegalArgumentException("CSV header must contain title and dueDate columns");
+            }
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            List<String> fields = csv.readRecord();
+            if (fields == null) {
+                return null;
+            }
+            row = csv.recordLine();
+            TaskDto task = new TaskDto();
+            task.setTitle(field(fields, title));
+            task.setDescription(field(fields, description));
+            task.setStatus(field(fields, status));
+            String due = field(fields, dueDate);
+            if (due != null) {
+                try {
+                    task.setDueDate(LocalDate.parse(due.trim()));
+                } catch (DateTimeParseException e) {
+                    return new ParsedRow(row, null, "dueDate: Invalid date " + due);
+                }
+            }
+            return new ParsedRow(row, task, null);
+        }
+
+        @Override
+        public long row() {
+            return row;
+        }
+
+        private static String field(List<String> fields, int index) {
+            if (index < 0 || index >= fields.size() || fields.get(index).isEmpty()) {
+                return null;
+            }
+            return fields.get(index);
+        }
+
+        @Override
+        public void close() throws IOException {
+            csv.close();
+        }
+    }
+
+    private final class NdjsonRowSource implements RowSource {
+        private final BufferedReader reader;
+        private long row;
+
+        NdjsonRowSource(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public ParsedRow next() throws IOException {
+            String line;
+            do {
+                line = reader.readLine();
+                row++;
+                if (line == null) {
+                    return null;
+                }
+            } while (line.isBlank());
+            try {
+                return new ParsedRow(row, objectMapper.readValue(line, TaskDto.class), null);
+            } catch (JsonProcessingException e) {
+                return new ParsedRow(row, null, "Malformed task: " + e.getOriginalMessage());
+            }
+        }
+
+        @Override
+        public long row() {
+            return row;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+// Encoded task list responses per user and view, evicted whenever one of the user's tasks changes.
+@Service
+public class TaskListResponseCache implements MeterBinder {
+
+    public record Entry(byte[] body, String etag) {
+    }
+
+    // Identifies the cache state a response was rendered against; a fill is dropped once the user has been evicted since.
+    public record Ticket(Long userId, Object owner) {
+    }
+
+    private static final class UserEntries {
+        private final Map<String, Entry> views = new HashMap<>(4);
+        private long bytes;
+    }
+
+    @Value("${tasks.list-cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${tasks.list-cache.max-bytes:67108864}")
+    private long maxBytes;
+
+    @Value("${tasks.list-cache.max-entry-bytes:1048576}")
+    private int maxEntryBytes;
+
+    @Value("${tasks.list-cache.max-users:10000}")
+    private int maxUsers;
+
+    private final LinkedHashMap<Long, UserEntries> users = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalBytes;
+    private long totalEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public Entry get(Long userId, String view) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+        Entry entry;
+        synchronized (users) {
+            UserEntries entries = users.get(userId);
+            entry = entries == null ? null : entries.views.get(view);
+        }
+        (entry == null ? misses : hits).increment();
+        return entry;
+    }
+
+    // Must be taken before the task list is read, so that a write committed in between invalidates the fill.
+    public Ticket begin(Long userId) {
+        if (!enabled || userId == null) {
+            return null;
+        }
+        synchronized (users) {
+            UserEntries entries = users.computeIfAbsent(userId, id -> new UserEntries());
+            trim();
+            return new Ticket(userId, entries);
+        }
+    }
+
+    public void put(Ticket ticket, String view, Entry entry) {
+        if (ticket == null || entry.body().length > maxEntryBytes) {
+            return;
+        }
+        synchronized (users) {
+            UserEntries entries = users.get(ticket.userId());
+            if (entries == null || entries != ticket.owner()) {
+                return;
+            }
+            Entry previous = entries.views.put(view, entry);
+            long delta = entry.body().length - (previous == null ? 0 : previous.body().length);
+            entries.bytes += delta;
+            totalBytes += delta;
+            if (previous == null) {
+                totalEntries++;
+            }
+            trim();
+        }
+    }
+
+    public void evict(Long userId) {
+        synchronized (users) {
+            UserEntries entries = users.remove(userId);
+            if (entries != null) {
+                release(entries);
+                invalidations.increment();
+            }
+        }
+    }
+
+    // After commit, so a reader cannot re-fill the cache from the pre-write snapshot once the entry is gone.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChange(TaskChangeEvent event) {
+        evict(event.getUserId());
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        if (event.isEverything()) {
+            synchronized (users) {
+                invalidations.add(users.size());
+                users.clear();
+                totalBytes = 0;
+                totalEntries = 0;
+            }
+        } else {
+            event.getTaskOwnerIds().forEach(this::evict);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("tasks.list.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").description("Task list requests served from the response cache").register(registry);
+        FunctionCounter.builder("tasks.list.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").description("Task list requests rendered from the database").register(registry);
+        FunctionCounter.builder("tasks.list.cache.evictions", evictions, LongAdder::sum)
+                .description("Entries dropped to stay within the cache bounds").register(registry);
+        FunctionCounter.builder("tasks.list.cache.invalidations", invalidations, LongAdder::sum)
+                .description("Users evicted because one of their tasks changed").register(registry);
+        Gauge.builder("tasks.list.cache.hit.ratio", this, TaskListResponseCache::hitRatio).register(registry);
+        Gauge.builder("tasks.list.cache.size", this, TaskListResponseCache::sizeInBytes)
+                .baseUnit("bytes").description("Encoded response bytes held by the cache").register(registry);
+        Gauge.builder("tasks.list.cache.entries", this, TaskListResponseCache::entries).register(registry);
+    }
+
+    double hitRatio() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0.0 : (double) hit / total;
+    }
+
+    long sizeInBytes() {
+        synchronized (users) {
+            return totalBytes;
+        }
+    }
+
+    long entries() {
+        synchronized (users) {
+            return totalEntries;
+        }
+    }
+
+    private void trim() {
+        Iterator<UserEntries> eldest = users.values().iterator();
+        while ((totalBytes > maxBytes || users.size() > maxUsers) && eldest.hasNext()) {
+            UserEntries entries = eldest.next();
+            eldest.remove();
+            if (!entries.views.isEmpty()) {
+                evictions.add(entries.views.size());
+            }
+            release(entries);
+        }
+    }
+
+    private void release(UserEntries entries) {
+        totalBytes -= entries.bytes;
+        totalEntries -= entries.views.size();
+    }
+}
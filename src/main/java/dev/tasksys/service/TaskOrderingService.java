@@ -0,0 +1,219 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskMoveDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import jakarta.persistence.Cache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskOrderingService {
+
+    private final TaskRepository taskRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final EntityManagerFactory entityManagerFactory;
+    private final ShardRouter shardRouter;
+
+    @Value("${tasks.ordering.rebalance-length:16}")
+    private int rebalanceLength;
+
+    @Value("${tasks.ordering.rebalance-columns:100}")
+    private int rebalanceColumns;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @Transactional
+    public Long moveTask(Long id, TaskMoveDto move, Long expectedVersion) {
+        User currentUser = getCurrentUser();
+        List<Long> ids = Stream.of(id, move.getAfterId(), move.getBeforeId()).filter(Objects::nonNull).distinct().toList();
+        Map<Long, TaskRepository.PositionView> positions = loadPositions(currentUser.getId(), ids);
+
+        TaskRepository.PositionView task = positions.get(id);
+        if (task == null) {
+            throw new TaskNotFoundException("Task not found with id: " + id);
+        }
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new TaskVersionMismatchException("Task " + id + " has been modified (current version "
+                    + task.getVersion() + ", expected " + expectedVersion + ")");
+        }
+        TaskStatus status = move.getStatus() == null ? task.getStatus() : parseStatus(move.getStatus());
+
+        String position = positionBetween(currentUser.getId(), id, status, move, positions);
+        if (position == null) {
+            rebalanceColumn(currentUser.getId(), status);
+            positions = loadPositions(currentUser.getId(), ids);
+            task = positions.get(id);
+            position = positionBetween(currentUser.getId(), id, status, move, positions);
+        }
+
+        Long version = expectedVersion == null ? null : task.getVersion();
+        if (taskRepository.move(id, currentUser.getId(), version, position, status) == 0) {
+            throw new TaskVersionMismatchException("Task " + id + " has been modified concurrently");
+        }
+        eventPublisher.publishEvent(TaskChangeEvent.patched(currentUser.getId(), id));
+        return version == null ? null : version + 1;
+    }
+
+    @Scheduled(initialDelayString = "${tasks.ordering.rebalance-initial-delay-ms:30000}",
+            fixedDelayString = "${tasks.ordering.rebalance-interval-ms:300000}")
+    public void rebalance() {
+        shardRouter.forEachShard(this::rebalanceColumns);
+    }
+
+    private void rebalanceColumns() {
+        Set<Column> columns = new LinkedHashSet<>();
+        taskRepository.findColumnsWithUnbalancedPositions(rebalanceLength, Limit.of(rebalanceColumns))
+                .forEach(row -> columns.add(new Column((Long) row[0], (TaskStatus) row[1])));
+        taskRepository.findColumnsWithDuplicatePositions(Limit.of(rebalanceColumns))
+                .forEach(row -> columns.add(new Column((Long) row[0], (TaskStatus) row[1])));
+
+        for (Column column : columns) {
+            if (shardRouter.isMoving(column.userId())) {
+                continue;
+            }
+            try {
+                Integer rewritten = transactionTemplate.execute(status -> rebalanceColumn(column.userId(), column.status()));
+                if (rewritten != null && rewritten > 0) {
+                    log.debug("Rebalanced {} task positions for user {} in {}", rewritten, column.userId(), column.status());
+                    eventPublisher.publishEvent(TaskChangeEvent.bulkUpdated(column.userId()));
+                }
+            } catch (DataAccessException e) {
+                log.warn("Rebalancing task positions for user {} in {} failed: {}", column.userId(), column.status(), e.getMessage());
+            }
+        }
+    }
+
+    // Rewrites the keys of one column with evenly spaced ones, skipping rows that changed since they were read.
+    // The position is part of the task's representation, so each rewritten row gets a new version and entity tag.
+    int rebalanceColumn(Long userId, TaskStatus status) {
+        List<TaskRepository.PositionView> column = taskRepository.findPositionsInBoardOrder(userId, status);
+        List<String> keys = FractionalIndex.spread(column.size());
+        List<Object[]> updates = new ArrayList<>();
+        for (int i = 0; i < column.size(); i++) {
+            TaskRepository.PositionView task = column.get(i);
+            if (!keys.get(i).equals(task.getPosition())) {
+                updates.add(new Object[]{keys.get(i), task.getId(), task.getVersion()});
+            }
+        }
+        if (!updates.isEmpty()) {
+            jdbcTemplate.batchUpdate("update tasks set board_position = ?, version = version + 1 where id = ? and version = ?", updates);
+            evictFromSecondLevelCache(updates.stream().map(update -> (Long) update[1]).toList());
+        }
+        return updates.size();
+    }
+
+    // Plain JDBC bypasses Hibernate, so rewritten rows are evicted by hand, again once the transaction has ended.
+    private void evictFromSecondLevelCache(List<Long> ids) {
+        Cache cache = entityManagerFactory.getCache();
+        ids.forEach(id -> cache.evict(Task.class, id));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    ids.forEach(id -> cache.evict(Task.class, id));
+                }
+            });
+        }
+    }
+
+    // Returns null when the target column has to be rebalanced before a key can be placed.
+    private String positionBetween(Long userId, Long id, TaskStatus status, TaskMoveDto move,
+                                   Map<Long, TaskRepository.PositionView> positions) {
+        TaskRepository.PositionView after = neighbour(id, move.getAfterId(), status, positions);
+        TaskRepository.PositionView before = neighbour(id, move.getBeforeId(), status, positions);
+        String afterPosition;
+        if (after == null && before == null) {
+            afterPosition = taskRepository.findLastPosition(userId, status).orElse(null);
+        } else {
+            afterPosition = after == null ? null : after.getPosition();
+        }
+        String beforePosition = before == null ? null : before.getPosition();
+
+        if ((after != null && afterPosition == null) || (before != null && beforePosition == null)) {
+            return null;
+        }
+        if (afterPosition != null && beforePosition != null) {
+            int order = afterPosition.compareTo(beforePosition);
+            if (order == 0) {
+                return null;
+            }
+            if (order > 0) {
+                throw new IllegalArgumentException("Task " + move.getAfterId() + " is ordered after task " + move.getBeforeId());
+            }
+        }
+        String position = FractionalIndex.between(afterPosition, beforePosition);
+        return position.length() > FractionalIndex.MAX_LENGTH ? null : position;
+    }
+
+    private TaskRepository.PositionView neighbour(Long id, Long neighbourId, TaskStatus status,
+                                                  Map<Long, TaskRepository.PositionView> positions) {
+        if (neighbourId == null) {
+            return null;
+        }
+        if (neighbourId.equals(id)) {
+            throw new IllegalArgumentException("A task cannot be moved next to itself");
+        }
+        TaskRepository.PositionView neighbour = positions.get(neighbourId);
+        if (neighbour == null) {
+            throw new TaskNotFoundException("Task not found with id: " + neighbourId);
+        }
+        if (neighbour.getStatus() != status) {
+            throw new IllegalArgumentException("Task " + neighbourId + " is not in status " + status);
+        }
+        return neighbour;
+    }
+
+    private Map<Long, TaskRepository.PositionView> loadPositions(Long userId, List<Long> ids) {
+        return taskRepository.findPositions(userId, ids).stream()
+                .collect(Collectors.toMap(TaskRepository.PositionView::getId, Function.identity()));
+    }
+
+    private TaskStatus parseStatus(String status) {
+        try {
+            return TaskStatus.valueOf(status.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown status " + status);
+        }
+    }
+
+    private record Column(Long userId, TaskStatus status) {
+    }
+}
@@ -0,0 +1,174 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.model.RecurrenceDto;
+import dev.tasksys.model.RecurrenceFrequency;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskPatchDto;
+import dev.tasksys.model.TaskRecurrence;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRecurrenceRepository;
+import dev.tasksys.repository.TaskRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class TaskRecurrenceService {
+    private final TaskRecurrenceRepository recurrenceRepository;
+    private final TaskRepository taskRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${tasks.recurrence.max-window-days:366}")
+    private int maxWindowDays;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    public RecurrenceDto createRecurrence(RecurrenceDto recurrenceDto) {
+        User currentUser = getCurrentUser();
+        TaskRecurrence recurrence = new TaskRecurrence();
+        apply(recurrence, recurrenceDto);
+        recurrence.setUser(currentUser);
+        return convertToDto(recurrenceRepository.save(recurrence));
+    }
+
+    public List<RecurrenceDto> getAllRecurrences() {
+        User currentUser = getCurrentUser();
+        return recurrenceRepository.findByUserIdOrderByIdAsc(currentUser.getId()).stream()
+                .map(TaskRecurrenceService::convertToDto)
+                .toList();
+    }
+
+    public RecurrenceDto getRecurrenceById(Long id) {
+        return convertToDto(findRecurrence(id, getCurrentUser()));
+    }
+
+    @Transactional
+    public void deleteRecurrence(Long id) {
+        TaskRecurrence recurrence = findRecurrence(id, getCurrentUser());
+        taskRepository.detachFromRecurrence(recurrence.getId());
+        recurrenceRepository.delete(recurrence);
+    }
+
+    // Real tasks due in the window plus the computed occurrences that have not been materialized yet.
+    @Transactional(readOnly = true)
+    public List<TaskDto> getTasksDueBetween(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("'to' must not be before 'from'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= maxWindowDays) {
+            throw new IllegalArgumentException("Date range must not exceed " + maxWindowDays + " days");
+        }
+        User currentUser = getCurrentUser();
+        List<TaskDto> due = new ArrayList<>(taskRepository.findByUserIdAndDueDateBetweenOrderByDueDateAscIdAsc(currentUser.getId(), from, to)
+                .stream()
+                .map(TaskService::convertToDto)
+                .toList());
+
+        List<TaskRecurrence> recurrences = recurrenceRepository.findActiveBetween(currentUser.getId(), from, to);
+        if (!recurrences.isEmpty()) {
+            Set<String> materialized = new HashSet<>();
+            taskRepository.findMaterializedOccurrences(recurrences.stream().map(TaskRecurrence::getId).toList(), from, to)
+                    .forEach(row -> materialized.add(row[0] + ":" + row[1]));
+            for (TaskRecurrence recurrence : recurrences) {
+                for (LocalDate date : RecurrenceRule.occurrences(recurrence, from, to)) {
+                    if (!materialized.contains(recurrence.getId() + ":" + date)) {
+                        due.add(occurrenceDto(recurrence, date));
+                    }
+                }
+            }
+            due.sort(Comparator.comparing(TaskDto::getDueDate)
+                    .thenComparing(TaskDto::getId, Comparator.nullsLast(Comparator.naturalOrder())));
+        }
+        return due;
+    }
+
+    // Materializes the occurrence on first change; later changes go to the same task row.
+    @Transactional
+    public TaskDto updateOccurrence(Long recurrenceId, LocalDate date, TaskPatchDto patch) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch must change at least one field");
+        }
+        User currentUser = getCurrentUser();
+        TaskRecurrence recurrence = findRecurrence(recurrenceId, currentUser);
+        if (!RecurrenceRule.occursOn(recurrence, date)) {
+            throw new TaskNotFoundException("Recurrence " + recurrenceId + " has no occurrence on " + date);
+        }
+
+        Task task = taskRepository.findByRecurrenceIdAndOccurrenceDate(recurrenceId, date).orElse(null);
+        boolean created = task == null;
+        if (created) {
+            task = new Task(recurrence.getTitle(), recurrence.getDescription(), date, recurrence.getStatus(), currentUser);
+            task.setRecurrence(recurrence);
+            task.setOccurrenceDate(date);
+        }
+        if (patch.getTitle() != null) {
+            task.setTitle(patch.getTitle());
+        }
+        if (patch.getDescription() != null) {
+            task.setDescription(patch.getDescription());
+        }
+        if (patch.getDueDate() != null) {
+            task.setDueDate(patch.getDueDate());
+        }
+        if (patch.getStatus() != null) {
+            task.setStatus(TaskStatus.valueOf(patch.getStatus().toUpperCase()));
+        }
+
+        TaskDto saved = TaskService.convertToDto(taskRepository.saveAndFlush(task));
+        eventPublisher.publishEvent(created
+                ? TaskChangeEvent.created(currentUser.getId(), saved)
+                : TaskChangeEvent.updated(currentUser.getId(), saved));
+        return saved;
+    }
+
+    private TaskRecurrence findRecurrence(Long id, User currentUser) {
+        return recurrenceRepository.findByIdAndUserId(id, currentUser.getId())
+                .orElseThrow(() -> new TaskNotFoundException("Recurrence not found with id: " + id));
+    }
+
+    private static void apply(TaskRecurrence recurrence, RecurrenceDto dto) {
+        if (dto.getUntilDate() != null && dto.getUntilDate().isBefore(dto.getStartDate())) {
+            throw new IllegalArgumentException("untilDate must not be before startDate");
+        }
+        recurrence.setTitle(dto.getTitle());
+        recurrence.setDescription(dto.getDescription());
+        recurrence.setStatus(dto.getStatus() == null ? TaskStatus.TO_DO : TaskStatus.valueOf(dto.getStatus().toUpperCase()));
+        recurrence.setFrequency(RecurrenceFrequency.valueOf(dto.getFrequency().toUpperCase()));
+        recurrence.setInterval(dto.getInterval());
+        recurrence.setStartDate(dto.getStartDate());
+        recurrence.setUntilDate(dto.getUntilDate());
+    }
+
+    private static TaskDto occurrenceDto(TaskRecurrence recurrence, LocalDate date) {
+        TaskDto dto = new TaskDto(recurrence.getTitle(), recurrence.getDescription(), date, recurrence.getStatus().name());
+        dto.setRecurrenceId(recurrence.getId());
+        dto.setOccurrenceDate(date);
+        return dto;
+    }
+
+    static RecurrenceDto convertToDto(TaskRecurrence recurrence) {
+        return new RecurrenceDto(recurrence.getId(), recurrence.getTitle(), recurrence.getDescription(),
+                recurrence.getStatus().name(), recurrence.getFrequency().name(), recurrence.getInterval(),
+                recurrence.getStartDate(), recurrence.getUntilDate(), recurrence.getVersion());
+    }
+}
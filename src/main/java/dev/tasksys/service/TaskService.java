@@ -1,90 +1,239 @@
 package dev.tasksys.service;
 
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
 import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskPatchDto;
 import dev.tasksys.model.Task;
 import dev.tasksys.model.TaskStatus;
 import dev.tasksys.model.User;
 import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
 import dev.tasksys.repository.TaskRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.PersistenceException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Profile;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
+@Profile("!jdbc")
 @RequiredArgsConstructor
 public class TaskService {
     private final TaskRepository taskRepository;
+    protected final TaskBodyService taskBodyService;
+    protected final ApplicationEventPublisher eventPublisher;
+    private final EntityManager entityManager;
 
-    private User getCurrentUser() {
+    private record ReadKey(Long userId, String query) {
+    }
+
+    private final SingleFlight<ReadKey, Object> reads = new SingleFlight<>();
+
+    protected User getCurrentUser() {
         Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
         return (User) authentication.getPrincipal();
     }
 
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
     public TaskDto createTask(TaskDto taskDto) {
         User currentUser = getCurrentUser();
         Task task = convertToEntity(taskDto);
         task.setUser(currentUser);
+        task.setPosition(taskRepository.findLastPosition(currentUser.getId(), task.getStatus())
+                .map(last -> FractionalIndex.between(last, null))
+                .filter(position -> position.length() <= FractionalIndex.MAX_LENGTH)
+                .orElse(null));
+        if (taskDto.getBody() != null && !taskDto.getBody().isEmpty()) {
+            task.setBodyPreview(TaskBodyService.preview(taskDto.getBody()));
+        }
         Task savedTask = taskRepository.save(task);
-        return convertToDto(savedTask);
+        if (task.getBodyPreview() != null) {
+            taskBodyService.write(savedTask.getId(), currentUser.getId(), taskDto.getBody());
+        }
+        TaskDto createdTask = convertToDto(savedTask);
+        eventPublisher.publishEvent(TaskChangeEvent.created(currentUser.getId(), createdTask));
+        return createdTask;
     }
 
+    // Stored tasks only: computed occurrences of recurring tasks have no end, getTasksDue lists them for a window
     public List<TaskDto> getAllTasks() {
         User currentUser = getCurrentUser();
-        return taskRepository.findByUserId(currentUser.getId()).stream()
-                .map(this::convertToDto)
-                .toList();
+        return coalesce(currentUser.getId(), "all", () -> taskRepository.findByUserId(currentUser.getId()).stream()
+                .map(TaskService::convertToDto)
+                .toList());
     }
 
     public TaskDto getTaskById(Long id) {
         User currentUser = getCurrentUser();
-        Task task = taskRepository.findByIdAndUserId(id, currentUser.getId())
-                .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
-        return convertToDto(task);
+        return coalesce(currentUser.getId(), "id:" + id, () -> {
+            Task task = taskRepository.findByIdAndUserId(id, currentUser.getId())
+                    .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+            TaskDto dto = convertToDto(task);
+            if (task.getBodyPreview() != null) {
+                dto.setBody(taskBodyService.read(id).orElse(null));
+            }
+            return dto;
+        });
     }
 
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
     public TaskDto updateTask(Long id, TaskDto taskDto) {
+        return updateTask(id, taskDto, null);
+    }
+
+    // A missing body leaves the stored one untouched; an empty body removes it.
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
+    public TaskDto updateTask(Long id, TaskDto taskDto, Long expectedVersion) {
         User currentUser = getCurrentUser();
         Task existingTask = taskRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+        checkVersion(existingTask, expectedVersion);
+        Long readVersion = existingTask.getVersion();
 
         existingTask.setTitle(taskDto.getTitle());
         existingTask.setDescription(taskDto.getDescription());
         existingTask.setDueDate(taskDto.getDueDate());
         existingTask.setStatus(TaskStatus.valueOf(taskDto.getStatus()));
+        if (taskDto.getBody() != null) {
+            existingTask.setBodyPreview(taskDto.getBody().isEmpty() ? null : TaskBodyService.preview(taskDto.getBody()));
+        }
 
         Task updatedTask = taskRepository.save(existingTask);
-        return convertToDto(updatedTask);
+        if (taskDto.getBody() != null) {
+            forceNewVersion(updatedTask, readVersion);
+            taskBodyService.write(id, currentUser.getId(), taskDto.getBody());
+        }
+        TaskDto result = convertToDto(updatedTask);
+        eventPublisher.publishEvent(TaskChangeEvent.updated(currentUser.getId(), result));
+        return result;
+    }
+
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class, IllegalArgumentException.class})
+    public Long patchTask(Long id, TaskPatchDto patch, Long expectedVersion) {
+        if (patch.isEmpty()) {
+            throw new IllegalArgumentException("Patch must change at least one field");
+        }
+        User currentUser = getCurrentUser();
+        TaskStatus status = patch.getStatus() == null ? null : TaskStatus.valueOf(patch.getStatus().toUpperCase());
+
+        int updated = taskRepository.patch(id, currentUser.getId(), expectedVersion, patch.getTitle(),
+                patch.getDescription(), patch.getDueDate(), status);
+        if (updated == 0) {
+            if (expectedVersion != null && taskRepository.existsByIdAndUserId(id, currentUser.getId())) {
+                throw new TaskVersionMismatchException("Task " + id + " has been modified (expected version "
+                        + expectedVersion + ")");
+            }
+            throw new TaskNotFoundException("Task not found with id: " + id);
+        }
+        if (patch.getBody() != null) {
+            taskRepository.updateBodyPreview(id, currentUser.getId(), taskBodyService.write(id, currentUser.getId(), patch.getBody()));
+        }
+        eventPublisher.publishEvent(TaskChangeEvent.patched(currentUser.getId(), id));
+        return expectedVersion == null ? null : expectedVersion + 1;
     }
 
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class})
     public void deleteTask(Long id) {
+        deleteTask(id, null);
+    }
+
+    @Transactional(noRollbackFor = {TaskNotFoundException.class, TaskVersionMismatchException.class})
+    public void deleteTask(Long id, Long expectedVersion) {
         User currentUser = getCurrentUser();
         Task task = taskRepository.findByIdAndUserId(id, currentUser.getId())
                 .orElseThrow(() -> new TaskNotFoundException("Task not found with id: " + id));
+        checkVersion(task, expectedVersion);
+        taskRepository.deleteDependenciesOf(id);
+        taskRepository.clearParent(currentUser.getId(), id);
         taskRepository.delete(task);
+        eventPublisher.publishEvent(TaskChangeEvent.deleted(currentUser.getId(), id));
     }
 
     public List<TaskDto> getTasksByStatus(String status) {
         User currentUser = getCurrentUser();
         TaskStatus taskStatus = TaskStatus.valueOf(status);
-        return taskRepository.findByUserIdAndStatus(currentUser.getId(), taskStatus).stream()
-                .map(this::convertToDto)
-                .toList();
+        return coalesce(currentUser.getId(), "status:" + taskStatus, () -> taskRepository.findByUserIdAndStatusInBoardOrder(currentUser.getId(), taskStatus).stream()
+                .map(TaskService::convertToDto)
+                .toList());
+    }
+
+    // A write forgets the user's running reads, so nobody who saw the write succeed joins a read started before it.
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTaskChange(TaskChangeEvent event) {
+        reads.forget(key -> key.userId().equals(event.getUserId()));
+    }
+
+    @EventListener
+    public void onCacheInvalidation(CacheInvalidationEvent event) {
+        reads.forget(key -> event.affectsTasksOf(key.userId()));
+    }
+
+    // Identical concurrent reads of one user share a single query; results are shared, so they must not be mutated.
+    // Reads inside a transaction run on their own, as they may need to see that transaction's uncommitted writes.
+    @SuppressWarnings("unchecked")
+    <T> T coalesce(Long userId, String query, Supplier<T> loader) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return loader.get();
+        }
+        return (T) reads.execute(new ReadKey(userId, query), loader::get);
+    }
+
+    // The body lives in its own table, so a change to it alone leaves the task row clean and Hibernate would keep the
+    // version, and with it the entity tag. The row is flushed first; if that did not move the version, it is moved
+    // here, again only from the version that was read.
+    private void forceNewVersion(Task task, Long readVersion) {
+        try {
+            entityManager.flush();
+            if (readVersion.equals(task.getVersion())) {
+                entityManager.lock(task, LockModeType.PESSIMISTIC_FORCE_INCREMENT);
+            }
+        } catch (PersistenceException e) {
+            DataAccessException translated = EntityManagerFactoryUtils.convertJpaAccessExceptionIfPossible(e);
+            throw translated != null ? translated : e;
+        }
+    }
+
+    private void checkVersion(Task task, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(task.getVersion())) {
+            throw new TaskVersionMismatchException("Task " + task.getId() + " has been modified (current version "
+                    + task.getVersion() + ", expected " + expectedVersion + ")");
+        }
     }
 
-    private TaskDto convertToDto(Task task) {
+    static TaskDto convertToDto(Task task) {
         TaskDto dto = new TaskDto();
         dto.setId(task.getId());
         dto.setTitle(task.getTitle());
         dto.setDescription(task.getDescription());
+        dto.setBodyPreview(task.getBodyPreview());
         dto.setDueDate(task.getDueDate());
         dto.setStatus(task.getStatus().name());
+        dto.setVersion(task.getVersion());
+        dto.setPosition(task.getPosition());
+        dto.setParentId(task.getParentId());
+        dto.setAssigneeId(task.getAssigneeId());
+        if (task.getRecurrence() != null) {
+            dto.setRecurrenceId(task.getRecurrence().getId());
+            dto.setOccurrenceDate(task.getOccurrenceDate());
+        }
         return dto;
     }
 
-    private Task convertToEntity(TaskDto dto) {
+    static Task convertToEntity(TaskDto dto) {
         Task task = new Task();
         task.setTitle(dto.getTitle());
         task.setDescription(dto.getDescription());
@@ -0,0 +1,235 @@
+package dev.tasksys.service;
+
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.WriteQueueFullException;
+import dev.tasksys.model.AsyncTaskDto;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.User;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TaskWriteBehindService {
+
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ShardRouter shardRouter;
+
+    @Value("${tasks.write-behind.queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${tasks.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${tasks.write-behind.flush-interval-ms:50}")
+    private long flushIntervalMs;
+
+    @Value("${tasks.write-behind.status-retention:100000}")
+    private int statusRetention;
+
+    private final Map<String, AsyncTaskDto.Status> statuses = new ConcurrentHashMap<>();
+    private final Queue<String> statusOrder = new ConcurrentLinkedQueue<>();
+    private BlockingQueue<PendingCreate> queue;
+    private Thread writer;
+    private volatile boolean running;
+
+    private User getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return (User) authentication.getPrincipal();
+    }
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        running = true;
+        writer = Thread.ofPlatform().name("task-write-behind").daemon().start(this::runWriter);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        writer.interrupt();
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    public AsyncTaskDto.Status accept(TaskDto taskDto, String idempotencyKey) {
+        User currentUser = getCurrentUser();
+        String key = idempotencyKey == null || idempotencyKey.isBlank() ? UUID.randomUUID().toString() : idempotencyKey;
+        String statusKey = statusKey(currentUser.getId(), key);
+
+        TaskService.convertToEntity(taskDto);
+        AsyncTaskDto.Status pending = new AsyncTaskDto.Status(key, AsyncTaskDto.State.PENDING, null, null);
+        AsyncTaskDto.Status existing = statuses.putIfAbsent(statusKey, pending);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (!queue.offer(new PendingCreate(statusKey, currentUser.getId(), taskDto))) {
+            statuses.remove(statusKey);
+            throw new WriteQueueFullException("Write-behind queue is full, retry later");
+        }
+        statusOrder.add(statusKey);
+        trimStatuses();
+        return pending;
+    }
+
+    public AsyncTaskDto.Status getStatus(String idempotencyKey) {
+        User currentUser = getCurrentUser();
+        AsyncTaskDto.Status status = statuses.get(statusKey(currentUser.getId(), idempotencyKey));
+        if (status == null) {
+            throw new TaskNotFoundException("No asynchronous create found for key: " + idempotencyKey);
+        }
+        return status;
+    }
+
+    int pendingCount() {
+        return queue.size();
+    }
+
+    private void runWriter() {
+        List<PendingCreate> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                collectBatch(batch);
+            } catch (InterruptedException e) {
+                queue.drainTo(batch, batchSize - batch.size());
+            }
+            if (!batch.isEmpty()) {
+                // One transaction per shard, as a transaction cannot span databases. Any failure to place or write
+                // the creates fails them and not the writer, which would otherwise leave every later one pending.
+                try {
+                    Map<Boolean, List<PendingCreate>> moving = batch.stream()
+                            .collect(Collectors.partitioningBy(pending -> shardRouter.isMoving(pending.userId())));
+                    fail(moving.get(true), new IllegalStateException("Tasks are being moved, retry in a moment"));
+                    shardRouter.groupByShard(moving.get(false), PendingCreate::userId).forEach((shard, group) -> {
+                        try {
+                            shardRouter.onShard(shard, () -> {
+                                writeBatch(group);
+                                return null;
+                            });
+                        } catch (RuntimeException e) {
+                            log.warn("Write-behind batch of {} tasks for {} failed: {}", group.size(), shard, e.getMessage());
+                            fail(group, e);
+                        }
+                    });
+                } catch (RuntimeException e) {
+                    log.warn("Write-behind batch of {} tasks could not be placed on shards: {}", batch.size(), e.getMessage());
+                    fail(batch, e);
+                }
+                batch.clear();
+            }
+        }
+    }
+
+    private void collectBatch(List<PendingCreate> batch) throws InterruptedException {
+        PendingCreate first = queue.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(flushIntervalMs);
+        while (batch.size() < batchSize) {
+            queue.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                break;
+            }
+            PendingCreate next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                break;
+            }
+            batch.add(next);
+        }
+    }
+
+    private void writeBatch(List<PendingCreate> batch) {
+        shardRouter.requirePinned();
+        try {
+            persist(batch);
+        } catch (RuntimeException e) {
+            log.warn("Write-behind batch of {} tasks failed, retrying individually: {}", batch.size(), e.getMessage());
+            for (PendingCreate pending : batch) {
+                try {
+                    persist(List.of(pending));
+                } catch (RuntimeException itemFailure) {
+                    fail(List.of(pending), itemFailure);
+                }
+            }
+        }
+    }
+
+    // Creates of the batch that were persisted before the failure keep their status
+    private void fail(List<PendingCreate> batch, RuntimeException failure) {
+        String message = NestedExceptionUtils.getMostSpecificCause(failure).getMessage();
+        for (PendingCreate pending : batch) {
+            statuses.computeIfPresent(pending.statusKey(), (k, s) -> s.getState() != AsyncTaskDto.State.PENDING ? s
+                    : new AsyncTaskDto.Status(s.getIdempotencyKey(), AsyncTaskDto.State.FAILED, null, message));
+        }
+    }
+
+    private void persist(List<PendingCreate> batch) {
+        List<Task> tasks = new ArrayList<>(batch.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (PendingCreate pending : batch) {
+                Task task = TaskService.convertToEntity(pending.taskDto());
+                task.setUser(entityManager.getReference(User.class, pending.userId()));
+                entityManager.persist(task);
+                tasks.add(task);
+            }
+            entityManager.flush();
+            entityManager.clear();
+        });
+        for (int i = 0; i < batch.size(); i++) {
+            PendingCreate pending = batch.get(i);
+            Task task = tasks.get(i);
+            statuses.computeIfPresent(pending.statusKey(), (k, s) -> new AsyncTaskDto.Status(s.getIdempotencyKey(),
+                    AsyncTaskDto.State.PERSISTED, task.getId(), null));
+            eventPublisher.publishEvent(TaskChangeEvent.created(pending.userId(), TaskService.convertToDto(task)));
+        }
+    }
+
+    private void trimStatuses() {
+        while (statuses.size() > statusRetention) {
+            String oldest = statusOrder.poll();
+            if (oldest == null) {
+                return;
+            }
+            statuses.remove(oldest);
+        }
+    }
+
+    private static String statusKey(Long userId, String idempotencyKey) {
+        return userId + ":" + idempotencyKey;
+    }
+
+    private record PendingCreate(String statusKey, Long userId, TaskDto taskDto) {
+    }
+}
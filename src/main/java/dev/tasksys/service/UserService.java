@@ -1,5 +1,7 @@
 package dev.tasksys.service;
 
+import dev.tasksys.config.ReplicaRoutingDataSource;
+import dev.tasksys.config.ShardRouter;
 import dev.tasksys.model.User;
 import dev.tasksys.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
@@ -8,6 +10,9 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -15,18 +20,23 @@ public class UserService implements UserDetailsService {
 
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final InvalidationBus invalidationBus;
+    private final ShardRouter shardRouter;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        return userRepository.findByUsername(username)
+        return findUser(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
 
+    // The user's copy on their home shard is made once this commits, and a failed copy fails the registration.
+    // The duplicate checks read the primary, as a replica may not have replayed a registration made moments ago.
+    @Transactional
     public User createUser(String username, String email, String password) {
-        if (Boolean.TRUE.equals(userRepository.existsByUsername(username))) {
+        if (Boolean.TRUE.equals(ReplicaRoutingDataSource.onPrimary(() -> userRepository.existsByUsername(username)))) {
             throw new IllegalArgumentException("Username already exists");
         }
-        if (Boolean.TRUE.equals(userRepository.existsByEmail(email))) {
+        if (Boolean.TRUE.equals(ReplicaRoutingDataSource.onPrimary(() -> userRepository.existsByEmail(email)))) {
             throw new IllegalArgumentException("Email already exists");
         }
 
@@ -35,11 +45,22 @@ public class UserService implements UserDetailsService {
         user.setEmail(email);
         user.setPassword(passwordEncoder.encode(password));
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        // Other nodes may hold a cached "no such user" result for this username
+        invalidationBus.userChanged(saved.getId());
+        shardRouter.userChanged(saved.getId());
+        return saved;
     }
 
     public User findByUsername(String username) {
-        return userRepository.findByUsername(username)
+        return findUser(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found: " + username));
     }
+
+    // Lookups may be served by a read replica that has not replayed a registration made moments ago, typically on
+    // another node; a miss is confirmed on the primary before the user is reported as unknown.
+    private Optional<User> findUser(String username) {
+        return userRepository.findByUsername(username)
+                .or(() -> ReplicaRoutingDataSource.onPrimary(() -> userRepository.findUncachedByUsername(username)));
+    }
 }
\ No newline at end of file
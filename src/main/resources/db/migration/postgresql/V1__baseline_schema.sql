@@ -0,0 +1,22 @@
+-- Schema that ddl-auto=update created for the application before migrations were introduced. Existing databases are
+-- baselined at this version, so it must stay exactly that schema; later changes go in the migrations after it.
+
+create table users (
+    id         bigint generated by default as identity primary key,
+    created_at timestamp(6) not null,
+    email      varchar(255) not null unique,
+    enabled    boolean      not null,
+    password   varchar(255) not null,
+    username   varchar(255) not null unique
+);
+
+create table tasks (
+    id          bigint generated by default as identity primary key,
+    description varchar(500),
+    due_date    date         not null,
+    status      varchar(255) not null check (status in ('TO_DO', 'IN_PROGRESS', 'DONE')),
+    title       varchar(255) not null,
+    user_id     bigint       not null
+);
+
+alter table if exists tasks add constraint FK6s1ob9k4ihi75xbxe2w0ylsdh foreign key (user_id) references users;
@@ -0,0 +1,101 @@
+-- Columns and tables of the task management features built on the baseline schema. Adding a column with a constant
+-- default does not rewrite the table, so existing tasks start at version 0 without positions, parents or assignees.
+-- Indexes and unique constraints on the existing tables are built concurrently in V4.
+
+-- Account deletion
+alter table users add column deletion_requested_at timestamp(6);
+
+-- Recurring task templates
+create table task_recurrences (
+    id              bigint generated by default as identity primary key,
+    title           varchar(255) not null,
+    description     varchar(500),
+    status          varchar(255) not null check (status in ('TO_DO', 'IN_PROGRESS', 'DONE')),
+    frequency       varchar(255) not null check (frequency in ('DAILY', 'WEEKLY', 'MONTHLY', 'YEARLY')),
+    repeat_interval integer      not null,
+    start_date      date         not null,
+    until_date      date,
+    user_id         bigint       not null constraint fk_task_recurrences_user references users,
+    version         bigint       default 0 not null
+);
+
+create index idx_task_recurrences_user_start on task_recurrences (user_id, start_date);
+
+-- Versioning, board positions, subtasks, assignment, occurrences, long-form bodies and completion times
+alter table tasks
+    add column version         bigint default 0 not null,
+    add column board_position  varchar(64),
+    add column parent_id       bigint,
+    add column assignee_id     bigint,
+    add column recurrence_id   bigint constraint fk_tasks_recurrence references task_recurrences,
+    add column occurrence_date date,
+    add column body_preview    varchar(200),
+    add column completed_at    timestamp(6);
+
+-- When existing tasks were completed is unknown; they count as completed now and are archived min-age-days later
+update tasks set completed_at = localtimestamp where status = 'DONE';
+
+-- Dependencies
+create table task_dependencies (
+    id            bigint generated by default as identity primary key,
+    user_id       bigint not null,
+    task_id       bigint not null,
+    blocked_by_id bigint not null,
+    constraint uk_task_dependencies_edge unique (task_id, blocked_by_id)
+);
+
+create index idx_task_dependencies_user on task_dependencies (user_id);
+create index idx_task_dependencies_blocked_by on task_dependencies (blocked_by_id);
+
+-- Archive
+create table archived_tasks (
+    id          bigint       not null primary key,
+    user_id     bigint       not null,
+    title       varchar(255) not null,
+    description varchar(500),
+    due_date    date         not null,
+    status      varchar(255) not null check (status in ('TO_DO', 'IN_PROGRESS', 'DONE')),
+    archived_at timestamp(6) not null
+);
+
+create index idx_archived_tasks_user_due_date on archived_tasks (user_id, due_date, id);
+
+-- Assignee inbox
+create table task_inbox (
+    id          bigint generated by default as identity primary key,
+    assignee_id bigint       not null,
+    task_id     bigint       not null,
+    owner_id    bigint       not null,
+    title       varchar(255) not null,
+    due_date    date         not null,
+    status      varchar(255) not null check (status in ('TO_DO', 'IN_PROGRESS', 'DONE')),
+    constraint uk_task_inbox_task unique (task_id)
+);
+
+create index idx_task_inbox_assignee_due_date on task_inbox (assignee_id, due_date, task_id);
+create index idx_task_inbox_owner on task_inbox (owner_id);
+
+-- Attachments
+create table task_attachments (
+    id           bigint generated by default as identity primary key,
+    task_id      bigint       not null,
+    user_id      bigint       not null,
+    file_name    varchar(255) not null,
+    content_type varchar(100) not null,
+    size         bigint       not null,
+    sha256       varchar(64)  not null,
+    created_at   timestamp(6) not null
+);
+
+create index idx_task_attachments_task on task_attachments (task_id);
+create index idx_task_attachments_user on task_attachments (user_id);
+create index idx_task_attachments_sha256 on task_attachments (sha256);
+
+-- Long-form bodies
+create table task_bodies (
+    task_id bigint not null primary key,
+    user_id bigint not null,
+    content bytea  not null
+);
+
+create index idx_task_bodies_user on task_bodies (user_id);
@@ -0,0 +1,11 @@
+-- Task ids come from task_seq instead of the identity column, so that batched inserts and COPY imports can reserve
+-- them in blocks. Hibernate's pooled optimizer hands out the 50 values up to each number the sequence returns, so
+-- the first one must be at least the highest id in use plus the increment.
+
+alter table tasks alter column id drop identity if exists;
+
+create sequence task_seq start with 1000 increment by 50;
+
+select setval('task_seq', used.max_id + 50, false)
+from (select coalesce(max(id), 0) as max_id from tasks) used
+where used.max_id + 50 > 1000;
@@ -0,0 +1,26 @@
+-- Index set of the existing tasks and users tables, matched to the TaskRepository and UserRepository queries.
+-- Built concurrently so that the tables stay writable; see the .conf next to this file.
+
+-- findByUserIdAndStatus ordered by position, and the per-user due-date windows
+create index concurrently if not exists idx_tasks_user_status_position on tasks (user_id, status, board_position);
+create index concurrently if not exists idx_tasks_user_due_date on tasks (user_id, due_date);
+
+-- One occurrence per recurrence and date; the index is built first so that adding the constraint does not block writes
+create unique index concurrently if not exists uk_tasks_recurrence_occurrence on tasks (recurrence_id, occurrence_date);
+alter table tasks add constraint uk_tasks_recurrence_occurrence unique using index uk_tasks_recurrence_occurrence;
+
+-- findArchivable: status = ? and completed_at < ? and recurrence_id is null
+create index concurrently if not exists idx_tasks_archivable on tasks (status, completed_at) where recurrence_id is null;
+
+-- clearParent, clearParentOfAll: most tasks have no parent
+create index concurrently if not exists idx_tasks_parent on tasks (parent_id) where parent_id is not null;
+
+-- findOwnerIdsByAssigneeId, clearAssignee: most tasks are unassigned
+create index concurrently if not exists idx_tasks_assignee on tasks (assignee_id) where assignee_id is not null;
+
+-- findIdsPendingDeletion: only accounts scheduled for deletion
+create index concurrently if not exists idx_users_deletion_requested on users (deletion_requested_at) where deletion_requested_at is not null;
+
+-- Statistics for the planner right after the index set changed
+analyze tasks;
+analyze users;
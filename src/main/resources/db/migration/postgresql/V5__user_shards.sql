@@ -0,0 +1,7 @@
+-- Placements recorded by the shard rebalancer; users without a row live on the shard of their id range.
+
+create table user_shards (
+    user_id bigint      not null primary key,
+    shard   varchar(64) not null,
+    moving  boolean     not null
+);
@@ -2,10 +2,14 @@ package dev.tasksys;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 
+// Closed afterwards like the other application contexts: they share the in-memory test database, and a cached
+// context would find its schema dropped by the next one to shut down.
 @SpringBootTest
 @ActiveProfiles("test")
+@DirtiesContext
 class TasksysApplicationTest {
 
     @Test
@@ -0,0 +1,174 @@
+package dev.tasksys.config;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.User;
+import dev.tasksys.model.UserChangeEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Map<String, JdbcTemplate> replicaLag = new LinkedHashMap<>();
+    private ReplicaRoutingDataSource routing;
+
+    @BeforeEach
+    void setUp() {
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        for (String name : List.of("replica-0", "replica-1")) {
+            DataSource replica = h2(name);
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(replica);
+            jdbcTemplate.execute("create table replica_lag (ms bigint)");
+            jdbcTemplate.update("insert into replica_lag values (0)");
+            replicas.put(name, replica);
+            replicaLag.put(name, jdbcTemplate);
+        }
+        routing = new ReplicaRoutingDataSource(h2("primary"), replicas, "select ms from replica_lag", 1000, 500, 5000);
+        routing.probe();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        replicaLag.values().forEach(jdbcTemplate -> jdbcTemplate.execute("drop all objects"));
+    }
+
+    @Test
+    void shouldSpreadReadsOverReplicas() {
+        // When
+        List<Object> targets = route(4);
+
+        // Then
+        assertThat(targets).containsExactly("replica-0", "replica-1", "replica-0", "replica-1");
+    }
+
+    @Test
+    void shouldSkipLaggingReplicas() {
+        // Given
+        lag("replica-1", 5000);
+        routing.probe();
+
+        // When / Then
+        assertThat(route(3)).containsOnly("replica-0");
+
+        // Given
+        lag("replica-0", 5000);
+        routing.probe();
+
+        // When / Then
+        assertThat(route(3)).containsOnly(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldSkipUnreachableReplicasUntilTheyRecover() {
+        // Given
+        replicaLag.get("replica-0").execute("drop table replica_lag");
+        routing.probe();
+
+        // When / Then
+        assertThat(route(3)).containsOnly("replica-1");
+
+        // Given
+        replicaLag.get("replica-0").execute("create table replica_lag (ms bigint)");
+        lag("replica-0", 0);
+        routing.probe();
+
+        // When / Then
+        assertThat(route(2)).containsExactlyInAnyOrder("replica-0", "replica-1");
+    }
+
+    @Test
+    void shouldSkipReplicasThatCannotTellTheirLag() {
+        // Given a replica no longer streaming from the primary
+        replicaLag.get("replica-0").update("update replica_lag set ms = null");
+        routing.probe();
+
+        // When / Then
+        assertThat(route(3)).containsOnly("replica-1");
+    }
+
+    @Test
+    void shouldReadOwnWritesFromPrimary() {
+        // Given
+        signIn(1L);
+        routing.onTaskChange(TaskChangeEvent.deleted(1L, 10L));
+
+        // When / Then
+        assertThat(route(2)).containsOnly(ReplicaRoutingDataSource.PRIMARY);
+
+        // Given
+        signIn(2L);
+
+        // When / Then
+        assertThat(route(2)).containsExactlyInAnyOrder("replica-0", "replica-1");
+    }
+
+    @Test
+    void shouldReadOwnAccountChangesFromPrimary() {
+        // Given
+        signIn(1L);
+        routing.onUserChange(new UserChangeEvent(1L));
+
+        // When / Then
+        assertThat(route(2)).containsOnly(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldReadWritesMadeOnOtherNodesFromPrimary() {
+        // Given
+        signIn(1L);
+        routing.onCacheInvalidation(new CacheInvalidationEvent(false, false, Set.of(1L), Set.of(10L), Set.of()));
+
+        // When / Then
+        assertThat(route(2)).containsOnly(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    @Test
+    void shouldPinReadsToPrimary() {
+        // When
+        Object target = ReplicaRoutingDataSource.onPrimary(() -> routing.determineCurrentLookupKey());
+
+        // Then
+        assertThat(target).isEqualTo(ReplicaRoutingDataSource.PRIMARY);
+        assertThat(routing.determineCurrentLookupKey()).isNotEqualTo(ReplicaRoutingDataSource.PRIMARY);
+    }
+
+    private List<Object> route(int reads) {
+        List<Object> targets = new ArrayList<>();
+        for (int i = 0; i < reads; i++) {
+            targets.add(routing.determineCurrentLookupKey());
+        }
+        return targets;
+    }
+
+    private void lag(String replica, long ms) {
+        replicaLag.get(replica).update("delete from replica_lag");
+        replicaLag.get(replica).update("insert into replica_lag values (?)", ms);
+    }
+
+    private static void signIn(Long userId) {
+        User user = new User("user" + userId, "user" + userId + "@example.com", "password");
+        user.setId(userId);
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:routing-" + name + ";DB_CLOSE_DELAY=-1");
+        return dataSource;
+    }
+}
@@ -0,0 +1,81 @@
+package dev.tasksys.config;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardMapTest {
+
+    private static final List<String> SHARDS = List.of("shard-0", "shard-1", "shard-2");
+
+    private JdbcTemplate directory;
+    private ShardMap shardMap;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:shard-map;DB_CLOSE_DELAY=-1");
+        directory = new JdbcTemplate(dataSource);
+        directory.execute("create table user_shards (user_id bigint primary key, shard varchar(64) not null, moving boolean not null)");
+        shardMap = new ShardMap(SHARDS, List.of("0:shard-0", "100:shard-1", "200:shard-2"), dataSource, 1000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        directory.execute("drop all objects");
+    }
+
+    @Test
+    void shouldPlaceUsersByIdRange() {
+        // When / Then
+        assertThat(shardMap.shardOf(1L)).isEqualTo("shard-0");
+        assertThat(shardMap.shardOf(99L)).isEqualTo("shard-0");
+        assertThat(shardMap.shardOf(100L)).isEqualTo("shard-1");
+        assertThat(shardMap.shardOf(5000L)).isEqualTo("shard-2");
+    }
+
+    @Test
+    void shouldRejectMapsThatLeaveUsersWithoutShard() {
+        // When / Then
+        assertThatThrownBy(() -> ShardMap.parseRanges(List.of("100:shard-1"), SHARDS)).isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> ShardMap.parseRanges(List.of("0:shard-9"), SHARDS)).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldPreferRecordedPlacement() {
+        // Given
+        shardMap.place(1L, "shard-2", true);
+
+        // When / Then
+        assertThat(shardMap.placement(1L)).isEqualTo(new ShardMap.Placement("shard-2", true));
+
+        // Given
+        shardMap.place(1L, "shard-0", false);
+
+        // When / Then
+        assertThat(shardMap.placement(1L)).isEqualTo(new ShardMap.Placement("shard-0", false));
+        assertThat(directory.queryForObject("select count(*) from user_shards", Integer.class)).isZero();
+    }
+
+    @Test
+    void shouldReloadPlacementChangedOnAnotherNode() {
+        // Given
+        assertThat(shardMap.shardOf(1L)).isEqualTo("shard-0");
+        directory.update("insert into user_shards values (1, 'shard-1', false)");
+
+        // When
+        shardMap.onCacheInvalidation(new CacheInvalidationEvent(false, false, Set.of(), Set.of(), Set.of(1L)));
+
+        // Then
+        assertThat(shardMap.shardOf(1L)).isEqualTo("shard-1");
+    }
+}
@@ -2,10 +2,24 @@ package dev.tasksys.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.tasksys.config.JwtUtil;
+import dev.tasksys.model.ArchiveDto;
+import dev.tasksys.model.BatchDto;
 import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskMoveDto;
+import dev.tasksys.model.TaskPatchDto;
 import dev.tasksys.model.User;
 import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
+import dev.tasksys.service.TaskArchiveService;
+import dev.tasksys.service.TaskBatchService;
+import dev.tasksys.service.TaskBulkService;
+import dev.tasksys.service.TaskEventStreamService;
+import dev.tasksys.service.TaskImportService;
+import dev.tasksys.service.TaskListResponseCache;
+import dev.tasksys.service.TaskOrderingService;
+import dev.tasksys.service.TaskRecurrenceService;
 import dev.tasksys.service.TaskService;
+import dev.tasksys.service.TaskWriteBehindService;
 import dev.tasksys.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -24,9 +38,11 @@ import java.util.List;
 import static org.hamcrest.Matchers.hasSize;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -43,6 +59,33 @@ class TaskControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private TaskEventStreamService taskEventStreamService;
+
+    @MockBean
+    private TaskBulkService taskBulkService;
+
+    @MockBean
+    private TaskWriteBehindService taskWriteBehindService;
+
+    @MockBean
+    private TaskBatchService taskBatchService;
+
+    @MockBean
+    private TaskImportService taskImportService;
+
+    @MockBean
+    private TaskOrderingService taskOrderingService;
+
+    @MockBean
+    private TaskRecurrenceService taskRecurrenceService;
+
+    @MockBean
+    private TaskArchiveService taskArchiveService;
+
+    @MockBean
+    private TaskListResponseCache taskListResponseCache;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -162,6 +205,122 @@ class TaskControllerTest {
         mockMvc.perform(post("/api/tasks").with(jwt()).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(invalidTask))).andExpect(status().isBadRequest()).andExpect(jsonPath("$.title").exists()).andExpect(jsonPath("$.dueDate").exists()).andExpect(jsonPath("$.status").exists());
     }
 
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldReturnETagForTask() throws Exception {
+        // Given
+        testTaskDto.setVersion(3L);
+        when(taskService.getTaskById(1L)).thenReturn(testTaskDto);
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/1").with(jwt())).andExpect(status().isOk()).andExpect(header().string("ETag", "\"1.3\""));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldReturnNotModifiedWhenETagMatches() throws Exception {
+        // Given
+        testTaskDto.setVersion(3L);
+        when(taskService.getTaskById(1L)).thenReturn(testTaskDto);
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/1").with(jwt()).header("If-None-Match", "\"1.3\"")).andExpect(status().isNotModified());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldPassExpectedVersionFromIfMatch() throws Exception {
+        // Given
+        TaskDto updatedTask = new TaskDto("Updated Task", "Updated Description", LocalDate.now(), "IN_PROGRESS");
+        updatedTask.setId(1L);
+        updatedTask.setVersion(4L);
+
+        when(taskService.updateTask(eq(1L), any(TaskDto.class), eq(3L))).thenReturn(updatedTask);
+
+        // When & Then
+        mockMvc.perform(put("/api/tasks/1").with(jwt()).header("If-Match", "\"1.3\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(updatedTask))).andExpect(status().isOk()).andExpect(header().string("ETag", "\"1.4\""));
+
+        verify(taskService).updateTask(eq(1L), any(TaskDto.class), eq(3L));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldReturnPreconditionFailedOnVersionMismatch() throws Exception {
+        // Given
+        when(taskService.updateTask(eq(1L), any(TaskDto.class), eq(2L))).thenThrow(new TaskVersionMismatchException("Task 1 has been modified"));
+
+        // When & Then
+        mockMvc.perform(put("/api/tasks/1").with(jwt()).header("If-Match", "\"1.2\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(testTaskDto))).andExpect(status().isPreconditionFailed()).andExpect(jsonPath("$.error").value("Task 1 has been modified"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldPatchTaskWhenAuthenticated() throws Exception {
+        // Given
+        TaskPatchDto patch = new TaskPatchDto(null, null, null, "DONE");
+        when(taskService.patchTask(eq(1L), any(TaskPatchDto.class), eq(2L))).thenReturn(3L);
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/1").with(jwt()).header("If-Match", "\"1.2\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(patch))).andExpect(status().isNoContent()).andExpect(header().string("ETag", "\"1.3\""));
+
+        verify(taskService).patchTask(eq(1L), any(TaskPatchDto.class), eq(2L));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldReturnNotFoundWhenPatchingMissingTask() throws Exception {
+        // Given
+        when(taskService.patchTask(eq(999L), any(TaskPatchDto.class), isNull())).thenThrow(new TaskNotFoundException("Task not found with id: 999"));
+
+        // When & Then
+        mockMvc.perform(patch("/api/tasks/999").with(jwt()).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"DONE\"}")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldMoveTaskBetweenNeighbours() throws Exception {
+        // Given
+        TaskMoveDto move = new TaskMoveDto(2L, 3L, null);
+        when(taskOrderingService.moveTask(eq(1L), any(TaskMoveDto.class), eq(4L))).thenReturn(5L);
+
+        // When & Then
+        mockMvc.perform(put("/api/tasks/1/position").with(jwt()).header("If-Match", "\"1.4\"").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(move))).andExpect(status().isNoContent()).andExpect(header().string("ETag", "\"1.5\""));
+
+        verify(taskOrderingService).moveTask(eq(1L), any(TaskMoveDto.class), eq(4L));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldExecuteBatchWhenAuthenticated() throws Exception {
+        // Given
+        BatchDto.OperationResult result = new BatchDto.OperationResult(0, BatchDto.OperationType.DELETE, 204, 1L, null, null);
+        when(taskBatchService.execute(any(BatchDto.Request.class))).thenReturn(new BatchDto.Response(true, List.of(result)));
+
+        // When & Then
+        mockMvc.perform(post("/api/tasks/batch").with(jwt()).contentType(MediaType.APPLICATION_JSON).content("{\"operations\":[{\"op\":\"DELETE\",\"id\":1}]}")).andExpect(status().isOk()).andExpect(jsonPath("$.committed").value(true)).andExpect(jsonPath("$.results[0].status").value(204));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldPageThroughArchivedTasks() throws Exception {
+        // Given
+        TaskDto archived = new TaskDto("Old Task", "Done long ago", LocalDate.of(2024, 1, 15), "DONE");
+        archived.setId(7L);
+        when(taskArchiveService.getArchivedTasks("2024-02-01:9", 1)).thenReturn(new ArchiveDto.Page(List.of(archived), "2024-01-15:7"));
+
+        // When & Then
+        mockMvc.perform(get("/api/tasks/archive").with(jwt()).param("cursor", "2024-02-01:9").param("limit", "1")).andExpect(status().isOk()).andExpect(jsonPath("$.tasks", hasSize(1))).andExpect(jsonPath("$.tasks[0].id").value(7)).andExpect(jsonPath("$.nextCursor").value("2024-01-15:7"));
+    }
+
+    @Test
+    @WithMockUser(username = "testuser")
+    void shouldRejectEmptyBatch() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/api/tasks/batch").with(jwt()).contentType(MediaType.APPLICATION_JSON).content("{\"operations\":[]}")).andExpect(status().isBadRequest());
+
+        verify(taskBatchService, never()).execute(any());
+    }
+
     @Test
     void shouldReturn401ForInvalidJwtToken() throws Exception {
         mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer invalid-token")).andExpect(status().isUnauthorized());
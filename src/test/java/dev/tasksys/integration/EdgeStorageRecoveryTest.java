@@ -0,0 +1,101 @@
+package dev.tasksys.integration;
+
+import dev.tasksys.TasksysApplication;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+
+// Kills an edge node with SIGKILL in the middle of a stream of writes, then starts a new one on the same files:
+// every write the killed node acknowledged must be there.
+class EdgeStorageRecoveryTest {
+
+    private static final int ACKNOWLEDGED_WRITES = 30;
+
+    @TempDir
+    private Path dataDir;
+
+    @Test
+    void shouldRecoverEveryAcknowledgedWriteAfterKill() throws Exception {
+        // Given a node writing tasks as fast as it can
+        Process writer = new ProcessBuilder(Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"), Writer.class.getName(), dataDir.toString())
+                .redirectErrorStream(true)
+                .start();
+        List<Long> acknowledged = new ArrayList<>();
+        List<String> output = new ArrayList<>();
+        try (BufferedReader lines = new BufferedReader(new InputStreamReader(writer.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while (acknowledged.size() < ACKNOWLEDGED_WRITES && (line = lines.readLine()) != null) {
+                if (line.startsWith(Writer.ACKNOWLEDGED)) {
+                    acknowledged.add(Long.valueOf(line.substring(Writer.ACKNOWLEDGED.length())));
+                } else {
+                    output.add(line);
+                }
+            }
+        } finally {
+            // When it is killed without any chance to shut down
+            writer.destroyForcibly();
+            writer.waitFor();
+        }
+        if (acknowledged.size() < ACKNOWLEDGED_WRITES) {
+            fail("Writer exited after " + acknowledged.size() + " writes:\n" + String.join("\n", output));
+        }
+
+        // Then a new node on the same files has all of them
+        try (ConfigurableApplicationContext context = startEdgeNode(dataDir.toString())) {
+            TaskRepository taskRepository = context.getBean(TaskRepository.class);
+            assertThat(context.getBean(UserRepository.class).findByUsername(Writer.USERNAME)).isPresent();
+            assertThat(taskRepository.findAllById(acknowledged)).extracting(Task::getId).containsExactlyInAnyOrderElementsOf(acknowledged);
+        }
+    }
+
+    // As command line arguments, which outrank the settings the test run itself may have been given
+    private static ConfigurableApplicationContext startEdgeNode(String dataDir) {
+        return new SpringApplicationBuilder(TasksysApplication.class)
+                .profiles("test", "edge")
+                .web(WebApplicationType.NONE)
+                .run("--tasks.edge.data-dir=" + dataDir, "--spring.jpa.hibernate.ddl-auto=update");
+    }
+
+    // Runs in the child process: prints the id of each task once its save has returned
+    static class Writer {
+
+        static final String ACKNOWLEDGED = "acknowledged ";
+        static final String USERNAME = "edgeuser";
+
+        // Exits on any failure: the application's own threads would otherwise keep the process, and the test, waiting
+        public static void main(String[] args) {
+            try {
+                ConfigurableApplicationContext context = startEdgeNode(args[0]);
+                TaskRepository taskRepository = context.getBean(TaskRepository.class);
+                User user = context.getBean(UserRepository.class).save(new User(USERNAME, "edge@example.com", "password"));
+                for (int i = 0; ; i++) {
+                    Task task = taskRepository.save(new Task("Task " + i, "Description", LocalDate.now().plusDays(1), TaskStatus.TO_DO, user));
+                    System.out.println(ACKNOWLEDGED + task.getId());
+                    System.out.flush();
+                }
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+                System.exit(1);
+            }
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package dev.tasksys.integration;
+
+import dev.tasksys.TasksysApplication;
+import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskPatchDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import dev.tasksys.service.TaskBodyService;
+import dev.tasksys.service.TaskService;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.AnnotationTransactionAttributeSource;
+import org.springframework.transaction.interceptor.TransactionInterceptor;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Runs the jdbc profile against a TaskService built by hand for the JPA path.
+// The benchmark is opt-in: mvn test -Dtest=JdbcTaskServiceIntegrationTest -Dbenchmark=true
+@SpringBootTest(classes = TasksysApplication.class)
+@ActiveProfiles({"test", "jdbc"})
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class JdbcTaskServiceIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(JdbcTaskServiceIntegrationTest.class);
+    private static final int TASKS = 500;
+
+    @Autowired
+    private TaskService jdbcTaskService;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskBodyService taskBodyService;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TaskService jpaTaskService;
+    private Long firstTaskId;
+
+    @BeforeEach
+    void setUp() {
+        jpaTaskService = new TaskService(taskRepository, taskBodyService, eventPublisher, entityManager);
+        User user = userRepository.save(new User("jdbcuser", "jdbc@example.com", "password"));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < TASKS; i++) {
+            TaskStatus status = TaskStatus.values()[i % TaskStatus.values().length];
+            Task task = new Task("Task " + i, "Description " + i, LocalDate.now().plusDays(i % 30), status, user);
+            task.setPosition(i % 7 == 0 ? null : String.format("a%04d", TASKS - i));
+            task.setAssigneeId(i % 5 == 0 ? user.getId() : null);
+            tasks.add(task);
+        }
+        firstTaskId = taskRepository.saveAll(tasks).get(0).getId();
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldReturnSameTasksAsJpaPath() {
+        // When
+        List<TaskDto> jpa = new ArrayList<>(jpaTaskService.getAllTasks());
+        List<TaskDto> jdbc = jdbcTaskService.getAllTasks();
+        jpa.sort(Comparator.comparing(TaskDto::getId));
+
+        // Then
+        assertThat(jdbc).hasSize(TASKS).isEqualTo(jpa);
+        assertThat(jdbcTaskService.getTaskById(firstTaskId)).isEqualTo(jpaTaskService.getTaskById(firstTaskId));
+        for (TaskStatus status : TaskStatus.values()) {
+            assertThat(jdbcTaskService.getTasksByStatus(status.name())).isEqualTo(jpaTaskService.getTasksByStatus(status.name()));
+        }
+    }
+
+    @Test
+    void shouldWriteTasksTheJpaPathReadsBack() {
+        // Given the JPA finders cached
+        jpaTaskService.getAllTasks();
+        jpaTaskService.getTasksByStatus("TO_DO");
+        String lastPosition = jpaTaskService.getTasksByStatus("TO_DO").stream().map(TaskDto::getPosition)
+                .filter(Objects::nonNull).max(Comparator.naturalOrder()).orElseThrow();
+
+        // When
+        TaskDto request = new TaskDto("Written", "Description", LocalDate.now().plusDays(3), "TO_DO");
+        request.setBody("A body long enough to be stored on its own");
+        TaskDto created = jdbcTaskService.createTask(request);
+
+        // Then
+        assertThat(jdbcTaskService.getAllTasks()).hasSize(TASKS + 1);
+        assertThat(jpaTaskService.getAllTasks()).hasSize(TASKS + 1);
+        assertThat(created.getVersion()).isZero();
+        assertThat(created.getPosition()).isGreaterThan(lastPosition);
+        assertThat(jdbcTaskService.getTaskById(created.getId())).isEqualTo(jpaTaskService.getTaskById(created.getId()))
+                .extracting(TaskDto::getBody).isEqualTo("A body long enough to be stored on its own");
+
+        // When
+        TaskDto update = new TaskDto("Rewritten", "Changed", LocalDate.now().plusDays(4), "IN_PROGRESS");
+        TaskDto updated = jdbcTaskService.updateTask(created.getId(), update, 0L);
+        TaskPatchDto patch = new TaskPatchDto();
+        patch.setTitle("Patched");
+        Long patchedVersion = jdbcTaskService.patchTask(created.getId(), patch, 1L);
+
+        // Then
+        assertThat(updated.getVersion()).isEqualTo(1);
+        assertThat(updated.getPosition()).isEqualTo(created.getPosition());
+        assertThat(patchedVersion).isEqualTo(2);
+        TaskDto read = jpaTaskService.getTaskById(created.getId());
+        assertThat(read.getTitle()).isEqualTo("Patched");
+        assertThat(read.getDescription()).isEqualTo("Changed");
+        assertThat(read.getStatus()).isEqualTo("IN_PROGRESS");
+        assertThat(read.getVersion()).isEqualTo(2);
+        assertThat(jdbcTaskService.getTaskById(created.getId())).isEqualTo(read);
+    }
+
+    @Test
+    void shouldCreateFirstTaskOfAnEmptyColumn() {
+        // Given
+        User newcomer = userRepository.save(new User("newcomer", "newcomer@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(newcomer, null, newcomer.getAuthorities()));
+
+        // When
+        TaskDto created = jdbcTaskService.createTask(new TaskDto("First", "Description", LocalDate.now().plusDays(1), "TO_DO"));
+
+        // Then
+        assertThat(created.getPosition()).isNull();
+        assertThat(jpaTaskService.getAllTasks()).containsExactly(created);
+    }
+
+    @Test
+    void shouldRejectStaleAndMissingWrites() {
+        // Given
+        TaskDto update = new TaskDto("Rewritten", "Changed", LocalDate.now().plusDays(4), "DONE");
+        TaskPatchDto patch = new TaskPatchDto();
+        patch.setTitle("Patched");
+
+        // When / Then
+        assertThatThrownBy(() -> jdbcTaskService.updateTask(firstTaskId, update, 5L))
+                .isInstanceOf(TaskVersionMismatchException.class)
+                .hasMessage("Task " + firstTaskId + " has been modified (current version 0, expected 5)");
+        assertThatThrownBy(() -> jdbcTaskService.patchTask(firstTaskId, patch, 5L)).isInstanceOf(TaskVersionMismatchException.class);
+        assertThatThrownBy(() -> jdbcTaskService.updateTask(-1L, update, null)).isInstanceOf(TaskNotFoundException.class);
+        assertThatThrownBy(() -> jdbcTaskService.patchTask(-1L, patch, null)).isInstanceOf(TaskNotFoundException.class);
+        assertThat(jpaTaskService.getTaskById(firstTaskId).getVersion()).isZero();
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTaskReads() {
+        SessionFactory sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        Runnable evictCaches = () -> sessionFactory.getCache().evictAllRegions();
+
+        for (String view : List.of("all", "status")) {
+            Supplier<List<TaskDto>> jpa = view.equals("all") ? jpaTaskService::getAllTasks : () -> jpaTaskService.getTasksByStatus("TO_DO");
+            Supplier<List<TaskDto>> jdbc = view.equals("all") ? jdbcTaskService::getAllTasks : () -> jdbcTaskService.getTasksByStatus("TO_DO");
+
+            double jpaCold = measure(jpa, evictCaches);
+            double jpaWarm = measure(jpa, () -> { });
+            double jdbcMicros = measure(jdbc, () -> { });
+            log.info("{} tasks, view {}: JPA {} us/op (caches evicted), JPA {} us/op (second-level cache warm), JdbcClient {} us/op",
+                    TASKS, view, String.format("%.1f", jpaCold), String.format("%.1f", jpaWarm), String.format("%.1f", jdbcMicros));
+        }
+
+        // Both services go through the transactional proxy, as they would behind the controller
+        TaskService transactionalJpaTaskService = transactional(jpaTaskService);
+        for (String write : List.of("create", "update")) {
+            double jpaMicros = measureWrites(transactionalJpaTaskService, write);
+            double jdbcMicros = measureWrites(jdbcTaskService, write);
+            log.info("{}: JPA {} us/op, JdbcClient {} us/op", write, String.format("%.1f", jpaMicros), String.format("%.1f", jdbcMicros));
+        }
+    }
+
+    private double measureWrites(TaskService taskService, String write) {
+        TaskDto request = new TaskDto("Benchmark", "Description", LocalDate.now().plusDays(1), "TO_DO");
+        Runnable operation = write.equals("create")
+                ? () -> taskService.createTask(request)
+                : () -> taskService.updateTask(firstTaskId, request);
+        for (int i = 0; i < 200; i++) {
+            operation.run();
+        }
+        int iterations = 2000;
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            operation.run();
+        }
+        return (System.nanoTime() - start) / 1000.0 / iterations;
+    }
+
+    private TaskService transactional(TaskService target) {
+        ProxyFactory proxyFactory = new ProxyFactory(target);
+        proxyFactory.setProxyTargetClass(true);
+        proxyFactory.addAdvice(new TransactionInterceptor(transactionManager, new AnnotationTransactionAttributeSource()));
+        return (TaskService) proxyFactory.getProxy();
+    }
+
+    private static double measure(Supplier<List<TaskDto>> read, Runnable beforeEach) {
+        for (int i = 0; i < 200; i++) {
+            beforeEach.run();
+            read.get();
+        }
+        int iterations = 2000;
+        long elapsed = 0;
+        for (int i = 0; i < iterations; i++) {
+            beforeEach.run();
+            long start = System.nanoTime();
+            read.get();
+            elapsed += System.nanoTime() - start;
+        }
+        return elapsed / 1000.0 / iterations;
+    }
+}
@@ -0,0 +1,139 @@
+package dev.tasksys.integration;
+
+import dev.tasksys.TasksysApplication;
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Counts the statements that repeated hot lookups send to the database with and without the second-level cache.
+@SpringBootTest(classes = TasksysApplication.class)
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class SecondLevelCacheIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(SecondLevelCacheIntegrationTest.class);
+    private static final int LOOKUPS = 50;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private SessionFactory sessionFactory;
+    private Statistics statistics;
+    private User user;
+    private Task task;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+        user = userRepository.save(new User("cacheuser", "cache@example.com", "password"));
+        task = taskRepository.save(new Task("Cached Task", "Description", LocalDate.now().plusDays(1), TaskStatus.TO_DO, user));
+        taskRepository.save(new Task("Other Task", "Description", LocalDate.now().plusDays(2), TaskStatus.DONE, user));
+    }
+
+    @Test
+    void shouldServeRepeatedUserLookupsFromCache() {
+        // Given / When
+        long uncached = statementsFor(true, () -> userRepository.findByUsername("cacheuser").orElseThrow());
+        long cached = statementsFor(false, () -> userRepository.findByUsername("cacheuser").orElseThrow());
+
+        // Then
+        log.info("findByUsername x{}: {} statements uncached, {} cached", LOOKUPS, uncached, cached);
+        assertThat(uncached).isEqualTo(LOOKUPS);
+        assertThat(cached).isEqualTo(1);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(LOOKUPS - 1);
+    }
+
+    @Test
+    void shouldServeRepeatedTaskLookupsFromCache() {
+        // Given / When
+        long uncached = statementsFor(true, () -> {
+            taskRepository.findByIdAndUserId(task.getId(), user.getId()).orElseThrow();
+            taskRepository.findByUserId(user.getId());
+        });
+        long cached = statementsFor(false, () -> {
+            taskRepository.findByIdAndUserId(task.getId(), user.getId()).orElseThrow();
+            taskRepository.findByUserId(user.getId());
+        });
+
+        // Then
+        log.info("findByIdAndUserId + findByUserId x{}: {} statements uncached, {} cached", LOOKUPS, uncached, cached);
+        assertThat(uncached).isEqualTo(2L * LOOKUPS);
+        assertThat(cached).isEqualTo(2);
+        assertThat(statistics.getSecondLevelCacheHitCount()).isGreaterThanOrEqualTo(3L * (LOOKUPS - 1));
+    }
+
+    @Test
+    void shouldReadChangesWrittenThroughRepository() {
+        // Given
+        taskRepository.findByIdAndUserId(task.getId(), user.getId()).orElseThrow();
+
+        // When
+        Task loaded = taskRepository.findById(task.getId()).orElseThrow();
+        loaded.setTitle("Renamed Task");
+        taskRepository.save(loaded);
+
+        // Then
+        assertThat(taskRepository.findByIdAndUserId(task.getId(), user.getId()).orElseThrow().getTitle()).isEqualTo("Renamed Task");
+        assertThat(taskRepository.findByUserId(user.getId())).extracting(Task::getTitle).contains("Renamed Task");
+    }
+
+    @Test
+    void shouldKeepTaskQueriesCachedWhenAnotherNodeOnlyChangedUsers() {
+        // Given
+        taskRepository.findByUserId(user.getId());
+        userRepository.findByUsername("cacheuser").orElseThrow();
+
+        // When
+        eventPublisher.publishEvent(new CacheInvalidationEvent(false, false, Set.of(), Set.of(), Set.of(user.getId())));
+        statistics.clear();
+        taskRepository.findByUserId(user.getId());
+        userRepository.findByUsername("cacheuser").orElseThrow();
+
+        // Then
+        assertThat(statistics.getQueryRegionStatistics(TaskRepository.QUERY_CACHE_REGION).getHitCount()).isEqualTo(1);
+        assertThat(statistics.getQueryRegionStatistics(UserRepository.QUERY_CACHE_REGION).getHitCount()).isZero();
+        assertThat(statistics.getQueryRegionStatistics(UserRepository.QUERY_CACHE_REGION).getMissCount()).isEqualTo(1);
+    }
+
+    private long statementsFor(boolean evictEachTime, Runnable lookup) {
+        sessionFactory.getCache().evictAllRegions();
+        statistics.clear();
+        for (int i = 0; i < LOOKUPS; i++) {
+            if (evictEachTime) {
+                sessionFactory.getCache().evictAllRegions();
+            }
+            lookup.run();
+        }
+        return statistics.getPrepareStatementCount();
+    }
+}
@@ -0,0 +1,293 @@
+package dev.tasksys.integration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dev.tasksys.TasksysApplication;
+import dev.tasksys.config.ShardContext;
+import dev.tasksys.config.ShardMap;
+import dev.tasksys.config.ShardRouter;
+import dev.tasksys.config.ShardRoutingDataSource;
+import dev.tasksys.model.AuthDto;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.repository.UserRepository;
+import dev.tasksys.service.AccountDeletionService;
+import dev.tasksys.service.ShardRebalancer;
+import dev.tasksys.service.TaskArchiveService;
+import dev.tasksys.service.TaskOrderingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.doAnswer;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Two in-memory H2 databases as shards: user 1 lives on shard-0 (the directory), user 2 on shard-1.
+@SpringBootTest(classes = TasksysApplication.class, properties = {
+        "spring.datasource.url=jdbc:h2:mem:shard0",
+        "tasks.sharding.enabled=true",
+        "tasks.sharding.urls=jdbc:h2:mem:shard1",
+        "tasks.sharding.map=0:shard-0,2:shard-1",
+        "tasks.sharding.move-grace-ms=0"})
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class ShardingIntegrationTest {
+
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private ShardRoutingDataSource dataSource;
+
+    @MockitoSpyBean
+    private ShardMap shardMap;
+
+    @Autowired
+    private ShardRebalancer shardRebalancer;
+
+    @Autowired
+    private ShardRouter shardRouter;
+
+    @Autowired
+    private AccountDeletionService accountDeletionService;
+
+    @Autowired
+    private TaskOrderingService taskOrderingService;
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
+    @Autowired
+    private TaskDecorator shardContextTaskDecorator;
+
+    private MockMvc mockMvc;
+    private JdbcTemplate shard0;
+    private JdbcTemplate shard1;
+    private String aliceToken;
+    private String bobToken;
+    private Long aliceId;
+    private Long bobId;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).apply(springSecurity()).build();
+        shard0 = new JdbcTemplate(dataSource.shards().get("shard-0"));
+        shard1 = new JdbcTemplate(dataSource.shards().get("shard-1"));
+        aliceToken = register("alice");
+        bobToken = register("bob");
+        aliceId = userRepository.findByUsername("alice").orElseThrow().getId();
+        bobId = userRepository.findByUsername("bob").orElseThrow().getId();
+    }
+
+    @Test
+    void shouldKeepEachUsersTasksOnTheirShard() throws Exception {
+        // When
+        createTask(aliceToken, "Alice Task");
+        createTask(bobToken, "Bob Task");
+
+        // Then
+        assertThat(shardMap.shardOf(aliceId)).isEqualTo("shard-0");
+        assertThat(shardMap.shardOf(bobId)).isEqualTo("shard-1");
+        assertThat(countTasks(shard0, aliceId)).isEqualTo(1);
+        assertThat(countTasks(shard0, bobId)).isZero();
+        assertThat(countTasks(shard1, bobId)).isEqualTo(1);
+        assertThat(countTasks(shard1, aliceId)).isZero();
+
+        // Every account is in the directory, only bob's copy is on shard-1
+        assertThat(shard0.queryForObject("select count(*) from users", Integer.class)).isEqualTo(2);
+        assertThat(shard1.queryForList("select id from users", Long.class)).containsExactly(bobId);
+
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + bobToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(1)).andExpect(jsonPath("$[0].title").value("Bob Task"));
+    }
+
+    @Test
+    void shouldMoveUserToAnotherShard() throws Exception {
+        // Given
+        TaskDto first = createTask(bobToken, "First");
+        TaskDto second = createTask(bobToken, "Second");
+
+        // When
+        shardRebalancer.move(bobId, "shard-0");
+
+        // Then
+        assertThat(shardMap.placement(bobId)).isEqualTo(new ShardMap.Placement("shard-0", false));
+        assertThat(countTasks(shard0, bobId)).isEqualTo(2);
+        assertThat(countTasks(shard1, bobId)).isZero();
+        assertThat(shard1.queryForObject("select count(*) from users", Integer.class)).isZero();
+
+        mockMvc.perform(get("/api/tasks/" + first.getId()).header("Authorization", "Bearer " + bobToken)).andExpect(status().isOk()).andExpect(jsonPath("$.title").value("First"));
+        mockMvc.perform(get("/api/tasks/" + second.getId()).header("Authorization", "Bearer " + bobToken)).andExpect(status().isOk()).andExpect(jsonPath("$.title").value("Second"));
+        createTask(bobToken, "After Move");
+        assertThat(countTasks(shard0, bobId)).isEqualTo(3);
+    }
+
+    @Test
+    void shouldTurnAwayWritesWhileUserIsMoving() throws Exception {
+        // Given
+        createTask(bobToken, "Bob Task");
+        shardMap.place(bobId, "shard-1", true);
+
+        // When / Then
+        String taskJson = objectMapper.writeValueAsString(new TaskDto("Blocked", "Description", LocalDate.now().plusDays(1), "TO_DO"));
+        mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + bobToken).contentType(MediaType.APPLICATION_JSON).content(taskJson)).andExpect(status().isServiceUnavailable()).andExpect(header().string("Retry-After", "1")).andExpect(jsonPath("$.error").exists());
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + bobToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(1));
+    }
+
+    @Test
+    void shouldFailAsyncCreatesWhosePlacementLookupFailsAndKeepWriting() throws Exception {
+        // Given the writer's first lookup of bob's placement fails
+        AtomicBoolean directoryDown = new AtomicBoolean(true);
+        doAnswer(invocation -> {
+            if (Thread.currentThread().getName().equals("task-write-behind") && directoryDown.getAndSet(false)) {
+                throw new CannotGetJdbcConnectionException("Directory is unreachable");
+            }
+            return invocation.callRealMethod();
+        }).when(shardMap).placement(bobId);
+
+        // When
+        createAsync(bobToken, "lost");
+
+        // Then the create fails, and the writer goes on with the next one
+        assertThat(awaitAsync(bobToken, "lost")).isEqualTo("FAILED");
+        createAsync(bobToken, "kept");
+        assertThat(awaitAsync(bobToken, "kept")).isEqualTo("PERSISTED");
+        assertThat(countTasks(shard1, bobId)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldLeaveRowsOfMovingUserToTheMove() throws Exception {
+        // Given bob's tasks need a position rebalance and one is due for archiving, as he starts moving
+        createTask(bobToken, "First");
+        createTask(bobToken, "Second");
+        TaskDto done = createTask(bobToken, "Done");
+        shard1.update("update tasks set board_position = 'a0' where user_id = ?", bobId);
+        shard1.update("update tasks set status = 'DONE', completed_at = ? where id = ?", LocalDateTime.now().minusDays(365), done.getId());
+        shardMap.place(bobId, "shard-1", true);
+
+        // When the background writers run, the write-behind one with a create accepted just before the move began
+        taskOrderingService.rebalance();
+        taskArchiveService.archive();
+        shardMap.place(bobId, "shard-1", false);
+        doAnswer(invocation -> Thread.currentThread().getName().equals("task-write-behind")
+                ? new ShardMap.Placement("shard-1", true) : invocation.callRealMethod()).when(shardMap).placement(bobId);
+        createAsync(bobToken, "while-moving");
+
+        // Then they leave his rows alone
+        assertThat(awaitAsync(bobToken, "while-moving")).isEqualTo("FAILED");
+        assertThat(shard1.queryForList("select version from tasks where user_id = ?", Long.class, bobId)).containsOnly(0L);
+        assertThat(countTasks(shard1, bobId)).isEqualTo(3);
+
+        // And catch up once he has moved
+        taskOrderingService.rebalance();
+        taskArchiveService.archive();
+        assertThat(shard1.queryForList("select title from tasks where user_id = ?", String.class, bobId)).containsExactlyInAnyOrder("First", "Second");
+        assertThat(shard1.queryForList("select distinct board_position from tasks where user_id = ?", String.class, bobId)).hasSize(2);
+    }
+
+    @Test
+    void shouldRejectAssignmentToUserOnAnotherShard() throws Exception {
+        // Given
+        TaskDto task = createTask(aliceToken, "Alice Task");
+
+        // When / Then
+        mockMvc.perform(put("/api/tasks/" + task.getId() + "/assignee").header("Authorization", "Bearer " + aliceToken).contentType(MediaType.APPLICATION_JSON).content("{\"assigneeId\":" + bobId + "}")).andExpect(status().isBadRequest()).andExpect(jsonPath("$.error").value("Tasks can only be assigned to users on the same shard"));
+    }
+
+    @Test
+    void shouldFailLoudlyWhenCopyingUserMissingFromDirectory() {
+        assertThatThrownBy(() -> shardRouter.copyUser(999L, "shard-1"))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("not in the directory");
+        assertThat(shard1.queryForList("select id from users", Long.class)).containsExactly(bobId);
+    }
+
+    @Test
+    void shouldRunExecutorTasksOnTheSubmittingThreadsShard() throws Exception {
+        // Given
+        AtomicReference<String> shardOfTask = new AtomicReference<>();
+        Runnable task = ShardContext.call("shard-1", () -> shardContextTaskDecorator.decorate(() -> {
+            shardOfTask.set(ShardContext.current());
+            shardRouter.requirePinned();
+        }));
+
+        // When
+        Thread worker = Thread.ofPlatform().start(task);
+        worker.join();
+
+        // Then
+        assertThat(shardOfTask.get()).isEqualTo("shard-1");
+        assertThatThrownBy(shardRouter::requirePinned).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void shouldClearDeletedUsersAssignmentsOnEveryShard() throws Exception {
+        // Given bob's task on shard-1 still naming alice as assignee, as from before she was placed elsewhere
+        TaskDto task = createTask(bobToken, "Bob Task");
+        shard1.update("update tasks set assignee_id = ? where id = ?", aliceId, task.getId());
+
+        // When alice's account is deleted
+        mockMvc.perform(delete("/api/account").header("Authorization", "Bearer " + aliceToken)).andExpect(status().isAccepted());
+        accountDeletionService.purge();
+
+        // Then
+        assertThat(shard0.queryForObject("select count(*) from users where id = ?", Integer.class, aliceId)).isZero();
+        assertThat(shard1.queryForObject("select assignee_id from tasks where id = ?", Long.class, task.getId())).isNull();
+    }
+
+    private String register(String username) throws Exception {
+        AuthDto.RegisterRequest request = new AuthDto.RegisterRequest(username, username + "@example.com", "password123");
+        String response = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, AuthDto.AuthResponse.class).getToken();
+    }
+
+    private TaskDto createTask(String token, String title) throws Exception {
+        String taskJson = objectMapper.writeValueAsString(new TaskDto(title, "Description", LocalDate.now().plusDays(1), "TO_DO"));
+        String response = mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + token).contentType(MediaType.APPLICATION_JSON).content(taskJson)).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, TaskDto.class);
+    }
+
+    private void createAsync(String token, String idempotencyKey) throws Exception {
+        String taskJson = objectMapper.writeValueAsString(new TaskDto(idempotencyKey, "Description", LocalDate.now().plusDays(1), "TO_DO"));
+        mockMvc.perform(post("/api/tasks/async").header("Authorization", "Bearer " + token).header("Idempotency-Key", idempotencyKey).contentType(MediaType.APPLICATION_JSON).content(taskJson)).andExpect(status().isAccepted());
+    }
+
+    private String awaitAsync(String token, String idempotencyKey) throws Exception {
+        String state = "PENDING";
+        for (int attempt = 0; attempt < 50 && state.equals("PENDING"); attempt++) {
+            Thread.sleep(50);
+            String response = mockMvc.perform(get("/api/tasks/async/" + idempotencyKey).header("Authorization", "Bearer " + token)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            state = objectMapper.readTree(response).get("state").asText();
+        }
+        return state;
+    }
+
+    private static int countTasks(JdbcTemplate shard, Long userId) {
+        return shard.queryForObject("select count(*) from tasks where user_id = ?", Integer.class, userId);
+    }
+}
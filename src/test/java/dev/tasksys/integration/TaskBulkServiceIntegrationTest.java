@@ -0,0 +1,94 @@
+package dev.tasksys.integration;
+
+import dev.tasksys.TasksysApplication;
+import dev.tasksys.model.BulkDto;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.UserRepository;
+import dev.tasksys.service.TaskBulkService;
+import dev.tasksys.service.TaskService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// The benchmark is opt-in: mvn test -Dtest=TaskBulkServiceIntegrationTest -Dbenchmark=true
+@SpringBootTest(classes = TasksysApplication.class, properties = "spring.jpa.show-sql=false")
+@ActiveProfiles("test")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+class TaskBulkServiceIntegrationTest {
+
+    private static final Logger log = LoggerFactory.getLogger(TaskBulkServiceIntegrationTest.class);
+    private static final int TASKS = 5000;
+
+    @Autowired
+    private TaskBulkService taskBulkService;
+
+    @Autowired
+    private TaskService taskService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User user = userRepository.save(new User("bulkuser", "bulk@example.com", "password"));
+        SecurityContextHolder.getContext().setAuthentication(new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void shouldCreateEveryTaskWithDistinctIds() throws Exception {
+        // When
+        BulkDto.CreateResponse response = taskBulkService.createTasks(ndjson(1200));
+
+        // Then
+        assertThat(response.getResults()).hasSize(1200).allMatch(result -> result.getStatus() == BulkDto.ItemStatus.CREATED);
+        assertThat(response.getResults().stream().map(BulkDto.ItemResult::getId).distinct()).hasSize(1200);
+        assertThat(taskService.getAllTasks()).hasSize(1200);
+    }
+
+    @Test
+    @EnabledIfSystemProperty(named = "benchmark", matches = "true")
+    void benchmarkTaskCreation() throws Exception {
+        long start = System.nanoTime();
+        for (int i = 0; i < TASKS; i++) {
+            taskService.createTask(new TaskDto("Single " + i, "Description", LocalDate.now().plusDays(1), "TO_DO"));
+        }
+        double single = TASKS / ((System.nanoTime() - start) / 1e9);
+
+        start = System.nanoTime();
+        taskBulkService.createTasks(ndjson(TASKS));
+        double bulk = TASKS / ((System.nanoTime() - start) / 1e9);
+
+        log.info("{} tasks: one createTask per task {} tasks/s, bulk endpoint {} tasks/s",
+                TASKS, String.format("%.0f", single), String.format("%.0f", bulk));
+    }
+
+    private static ByteArrayInputStream ndjson(int count) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            body.append("{\"title\":\"Bulk ").append(i).append("\",\"description\":\"Description\",\"dueDate\":\"")
+                    .append(LocalDate.now().plusDays(1)).append("\",\"status\":\"TO_DO\"}\n");
+        }
+        return new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -3,25 +3,46 @@ package dev.tasksys.integration;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import dev.tasksys.TasksysApplication;
 import dev.tasksys.model.AuthDto;
+import dev.tasksys.model.BatchDto;
+import dev.tasksys.model.RecurrenceDto;
+import dev.tasksys.model.TaskPatchDto;
 import dev.tasksys.model.TaskDto;
+import dev.tasksys.repository.TaskRepository;
+import dev.tasksys.repository.UserRepository;
+import dev.tasksys.service.AccountDeletionService;
+import dev.tasksys.service.TaskArchiveService;
+import dev.tasksys.service.TaskEventStreamService;
+import dev.tasksys.service.TaskOrderingService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
 import java.time.LocalDate;
-
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.not;
 import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest(classes = TasksysApplication.class)
@@ -36,6 +57,27 @@ class TaskIntegrationTest {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private AccountDeletionService accountDeletionService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private TaskArchiveService taskArchiveService;
+
+    @Autowired
+    private TaskEventStreamService taskEventStreamService;
+
+    @Autowired
+    private TaskOrderingService taskOrderingService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     private MockMvc mockMvc;
     private String jwtToken;
 
@@ -86,6 +128,121 @@ class TaskIntegrationTest {
         mockMvc.perform(get("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isNotFound());
     }
 
+    @Test
+    void shouldCreateTasksInBulkFromNdjsonStream() throws Exception {
+        String body = String.join("\n",
+                objectMapper.writeValueAsString(new TaskDto("Bulk Task 1", "First", LocalDate.now().plusDays(1), "TO_DO")),
+                objectMapper.writeValueAsString(new TaskDto("", "Missing title", LocalDate.now().plusDays(2), "TO_DO")),
+                objectMapper.writeValueAsString(new TaskDto("Bulk Task 3", "Third", LocalDate.now().plusDays(3), "DONE")));
+
+        mockMvc.perform(post("/api/tasks/bulk").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_NDJSON).content(body)).andExpect(status().isOk()).andExpect(jsonPath("$.created").value(2)).andExpect(jsonPath("$.rejected").value(1)).andExpect(jsonPath("$.results[0].status").value("REJECTED")).andExpect(jsonPath("$.results[0].index").value(1));
+
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2));
+    }
+
+    @Test
+    void shouldRollBackAtomicBatchWhenAnyOperationFails() throws Exception {
+        BatchDto.Operation create = new BatchDto.Operation(BatchDto.OperationType.CREATE, null, null, new TaskDto("Batch Task", "Created in batch", LocalDate.now().plusDays(1), "TO_DO"), null);
+        BatchDto.Operation deleteMissing = new BatchDto.Operation(BatchDto.OperationType.DELETE, 999999L, null, null, null);
+        BatchDto.Request request = new BatchDto.Request(BatchDto.Mode.ATOMIC, List.of(create, deleteMissing));
+
+        mockMvc.perform(post("/api/tasks/batch").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isOk()).andExpect(jsonPath("$.committed").value(false)).andExpect(jsonPath("$.results[0].status").value(424)).andExpect(jsonPath("$.results[1].status").value(404));
+
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+
+        request.setMode(BatchDto.Mode.BEST_EFFORT);
+        mockMvc.perform(post("/api/tasks/batch").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isOk()).andExpect(jsonPath("$.committed").value(true)).andExpect(jsonPath("$.results[0].status").value(201)).andExpect(jsonPath("$.results[0].task.version").value(0)).andExpect(jsonPath("$.results[1].status").value(404));
+
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$[0].title").value("Batch Task"));
+    }
+
+    @Test
+    void shouldSeeEarlierPatchesInLaterBatchOperations() throws Exception {
+        Long taskId = createTask("Batch Task");
+        BatchDto.Operation update = new BatchDto.Operation(BatchDto.OperationType.UPDATE, taskId, 0L, new TaskDto("Updated", "First update", LocalDate.now().plusDays(1), "TO_DO"), null);
+        BatchDto.Operation patchTitle = new BatchDto.Operation(BatchDto.OperationType.PATCH, taskId, 1L, null, new TaskPatchDto("Patched", null, null, null));
+        BatchDto.Operation updateAgain = new BatchDto.Operation(BatchDto.OperationType.UPDATE, taskId, 2L, new TaskDto("Updated Again", "Second update", LocalDate.now().plusDays(2), "DONE"), null);
+        BatchDto.Request request = new BatchDto.Request(BatchDto.Mode.ATOMIC, List.of(update, patchTitle, updateAgain));
+
+        mockMvc.perform(post("/api/tasks/batch").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(request))).andExpect(status().isOk()).andExpect(jsonPath("$.committed").value(true)).andExpect(jsonPath("$.results[1].status").value(204)).andExpect(jsonPath("$.results[2].status").value(200)).andExpect(jsonPath("$.results[2].task.version").value(3));
+
+        mockMvc.perform(get("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.title").value("Updated Again")).andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void shouldRebalanceColumnWithNewVersions() throws Exception {
+        Long first = createTask("First");
+        Long second = createTask("Second");
+        Long third = createTask("Third");
+        jdbcTemplate.update("update tasks set board_position = 'a0' where id in (?, ?)", first, second);
+        jdbcTemplate.update("update tasks set board_position = 'a0V' where id = ?", third);
+        String etag = mockMvc.perform(get("/api/tasks/" + second).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+
+        taskOrderingService.rebalance();
+
+        mockMvc.perform(get("/api/tasks/status/TO_DO").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$[0].id").value(first)).andExpect(jsonPath("$[1].id").value(second)).andExpect(jsonPath("$[2].id").value(third));
+        assertThat(jdbcTemplate.queryForList("select distinct board_position from tasks", String.class)).hasSize(3);
+
+        // The rewritten position is a new representation: the old entity tag neither validates a cached copy nor an update
+        mockMvc.perform(get("/api/tasks/" + second).header("Authorization", "Bearer " + jwtToken).header("If-None-Match", etag)).andExpect(status().isOk()).andExpect(jsonPath("$.version").value(1)).andExpect(header().string("ETag", not(etag)));
+        String position = jdbcTemplate.queryForObject("select board_position from tasks where id = ?", String.class, second);
+        TaskDto update = new TaskDto("Second Updated", "Description", LocalDate.now().plusDays(1), "TO_DO");
+        mockMvc.perform(put("/api/tasks/" + second).header("Authorization", "Bearer " + jwtToken).header("If-Match", etag).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(update))).andExpect(status().isPreconditionFailed());
+        assertThat(jdbcTemplate.queryForObject("select board_position from tasks where id = ?", String.class, second)).isEqualTo(position);
+    }
+
+    @Test
+    void shouldImportTasksFromCsvAndReportRejectedRows() throws Exception {
+        String csv = "title,description,due_date,status\n"
+                + "Imported 1,\"Quoted, with comma\",2030-01-01,to_do\n"
+                + ",Missing title,2030-01-02,DONE\n"
+                + "Imported 3,,not-a-date,DONE\n"
+                + "Imported 4,,2030-01-04,\n";
+
+        mockMvc.perform(post("/api/tasks/import").header("Authorization", "Bearer " + jwtToken).contentType("text/csv").content(csv)).andExpect(status().isOk()).andExpect(jsonPath("$.method").value("BATCH")).andExpect(jsonPath("$.imported").value(2)).andExpect(jsonPath("$.rejected").value(2)).andExpect(jsonPath("$.rejections[0].row").value(3)).andExpect(jsonPath("$.rejections[1].row").value(4));
+
+        mockMvc.perform(get("/api/tasks/status/TO_DO").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2)).andExpect(jsonPath("$[0].description").value("Quoted, with comma"));
+        mockMvc.perform(get("/api/tasks/import/progress").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    void shouldComputeRecurringOccurrencesAndMaterializeOnChange() throws Exception {
+        LocalDate start = LocalDate.now().plusDays(1);
+        RecurrenceDto standup = new RecurrenceDto(null, "Standup", "Daily sync", null, "DAILY", 1, start, null, null);
+        String response = mockMvc.perform(post("/api/recurrences").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(standup))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        Long recurrenceId = objectMapper.readValue(response, RecurrenceDto.class).getId();
+
+        String due = "/api/tasks/due?from=" + start + "&to=" + start.plusDays(6);
+        mockMvc.perform(get(due).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(7)).andExpect(jsonPath("$[0].id").doesNotExist()).andExpect(jsonPath("$[0].recurrenceId").value(recurrenceId));
+        // Computed occurrences are not stored tasks, so the task lists leave them out
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+        mockMvc.perform(get("/api/tasks/status/TO_DO").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(0));
+
+        TaskPatchDto complete = new TaskPatchDto(null, null, null, "DONE");
+        mockMvc.perform(patch("/api/recurrences/" + recurrenceId + "/occurrences/" + start.plusDays(2)).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(complete))).andExpect(status().isOk()).andExpect(jsonPath("$.id").exists()).andExpect(jsonPath("$.status").value("DONE"));
+
+        mockMvc.perform(get(due).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(7)).andExpect(jsonPath("$[2].status").value("DONE")).andExpect(jsonPath("$[2].occurrenceDate").value(start.plusDays(2).toString()));
+        // Only the occurrence that was changed, and so stored, joins them
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(1)).andExpect(jsonPath("$[0].recurrenceId").value(recurrenceId)).andExpect(jsonPath("$[0].occurrenceDate").value(start.plusDays(2).toString()));
+    }
+
+    @Test
+    void shouldPersistAsyncCreateAndReportStatus() throws Exception {
+        TaskDto newTask = new TaskDto("Async Task", "Queued", LocalDate.now().plusDays(1), "TO_DO");
+
+        mockMvc.perform(post("/api/tasks/async").header("Authorization", "Bearer " + jwtToken).header("Idempotency-Key", "import-42").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(newTask))).andExpect(status().isAccepted()).andExpect(jsonPath("$.idempotencyKey").value("import-42"));
+
+        String state = "PENDING";
+        for (int attempt = 0; attempt < 50 && state.equals("PENDING"); attempt++) {
+            Thread.sleep(50);
+            String response = mockMvc.perform(get("/api/tasks/async/import-42").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+            state = objectMapper.readTree(response).get("state").asText();
+        }
+
+        assertThat(state).isEqualTo("PERSISTED");
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$[0].title").value("Async Task"));
+    }
+
     @Test
     void shouldNotAllowAccessWithoutAuthentication() throws Exception {
         TaskDto newTask = new TaskDto("Unauthorized Task", "Description", LocalDate.now().plusDays(7), "TO_DO");
@@ -160,4 +317,245 @@ class TaskIntegrationTest {
 
         mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(duplicateRequest))).andExpect(status().isBadRequest()).andExpect(jsonPath("$.error").value("Username already exists"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldDisableAccountAndPurgeItsDataInChunks() throws Exception {
+        // Given a user with more tasks than one deletion chunk
+        for (int i = 0; i < 5; i++) {
+            TaskDto task = new TaskDto("Task " + i, "Description", LocalDate.now().plusDays(i), "TO_DO");
+            mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated());
+        }
+        Long userId = userRepository.findByUsername("testuser").orElseThrow().getId();
+
+        // When the account is deleted
+        mockMvc.perform(delete("/api/account").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isAccepted());
+
+        // Then the existing token and the credentials stop working immediately
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isUnauthorized());
+        AuthDto.LoginRequest loginRequest = new AuthDto.LoginRequest("testuser", "password123");
+        mockMvc.perform(post("/api/auth/login").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(loginRequest))).andExpect(status().isUnauthorized());
+        assertThat(taskRepository.findByUserId(userId)).hasSize(5);
+
+        // And the background purge removes the tasks and the user row
+        accountDeletionService.purge();
+
+        assertThat(taskRepository.findByUserId(userId)).isEmpty();
+        assertThat(userRepository.findById(userId)).isEmpty();
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldArchiveOldCompletedTasksAndPageThroughThem() throws Exception {
+        // Given two tasks completed long ago, an old open task and an overdue task completed just now
+        List<TaskDto> tasks = List.of(
+                new TaskDto("Old Done 1", "Archived", LocalDate.now().minusDays(200), "DONE"),
+                new TaskDto("Old Done 2", "Archived", LocalDate.now().minusDays(150), "DONE"),
+                new TaskDto("Old Open", "Still open", LocalDate.now().minusDays(200), "TO_DO"),
+                new TaskDto("Late Done", "Completed today", LocalDate.now().minusDays(200), "DONE"));
+        for (TaskDto task : tasks) {
+            mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated());
+        }
+        jdbcTemplate.update("update tasks set completed_at = ? where title like 'Old Done%'", LocalDateTime.now().minusDays(100));
+
+        // When
+        taskArchiveService.archive();
+
+        // Then only the live and the recently completed tasks stay in the default listing
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.length()").value(2)).andExpect(jsonPath("$[*].title", containsInAnyOrder("Old Open", "Late Done")));
+
+        // And the archive pages newest due date first
+        String firstPage = mockMvc.perform(get("/api/tasks/archive").header("Authorization", "Bearer " + jwtToken).param("limit", "1")).andExpect(status().isOk()).andExpect(jsonPath("$.tasks[0].title").value("Old Done 2")).andExpect(jsonPath("$.nextCursor").exists()).andReturn().getResponse().getContentAsString();
+        String cursor = objectMapper.readTree(firstPage).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/tasks/archive").header("Authorization", "Bearer " + jwtToken).param("limit", "1").param("cursor", cursor)).andExpect(status().isOk()).andExpect(jsonPath("$.tasks[0].title").value("Old Done 1"));
+
+        mockMvc.perform(get("/api/tasks/archive").header("Authorization", "Bearer " + jwtToken).param("limit", "0")).andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldFanOutAssignedTasksToAssigneeInbox() throws Exception {
+        // Given a second user and a task owned by the first user
+        AuthDto.RegisterRequest assigneeRequest = new AuthDto.RegisterRequest("assignee", "assignee@example.com", "password123");
+        String assigneeResponse = mockMvc.perform(post("/api/auth/register").contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(assigneeRequest))).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        String assigneeToken = objectMapper.readValue(assigneeResponse, AuthDto.AuthResponse.class).getToken();
+        Long assigneeId = userRepository.findByUsername("assignee").orElseThrow().getId();
+
+        TaskDto task = new TaskDto("Shared Task", "Needs help", LocalDate.now().plusDays(3), "TO_DO");
+        String created = mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        Long taskId = objectMapper.readValue(created, TaskDto.class).getId();
+
+        // When the owner assigns it
+        mockMvc.perform(put("/api/tasks/" + taskId + "/assignee").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"assigneeId\":" + assigneeId + "}")).andExpect(status().isOk()).andExpect(jsonPath("$.assigneeId").value(assigneeId));
+
+        // Then it shows up in the assignee's inbox and follows the owner's changes
+        mockMvc.perform(get("/api/tasks/assigned").header("Authorization", "Bearer " + assigneeToken)).andExpect(status().isOk()).andExpect(jsonPath("$.entries.length()").value(1)).andExpect(jsonPath("$.entries[0].taskId").value(taskId)).andExpect(jsonPath("$.entries[0].status").value("TO_DO"));
+
+        mockMvc.perform(patch("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"IN_PROGRESS\"}")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tasks/assigned").header("Authorization", "Bearer " + assigneeToken)).andExpect(status().isOk()).andExpect(jsonPath("$.entries[0].status").value("IN_PROGRESS"));
+
+        // And the assignee can complete it, which the owner sees
+        mockMvc.perform(patch("/api/tasks/assigned/" + taskId).header("Authorization", "Bearer " + assigneeToken).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"DONE\"}")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.status").value("DONE"));
+
+        // And unassigning empties the inbox
+        mockMvc.perform(put("/api/tasks/" + taskId + "/assignee").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"assigneeId\":null}")).andExpect(status().isOk());
+        mockMvc.perform(get("/api/tasks/assigned").header("Authorization", "Bearer " + assigneeToken)).andExpect(status().isOk()).andExpect(jsonPath("$.entries.length()").value(0));
+        mockMvc.perform(patch("/api/tasks/assigned/" + taskId).header("Authorization", "Bearer " + assigneeToken).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"TO_DO\"}")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldUploadAndDownloadAttachmentRanges() throws Exception {
+        // Given two tasks
+        TaskDto task = new TaskDto("With Attachment", "Description", LocalDate.now().plusDays(3), "TO_DO");
+        Long firstTaskId = objectMapper.readValue(mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), TaskDto.class).getId();
+        Long secondTaskId = objectMapper.readValue(mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString(), TaskDto.class).getId();
+        byte[] content = "hello attachment world".getBytes(java.nio.charset.StandardCharsets.UTF_8);
+
+        // When the same content is attached to both
+        String uploaded = mockMvc.perform(post("/api/tasks/" + firstTaskId + "/attachments").header("Authorization", "Bearer " + jwtToken).param("name", "notes.txt").contentType(MediaType.TEXT_PLAIN).content(content)).andExpect(status().isCreated()).andExpect(jsonPath("$.size").value(content.length)).andReturn().getResponse().getContentAsString();
+        String sha256 = objectMapper.readTree(uploaded).get("sha256").asText();
+        Long attachmentId = objectMapper.readTree(uploaded).get("id").asLong();
+        mockMvc.perform(post("/api/tasks/" + secondTaskId + "/attachments").header("Authorization", "Bearer " + jwtToken).param("name", "copy.txt").contentType(MediaType.TEXT_PLAIN).content(content)).andExpect(status().isCreated()).andExpect(jsonPath("$.sha256").value(sha256));
+
+        // Then the whole file and single ranges can be downloaded
+        mockMvc.perform(get("/api/tasks/" + firstTaskId + "/attachments/" + attachmentId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(header().string("Accept-Ranges", "bytes")).andExpect(header().string("ETag", "\"" + sha256 + "\"")).andExpect(content().string("hello attachment world"));
+        mockMvc.perform(get("/api/tasks/" + firstTaskId + "/attachments/" + attachmentId).header("Authorization", "Bearer " + jwtToken).header("Range", "bytes=6-15")).andExpect(status().isPartialContent()).andExpect(header().string("Content-Range", "bytes 6-15/22")).andExpect(content().string("attachment"));
+        mockMvc.perform(get("/api/tasks/" + firstTaskId + "/attachments/" + attachmentId).header("Authorization", "Bearer " + jwtToken).header("Range", "bytes=100-")).andExpect(status().isRequestedRangeNotSatisfiable()).andExpect(header().string("Content-Range", "bytes */22"));
+
+        // And attachments are not visible through another task
+        mockMvc.perform(get("/api/tasks/" + secondTaskId + "/attachments/" + attachmentId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void shouldReturnBodyOnlyForSingleTask() throws Exception {
+        // Given a task with a body longer than the description limit
+        TaskDto task = new TaskDto("Long Task", "Short description", LocalDate.now().plusDays(3), "TO_DO");
+        String body = "Paragraph one.\n\n" + "Lorem ipsum dolor sit amet. ".repeat(100);
+        task.setBody(body);
+        String created = mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andExpect(jsonPath("$.body").doesNotExist()).andExpect(jsonPath("$.bodyPreview").exists()).andReturn().getResponse().getContentAsString();
+        Long taskId = objectMapper.readValue(created, TaskDto.class).getId();
+
+        // When / Then lists carry the preview only
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$[0].body").doesNotExist()).andExpect(jsonPath("$[0].bodyPreview").value(org.hamcrest.Matchers.startsWith("Paragraph one. Lorem ipsum")));
+
+        // And the single task carries the full body
+        mockMvc.perform(get("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.body").value(body));
+
+        // And patching with an empty body removes it
+        mockMvc.perform(patch("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"body\":\"\"}")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.body").doesNotExist()).andExpect(jsonPath("$.bodyPreview").doesNotExist());
+    }
+
+    @Test
+    void shouldRecordCompletionOnEveryWayToDone() throws Exception {
+        // Given
+        Long put = createTask("Put");
+        Long patched = createTask("Patched");
+        Long bulk = createTask("Bulk");
+        Long moved = createTask("Moved");
+
+        // When each is completed another way
+        TaskDto done = new TaskDto("Put", "Description", LocalDate.now().plusDays(1), "DONE");
+        mockMvc.perform(put("/api/tasks/" + put).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(done))).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/tasks/" + patched).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"DONE\"}")).andExpect(status().isNoContent());
+        mockMvc.perform(post("/api/tasks/bulk/status").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + bulk + "],\"status\":\"DONE\"}")).andExpect(status().isOk());
+        mockMvc.perform(put("/api/tasks/" + moved + "/position").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"DONE\"}")).andExpect(status().isNoContent());
+
+        // Then all of them record when
+        assertThat(jdbcTemplate.queryForList("select completed_at from tasks where id in (?, ?, ?, ?)", LocalDateTime.class, put, patched, bulk, moved))
+                .hasSize(4).allSatisfy(completedAt -> assertThat(completedAt).isCloseTo(LocalDateTime.now(), within(1, ChronoUnit.MINUTES)));
+
+        // And completing again keeps the first completion, while reopening clears it
+        LocalDateTime earlier = LocalDateTime.now().minusDays(3).truncatedTo(ChronoUnit.SECONDS);
+        jdbcTemplate.update("update tasks set completed_at = ? where id = ?", earlier, bulk);
+        mockMvc.perform(post("/api/tasks/bulk/status").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"ids\":[" + bulk + "],\"status\":\"DONE\"}")).andExpect(status().isOk());
+        mockMvc.perform(patch("/api/tasks/" + patched).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"status\":\"TO_DO\"}")).andExpect(status().isNoContent());
+        assertThat(jdbcTemplate.queryForObject("select completed_at from tasks where id = ?", LocalDateTime.class, bulk)).isEqualTo(earlier);
+        assertThat(jdbcTemplate.queryForObject("select completed_at from tasks where id = ?", LocalDateTime.class, patched)).isNull();
+    }
+
+    @Test
+    void shouldGiveTaskNewVersionWhenOnlyItsBodyChanges() throws Exception {
+        // Given a task whose body is longer than its preview
+        TaskDto task = new TaskDto("Long Task", "Short description", LocalDate.now().plusDays(3), "TO_DO");
+        String body = "Lorem ipsum dolor sit amet. ".repeat(20);
+        task.setBody(body + "First ending.");
+        String created = mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        TaskDto createdTask = objectMapper.readValue(created, TaskDto.class);
+        String etag = mockMvc.perform(get("/api/tasks/" + createdTask.getId()).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andReturn().getResponse().getHeader("ETag");
+
+        // When only the end of the body, past the preview, changes
+        task.setBody(body + "Second ending.");
+        mockMvc.perform(put("/api/tasks/" + createdTask.getId()).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isOk()).andExpect(jsonPath("$.bodyPreview").value(createdTask.getBodyPreview())).andExpect(jsonPath("$.version").value(1));
+
+        // Then the old entity tag neither validates a cached copy nor an update
+        mockMvc.perform(get("/api/tasks/" + createdTask.getId()).header("Authorization", "Bearer " + jwtToken).header("If-None-Match", etag)).andExpect(status().isOk()).andExpect(jsonPath("$.body").value(body + "Second ending.")).andExpect(header().string("ETag", not(etag)));
+        task.setBody(body + "Concurrent ending.");
+        mockMvc.perform(put("/api/tasks/" + createdTask.getId()).header("Authorization", "Bearer " + jwtToken).header("If-Match", etag).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isPreconditionFailed());
+        mockMvc.perform(get("/api/tasks/" + createdTask.getId()).header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$.body").value(body + "Second ending.")).andExpect(jsonPath("$.version").value(1));
+    }
+
+    @Test
+    void shouldServeCachedTaskListUntilTaskChanges() throws Exception {
+        // Given a rendered task list
+        TaskDto task = new TaskDto("Cached Task", "Description", LocalDate.now().plusDays(2), "TO_DO");
+        String created = mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        Long taskId = objectMapper.readValue(created, TaskDto.class).getId();
+        MvcResult first = mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$[0].title").value("Cached Task")).andReturn();
+        String etag = first.getResponse().getHeader("ETag");
+
+        // When / Then the same bytes and a matching ETag are served again
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(header().string("ETag", etag)).andExpect(content().bytes(first.getResponse().getContentAsByteArray()));
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken).header("If-None-Match", etag)).andExpect(status().isNotModified());
+
+        // And a write evicts the cached list
+        mockMvc.perform(patch("/api/tasks/" + taskId).header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content("{\"title\":\"Renamed Task\"}")).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/tasks").header("Authorization", "Bearer " + jwtToken).header("If-None-Match", etag)).andExpect(status().isOk()).andExpect(jsonPath("$[0].title").value("Renamed Task"));
+        mockMvc.perform(get("/api/tasks/status/to_do").header("Authorization", "Bearer " + jwtToken)).andExpect(status().isOk()).andExpect(jsonPath("$[0].title").value("Renamed Task"));
+    }
+
+    @Test
+    void shouldDropDisconnectedEventSubscriberAndResumeFromLastEventId() throws Exception {
+        // Given a subscriber that received the first change
+        Long userId = userRepository.findByUsername("testuser").orElseThrow().getId();
+        MvcResult stream = mockMvc.perform(get("/api/tasks/events").header("Authorization", "Bearer " + jwtToken)).andExpect(request().asyncStarted()).andReturn();
+        createTask("First Event");
+        awaitContent(stream, "id:1\n");
+
+        // When the client goes away
+        stream.getRequest().getAsyncContext().complete();
+
+        // Then it is unsubscribed, but the history is kept for a reconnect
+        assertThat(taskEventStreamService.subscriberCount(userId)).isZero();
+        taskEventStreamService.pruneIdleChannels();
+        assertThat(taskEventStreamService.hasChannel(userId)).isTrue();
+
+        // And a reconnect with Last-Event-ID receives only what it missed
+        createTask("Second Event");
+        MvcResult resumed = mockMvc.perform(get("/api/tasks/events").header("Authorization", "Bearer " + jwtToken).header("Last-Event-ID", "1")).andExpect(request().asyncStarted()).andReturn();
+        awaitContent(resumed, "Second Event");
+        assertThat(resumed.getResponse().getContentAsString()).contains("Second Event").doesNotContain("First Event");
+        resumed.getRequest().getAsyncContext().complete();
+
+        // And once idle past the retention the channel is dropped, so a late reconnect is told to reset
+        ReflectionTestUtils.setField(taskEventStreamService, "idleRetentionMs", 0L);
+        taskEventStreamService.pruneIdleChannels();
+        assertThat(taskEventStreamService.hasChannel(userId)).isFalse();
+        MvcResult late = mockMvc.perform(get("/api/tasks/events").header("Authorization", "Bearer " + jwtToken).header("Last-Event-ID", "2")).andExpect(request().asyncStarted()).andReturn();
+        awaitContent(late, "event:RESET");
+        late.getRequest().getAsyncContext().complete();
+    }
+
+    private Long createTask(String title) throws Exception {
+        TaskDto task = new TaskDto(title, "Description", LocalDate.now().plusDays(1), "TO_DO");
+        String response = mockMvc.perform(post("/api/tasks").header("Authorization", "Bearer " + jwtToken).contentType(MediaType.APPLICATION_JSON).content(objectMapper.writeValueAsString(task))).andExpect(status().isCreated()).andReturn().getResponse().getContentAsString();
+        return objectMapper.readValue(response, TaskDto.class).getId();
+    }
+
+    private static void awaitContent(MvcResult stream, String expected) throws Exception {
+        for (int attempt = 0; attempt < 50 && !stream.getResponse().getContentAsString().contains(expected); attempt++) {
+            Thread.sleep(50);
+        }
+        assertThat(stream.getResponse().getContentAsString()).contains(expected);
+    }
+}
@@ -1,6 +1,7 @@
 package dev.tasksys.repository;
 
 import dev.tasksys.model.Task;
+import dev.tasksys.model.TaskDependency;
 import dev.tasksys.model.TaskStatus;
 import dev.tasksys.model.User;
 import org.junit.jupiter.api.BeforeEach;
@@ -134,4 +135,130 @@ class TaskRepositoryTest {
         assertThat(user2Tasks).hasSize(1); // user2's task should be unaffected
         assertThat(user1Tasks.getFirst().getTitle()).isEqualTo("Task 2");
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldUpdateStatusByFilterOnlyForOwner() {
+        // When
+        int affected = taskRepository.updateStatusByFilter(user1.getId(), TaskStatus.TO_DO, null, null, TaskStatus.DONE);
+        entityManager.clear();
+
+        // Then
+        assertThat(affected).isEqualTo(1);
+        assertThat(taskRepository.findByUserIdAndStatus(user1.getId(), TaskStatus.DONE)).hasSize(2);
+        assertThat(taskRepository.findByUserIdAndStatus(user2.getId(), TaskStatus.TO_DO)).hasSize(1);
+        assertThat(taskRepository.findById(task1.getId())).get().extracting(Task::getVersion).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldDeleteByIdsOnlyForOwner() {
+        // When
+        int affected = taskRepository.deleteByIds(user1.getId(), List.of(task1.getId(), task3.getId()));
+        entityManager.clear();
+
+        // Then
+        assertThat(affected).isEqualTo(1);
+        assertThat(taskRepository.findByUserId(user1.getId())).hasSize(1);
+        assertThat(taskRepository.findByUserId(user2.getId())).hasSize(1);
+    }
+
+    @Test
+    void shouldDeleteByDueDateRange() {
+        // When
+        int affected = taskRepository.deleteByFilter(user1.getId(), null, LocalDate.now().minusDays(1), LocalDate.now().plusDays(1));
+        entityManager.clear();
+
+        // Then
+        assertThat(affected).isEqualTo(2);
+        assertThat(taskRepository.findByUserId(user1.getId())).isEmpty();
+    }
+
+    @Test
+    void shouldDetachDependenciesAndSubtasksOfBulkDeletedTasks() {
+        // Given
+        Task subtask = new Task("Subtask", "Description", LocalDate.now(), TaskStatus.TO_DO, user1);
+        subtask.setParentId(task1.getId());
+        entityManager.persist(subtask);
+        entityManager.persist(new TaskDependency(user1.getId(), task2.getId(), task1.getId()));
+        entityManager.persist(new TaskDependency(user1.getId(), subtask.getId(), task2.getId()));
+        entityManager.flush();
+
+        // When
+        int dependencies = taskRepository.deleteDependenciesOfUserTasks(user1.getId(), List.of(task1.getId()));
+        int subtasks = taskRepository.clearParentOfUserTasks(user1.getId(), List.of(task1.getId()));
+        int deleted = taskRepository.deleteByIds(user1.getId(), List.of(task1.getId()));
+        entityManager.clear();
+
+        // Then
+        assertThat(dependencies).isEqualTo(1);
+        assertThat(subtasks).isEqualTo(1);
+        assertThat(deleted).isEqualTo(1);
+        assertThat(taskRepository.findById(subtask.getId())).get().extracting(Task::getParentId).isNull();
+        assertThat(entityManager.getEntityManager().createQuery("select count(d) from TaskDependency d", Long.class)
+                .getSingleResult()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldDetachDependenciesAndSubtasksOfTasksMatchingBulkFilter() {
+        // Given
+        Task subtask = new Task("Subtask", "Description", LocalDate.now().plusDays(5), TaskStatus.TO_DO, user1);
+        subtask.setParentId(task2.getId());
+        entityManager.persist(subtask);
+        entityManager.persist(new TaskDependency(user1.getId(), subtask.getId(), task2.getId()));
+        entityManager.persist(new TaskDependency(user1.getId(), task2.getId(), task1.getId()));
+        entityManager.flush();
+
+        // When
+        int dependencies = taskRepository.deleteDependenciesByFilter(user1.getId(), TaskStatus.DONE, null, null);
+        int subtasks = taskRepository.clearParentByFilter(user1.getId(), TaskStatus.DONE, null, null);
+        int deleted = taskRepository.deleteByFilter(user1.getId(), TaskStatus.DONE, null, null);
+        entityManager.clear();
+
+        // Then
+        assertThat(dependencies).isEqualTo(2);
+        assertThat(subtasks).isEqualTo(1);
+        assertThat(deleted).isEqualTo(1);
+        assertThat(taskRepository.findById(subtask.getId())).get().extracting(Task::getParentId).isNull();
+        assertThat(taskRepository.findById(task1.getId())).isPresent();
+    }
+
+    @Test
+    void shouldPatchOnlyProvidedFieldsWhenVersionMatches() {
+        // When
+        int stale = taskRepository.patch(task1.getId(), user1.getId(), 7L, null, null, null, TaskStatus.DONE);
+        int patched = taskRepository.patch(task1.getId(), user1.getId(), 0L, null, null, null, TaskStatus.DONE);
+        int otherUser = taskRepository.patch(task1.getId(), user2.getId(), null, "Hijacked", null, null, null);
+        entityManager.clear();
+
+        // Then
+        assertThat(stale).isZero();
+        assertThat(patched).isEqualTo(1);
+        assertThat(otherUser).isZero();
+        Task reloaded = taskRepository.findById(task1.getId()).orElseThrow();
+        assertThat(reloaded.getStatus()).isEqualTo(TaskStatus.DONE);
+        assertThat(reloaded.getTitle()).isEqualTo("Task 1");
+        assertThat(reloaded.getDescription()).isEqualTo("Description 1");
+        assertThat(reloaded.getVersion()).isEqualTo(1L);
+    }
+
+    @Test
+    void shouldReturnTasksInBoardOrderWithUnpositionedTasksLast() {
+        // Given
+        Task first = new Task("First", "Positioned", LocalDate.now(), TaskStatus.TO_DO, user1);
+        first.setPosition("a");
+        Task second = new Task("Second", "Positioned", LocalDate.now(), TaskStatus.TO_DO, user1);
+        second.setPosition("a8");
+        entityManager.persist(first);
+        entityManager.persist(second);
+        entityManager.flush();
+
+        // When
+        int moved = taskRepository.move(first.getId(), user1.getId(), 0L, "b", null);
+        entityManager.clear();
+        List<Task> board = taskRepository.findByUserIdAndStatusInBoardOrder(user1.getId(), TaskStatus.TO_DO);
+
+        // Then
+        assertThat(moved).isEqualTo(1);
+        assertThat(board).extracting(Task::getTitle).containsExactly("Second", "First", "Task 1");
+        assertThat(taskRepository.findLastPosition(user1.getId(), TaskStatus.TO_DO)).contains("b");
+    }
+}
@@ -0,0 +1,127 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.AttachmentTooLargeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FileSystemAttachmentStoreTest {
+
+    @TempDir
+    Path root;
+
+    private FileSystemAttachmentStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        store = new FileSystemAttachmentStore();
+        ReflectionTestUtils.setField(store, "root", root.toString());
+        store.init();
+    }
+
+    @Test
+    void shouldStoreContentUnderItsHashOnce() throws Exception {
+        // Given
+        byte[] content = "hello attachment world".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        AttachmentStore.StoredBlob first = store.store(new ByteArrayInputStream(content), 1024);
+        AttachmentStore.StoredBlob second = store.store(new ByteArrayInputStream(content), 1024);
+
+        // Then
+        assertThat(first.sha256()).isEqualTo("7386a92439e0aa09c742d463152be96cbbe2884868a988b5c071a6f7c16c2f43");
+        assertThat(first).isEqualTo(second);
+        assertThat(first.size()).isEqualTo(content.length);
+        assertThat(store.localFile(first.sha256())).isPresent();
+        try (var files = Files.list(root.resolve("tmp"))) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    void shouldTransferRequestedRange() throws Exception {
+        // Given
+        AttachmentStore.StoredBlob blob = store.store(new ByteArrayInputStream("hello attachment world".getBytes(StandardCharsets.UTF_8)), 1024);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long sent = store.transferTo(blob.sha256(), 6, 10, Channels.newChannel(out));
+
+        // Then
+        assertThat(sent).isEqualTo(10);
+        assertThat(out.toString(StandardCharsets.UTF_8)).isEqualTo("attachment");
+    }
+
+    @Test
+    void shouldRejectContentOverMaximumSize() {
+        // Given
+        byte[] content = new byte[2048];
+
+        // When / Then
+        assertThatThrownBy(() -> store.store(new ByteArrayInputStream(content), 1024))
+                .isInstanceOf(AttachmentTooLargeException.class);
+        assertThat(root.resolve("tmp").toFile().list()).isEmpty();
+    }
+
+    @Test
+    void shouldQuarantineAndDeleteBlobsOlderThanCutoff() throws Exception {
+        // Given
+        AttachmentStore.StoredBlob blob = store.store(new ByteArrayInputStream(new byte[]{1, 2, 3}), 1024);
+        Instant cutoff = Instant.now().plusSeconds(60);
+
+        // When
+        assertThat(store.findUnmodifiedSince(Instant.now().minusSeconds(3600))).isEmpty();
+        assertThat(store.findUnmodifiedSince(cutoff)).containsExactly(blob.sha256());
+        assertThat(store.quarantine(blob.sha256(), cutoff)).isTrue();
+
+        // Then it is no longer listed but can still be read, until it is deleted
+        assertThat(store.findUnmodifiedSince(cutoff)).isEmpty();
+        assertThat(store.findQuarantined()).containsExactly(blob.sha256());
+        assertThat(store.localFile(blob.sha256())).isPresent();
+        store.deleteQuarantined(blob.sha256());
+        assertThat(store.localFile(blob.sha256())).isEmpty();
+        assertThat(store.findQuarantined()).isEmpty();
+    }
+
+    @Test
+    void shouldNotQuarantineBlobRefreshedAfterItWasListed() throws Exception {
+        // Given a blob listed as old, then refreshed by a duplicate upload
+        byte[] content = {4, 5, 6};
+        AttachmentStore.StoredBlob blob = store.store(new ByteArrayInputStream(content), 1024);
+        Instant cutoff = Instant.now().minusSeconds(1);
+        Files.setLastModifiedTime(store.localFile(blob.sha256()).orElseThrow(), FileTime.from(cutoff.minusSeconds(3600)));
+        assertThat(store.findUnmodifiedSince(cutoff)).containsExactly(blob.sha256());
+        store.store(new ByteArrayInputStream(content), 1024);
+
+        // When / Then
+        assertThat(store.quarantine(blob.sha256(), cutoff)).isFalse();
+        assertThat(store.findQuarantined()).isEmpty();
+    }
+
+    @Test
+    void shouldRestoreQuarantinedBlob() throws Exception {
+        // Given
+        AttachmentStore.StoredBlob blob = store.store(new ByteArrayInputStream(new byte[]{7, 8, 9}), 1024);
+        store.quarantine(blob.sha256(), Instant.now().plusSeconds(60));
+
+        // When
+        store.restore(blob.sha256());
+
+        // Then
+        assertThat(store.findQuarantined()).isEmpty();
+        assertThat(store.findUnmodifiedSince(Instant.now().plusSeconds(60))).containsExactly(blob.sha256());
+    }
+}
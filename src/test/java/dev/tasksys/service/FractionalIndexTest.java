@@ -0,0 +1,80 @@
+package dev.tasksys.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FractionalIndexTest {
+
+    @Test
+    void shouldPlaceKeyStrictlyBetweenNeighbours() {
+        // Given
+        String[][] neighbours = {{null, null}, {null, "1"}, {"a", "b"}, {"a", "a1"}, {"az", "b"}, {"0i", "1"}, {"y", null}, {"zz", null}};
+
+        // When & Then
+        for (String[] pair : neighbours) {
+            String key = FractionalIndex.between(pair[0], pair[1]);
+            if (pair[0] != null) {
+                assertThat(key).isGreaterThan(pair[0]);
+            }
+            if (pair[1] != null) {
+                assertThat(key).isLessThan(pair[1]);
+            }
+            assertThat(key).doesNotEndWith("0");
+        }
+    }
+
+    @Test
+    void shouldKeepKeysOrderedUnderRepeatedInsertsAtTheSameSpot() {
+        // Given
+        String low = "a";
+        String high = "b";
+
+        // When
+        for (int i = 0; i < 200; i++) {
+            String key = FractionalIndex.between(low, high);
+
+            // Then
+            assertThat(key).isGreaterThan(low).isLessThan(high);
+            high = key;
+        }
+    }
+
+    @Test
+    void shouldKeepAppendedKeysShort() {
+        // Given
+        String last = FractionalIndex.between(null, null);
+
+        // When
+        for (int i = 0; i < 300; i++) {
+            String next = FractionalIndex.between(last, null);
+            assertThat(next).isGreaterThan(last);
+            last = next;
+        }
+
+        // Then
+        assertThat(last.length()).isLessThanOrEqualTo(12);
+    }
+
+    @Test
+    void shouldSpreadKeysEvenlyAndInOrder() {
+        // When
+        List<String> keys = FractionalIndex.spread(1000);
+
+        // Then
+        List<String> sorted = new ArrayList<>(keys);
+        sorted.sort(null);
+        assertThat(keys).doesNotHaveDuplicates().isEqualTo(sorted);
+        assertThat(keys).allMatch(key -> key.length() <= 3 && !key.endsWith("0"));
+    }
+
+    @Test
+    void shouldRejectOutOfOrderNeighbours() {
+        // When & Then
+        assertThatThrownBy(() -> FractionalIndex.between("b", "a")).isInstanceOf(IllegalArgumentException.class);
+    }
+}
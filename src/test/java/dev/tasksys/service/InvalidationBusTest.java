@@ -0,0 +1,139 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.CacheInvalidationEvent;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.UserChangeEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InvalidationBusTest {
+
+    @Mock
+    private ApplicationEventPublisher localPublisher;
+
+    @Mock
+    private ApplicationEventPublisher remotePublisher;
+
+    private InvalidationBus local;
+    private InvalidationBus remote;
+
+    @BeforeEach
+    void setUp() {
+        LoopbackInvalidationTransport transport = new LoopbackInvalidationTransport();
+        local = bus(transport, localPublisher);
+        remote = bus(transport, remotePublisher);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        local.stop();
+        remote.stop();
+    }
+
+    @Test
+    void shouldDeliverBatchedChangesToOtherNodesOnly() {
+        // Given
+        local.onTaskChange(TaskChangeEvent.patched(1L, 10L));
+        local.onTaskChange(TaskChangeEvent.deleted(1L, 11L));
+        local.onTaskChange(TaskChangeEvent.patched(2L, 20L));
+        local.userChanged(3L);
+
+        // When
+        local.flush();
+
+        // Then
+        ArgumentCaptor<CacheInvalidationEvent> event = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(remotePublisher).publishEvent(event.capture());
+        assertFalse(event.getValue().isEverything());
+        assertFalse(event.getValue().isAllTasks());
+        assertEquals(Set.of(1L, 2L), event.getValue().getTaskOwnerIds());
+        assertEquals(Set.of(10L, 11L, 20L), event.getValue().getTaskIds());
+        assertEquals(Set.of(3L), event.getValue().getUserIds());
+        verify(localPublisher, never()).publishEvent(any(CacheInvalidationEvent.class));
+    }
+
+    @Test
+    void shouldTellLocalListenersWhichUserChanged() {
+        // When
+        local.userChanged(3L);
+
+        // Then
+        ArgumentCaptor<UserChangeEvent> event = ArgumentCaptor.forClass(UserChangeEvent.class);
+        verify(localPublisher).publishEvent(event.capture());
+        assertEquals(3L, event.getValue().getUserId());
+    }
+
+    @Test
+    void shouldInvalidateAllTasksOfUserAfterBulkChange() {
+        // Given
+        local.onTaskChange(TaskChangeEvent.patched(1L, 10L));
+        local.onTaskChange(TaskChangeEvent.bulkUpdated(1L));
+
+        // When
+        local.flush();
+
+        // Then
+        ArgumentCaptor<CacheInvalidationEvent> event = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(remotePublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().isAllTasks());
+        assertTrue(event.getValue().affectsTasksOf(1L));
+        assertFalse(event.getValue().affectsTasksOf(2L));
+    }
+
+    @Test
+    void shouldInvalidateEverythingWhenBatchDoesNotFitInOneMessage() {
+        // Given
+        ReflectionTestUtils.setField(local, "maxMessageBytes", 64);
+        for (long taskId = 1000; taskId < 1100; taskId++) {
+            local.onTaskChange(TaskChangeEvent.patched(1L, taskId));
+        }
+
+        // When
+        local.flush();
+
+        // Then
+        ArgumentCaptor<CacheInvalidationEvent> event = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(remotePublisher).publishEvent(event.capture());
+        assertTrue(event.getValue().isEverything());
+    }
+
+    @Test
+    void shouldSendNothingWithoutChanges() {
+        // When
+        local.flush();
+
+        // Then
+        verifyNoInteractions(remotePublisher);
+    }
+
+    @Test
+    void shouldInvalidateEverythingOnUnreadableMessage() {
+        // When
+        remote.receive("garbage");
+
+        // Then
+        verify(remotePublisher).publishEvent(any(CacheInvalidationEvent.class));
+    }
+
+    private static InvalidationBus bus(InvalidationTransport transport, ApplicationEventPublisher publisher) {
+        InvalidationBus bus = new InvalidationBus(transport, publisher);
+        ReflectionTestUtils.setField(bus, "flushIntervalMs", 3600000L);
+        ReflectionTestUtils.setField(bus, "maxMessageBytes", 7900);
+        bus.start();
+        return bus;
+    }
+}
@@ -0,0 +1,60 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.RecurrenceFrequency;
+import dev.tasksys.model.TaskRecurrence;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RecurrenceRuleTest {
+
+    @Test
+    void shouldExpandOnlyTheRequestedWindow() {
+        // Given
+        TaskRecurrence daily = recurrence(RecurrenceFrequency.DAILY, 2, LocalDate.of(2020, 1, 1), null);
+
+        // When
+        var dates = RecurrenceRule.occurrences(daily, LocalDate.of(2030, 6, 1), LocalDate.of(2030, 6, 6));
+
+        // Then
+        assertThat(dates).hasSize(3).allMatch(date -> date.isAfter(LocalDate.of(2030, 5, 31)) && date.isBefore(LocalDate.of(2030, 6, 7)));
+        assertThat(dates.get(1)).isEqualTo(dates.get(0).plusDays(2));
+    }
+
+    @Test
+    void shouldKeepMonthEndWithoutDrift() {
+        // Given
+        TaskRecurrence monthly = recurrence(RecurrenceFrequency.MONTHLY, 1, LocalDate.of(2025, 1, 31), null);
+
+        // When
+        var dates = RecurrenceRule.occurrences(monthly, LocalDate.of(2025, 2, 1), LocalDate.of(2025, 4, 30));
+
+        // Then
+        assertThat(dates).containsExactly(LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 31), LocalDate.of(2025, 4, 30));
+        assertThat(RecurrenceRule.occursOn(monthly, LocalDate.of(2025, 2, 28))).isTrue();
+        assertThat(RecurrenceRule.occursOn(monthly, LocalDate.of(2025, 3, 30))).isFalse();
+    }
+
+    @Test
+    void shouldRespectStartAndUntilDates() {
+        // Given
+        TaskRecurrence weekly = recurrence(RecurrenceFrequency.WEEKLY, 1, LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 15));
+
+        // When & Then
+        assertThat(RecurrenceRule.occurrences(weekly, LocalDate.of(2025, 8, 1), LocalDate.of(2025, 12, 31)))
+                .containsExactly(LocalDate.of(2025, 9, 1), LocalDate.of(2025, 9, 8), LocalDate.of(2025, 9, 15));
+        assertThat(RecurrenceRule.occurrences(weekly, LocalDate.of(2025, 9, 16), LocalDate.of(2025, 12, 31))).isEmpty();
+    }
+
+    private TaskRecurrence recurrence(RecurrenceFrequency frequency, int interval, LocalDate start, LocalDate until) {
+        TaskRecurrence recurrence = new TaskRecurrence();
+        recurrence.setTitle("Standup");
+        recurrence.setFrequency(frequency);
+        recurrence.setInterval(interval);
+        recurrence.setStartDate(start);
+        recurrence.setUntilDate(until);
+        return recurrence;
+    }
+}
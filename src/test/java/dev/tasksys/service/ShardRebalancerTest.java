@@ -0,0 +1,73 @@
+package dev.tasksys.service;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ShardRebalancerTest {
+
+    private JdbcTemplate source;
+    private JdbcTemplate target;
+
+    @BeforeEach
+    void setUp() {
+        source = shard("rebalancer-source");
+        target = shard("rebalancer-target");
+        for (JdbcTemplate shard : new JdbcTemplate[]{source, target}) {
+            shard.update("insert into tasks (id, user_id, version, board_position) values (1, 7, 0, 'a0'), (2, 7, 3, 'a1')");
+            shard.update("insert into task_bodies (task_id, user_id) values (1, 7)");
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        source.execute("drop all objects");
+        target.execute("drop all objects");
+    }
+
+    @Test
+    void shouldAcceptExactCopy() {
+        // When / Then
+        assertThatCode(() -> ShardRebalancer.verify(source, target, 7L)).doesNotThrowAnyException();
+    }
+
+    @Test
+    void shouldRejectCopyOfRowChangedInPlace() {
+        // Given a position rebalance on the source after the copy, which keeps row counts and keys
+        source.update("update tasks set board_position = 'a5', version = version + 1 where id = 1");
+
+        // When / Then
+        assertThatThrownBy(() -> ShardRebalancer.verify(source, target, 7L))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("Copy of tasks does not match the source");
+    }
+
+    @Test
+    void shouldRejectCopyMissingRow() {
+        // Given
+        source.update("insert into tasks (id, user_id, version) values (3, 7, 0)");
+
+        // When / Then
+        assertThatThrownBy(() -> ShardRebalancer.verify(source, target, 7L)).isInstanceOf(IllegalStateException.class);
+    }
+
+    // Only the columns the check reads
+    private static JdbcTemplate shard(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate shard = new JdbcTemplate(dataSource);
+        shard.execute("create table task_recurrences (id bigint primary key, user_id bigint not null, version bigint not null)");
+        shard.execute("create table tasks (id bigint primary key, user_id bigint not null, version bigint not null, board_position varchar(64))");
+        shard.execute("create table task_bodies (task_id bigint primary key, user_id bigint not null)");
+        shard.execute("create table task_dependencies (id bigint primary key, user_id bigint not null)");
+        shard.execute("create table task_attachments (id bigint primary key, user_id bigint not null)");
+        shard.execute("create table archived_tasks (id bigint primary key, user_id bigint not null)");
+        shard.execute("create table task_inbox (id bigint primary key, owner_id bigint not null)");
+        return shard;
+    }
+}
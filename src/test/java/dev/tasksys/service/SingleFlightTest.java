@@ -0,0 +1,119 @@
+package dev.tasksys.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> singleFlight = new SingleFlight<>();
+
+    @Test
+    void shouldShareOneExecutionBetweenConcurrentCallers() throws Exception {
+        // Given
+        AtomicInteger executions = new AtomicInteger();
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+
+        try {
+            // When
+            Future<String> leader = executor.submit(() -> singleFlight.execute("user:1", () -> {
+                executions.incrementAndGet();
+                started.countDown();
+                await(release);
+                return "tasks";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            List<Future<String>> followers = List.of(
+                    executor.submit(() -> singleFlight.execute("user:1", () -> "duplicate " + executions.incrementAndGet())),
+                    executor.submit(() -> singleFlight.execute("user:1", () -> "duplicate " + executions.incrementAndGet())));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            assertEquals("tasks", leader.get(5, TimeUnit.SECONDS));
+            for (Future<String> follower : followers) {
+                assertEquals("tasks", follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, executions.get());
+            assertEquals(0, singleFlight.inFlight());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldPropagateFailureToWaitingCallers() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<String> leader = executor.submit(() -> singleFlight.execute("user:1", () -> {
+                started.countDown();
+                await(release);
+                throw new IllegalStateException("database unavailable");
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<String> follower = executor.submit(() -> singleFlight.execute("user:1", () -> "unexpected"));
+            Thread.sleep(100);
+            release.countDown();
+
+            // Then
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, leaderFailure.getCause());
+            assertInstanceOf(IllegalStateException.class, followerFailure.getCause());
+            assertEquals("tasks", singleFlight.execute("user:1", () -> "tasks"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void shouldStartNewExecutionAfterKeyIsForgotten() throws Exception {
+        // Given
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        try {
+            Future<String> stale = executor.submit(() -> singleFlight.execute("user:1", () -> {
+                started.countDown();
+                await(release);
+                return "before write";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            singleFlight.forget(key -> key.equals("user:1"));
+            String fresh = singleFlight.execute("user:1", () -> "after write");
+            release.countDown();
+
+            // Then
+            assertEquals("after write", fresh);
+            assertEquals("before write", stale.get(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
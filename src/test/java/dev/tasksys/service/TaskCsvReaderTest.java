@@ -0,0 +1,51 @@
+package dev.tasksys.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TaskCsvReaderTest {
+
+    @Test
+    void shouldReadQuotedFieldsWithCommasQuotesAndNewlines() throws IOException {
+        // Given
+        TaskCsvReader reader = new TaskCsvReader(new StringReader(
+                "title,description\r\n\"Plan, then ship\",\"Say \"\"hi\"\"\nsecond line\"\n\nlast,\n"));
+
+        // When & Then
+        assertThat(reader.readRecord()).containsExactly("title", "description");
+        assertThat(reader.readRecord()).containsExactly("Plan, then ship", "Say \"hi\"\nsecond line");
+        assertThat(reader.readRecord()).containsExactly("last", "");
+        assertThat(reader.recordLine()).isEqualTo(5);
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void shouldReadLastRecordWithoutTrailingNewline() throws IOException {
+        // Given
+        TaskCsvReader reader = new TaskCsvReader(new StringReader("a,b\nc,d"));
+
+        // When
+        reader.readRecord();
+        List<String> last = reader.readRecord();
+
+        // Then
+        assertThat(last).containsExactly("c", "d");
+        assertThat(reader.readRecord()).isNull();
+    }
+
+    @Test
+    void shouldFailOnUnterminatedQuote() throws IOException {
+        // Given
+        TaskCsvReader reader = new TaskCsvReader(new StringReader("title\n\"open"));
+        reader.readRecord();
+
+        // When & Then
+        assertThatThrownBy(reader::readRecord).isInstanceOf(IOException.class).hasMessageContaining("line 2");
+    }
+}
@@ -0,0 +1,95 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDto;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TaskEventStreamServiceTest {
+
+    private TaskEventStreamService taskEventStreamService;
+
+    @BeforeEach
+    void setUp() {
+        taskEventStreamService = new TaskEventStreamService();
+        ReflectionTestUtils.setField(taskEventStreamService, "timeoutMs", 60000L);
+        ReflectionTestUtils.setField(taskEventStreamService, "bufferSize", 4);
+        ReflectionTestUtils.setField(taskEventStreamService, "historySize", 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        taskEventStreamService.shutdown();
+    }
+
+    @Test
+    void shouldIgnoreEventsForUsersWithoutSubscribers() {
+        // When
+        taskEventStreamService.onTaskChange(TaskChangeEvent.deleted(1L, 10L));
+
+        // Then
+        assertThat(taskEventStreamService.subscriberCount(1L)).isZero();
+        assertThat(taskEventStreamService.eventsAfter(1L, 0)).isEmpty();
+    }
+
+    @Test
+    void shouldKeepBoundedHistoryPerUser() {
+        // Given
+        taskEventStreamService.subscribe(1L, null);
+
+        // When
+        for (long id = 1; id <= 5; id++) {
+            taskEventStreamService.onTaskChange(TaskChangeEvent.created(1L, taskDto(id)));
+        }
+
+        // Then
+        assertThat(taskEventStreamService.eventsAfter(1L, 0))
+                .extracting(TaskEventStreamService.StoredEvent::id)
+                .containsExactly(3L, 4L, 5L);
+        assertThat(taskEventStreamService.eventsAfter(1L, 4))
+                .extracting(TaskEventStreamService.StoredEvent::id)
+                .containsExactly(5L);
+    }
+
+    @Test
+    void shouldIsolateEventsBetweenUsers() {
+        // Given
+        taskEventStreamService.subscribe(1L, null);
+        taskEventStreamService.subscribe(2L, null);
+
+        // When
+        taskEventStreamService.onTaskChange(TaskChangeEvent.created(1L, taskDto(1L)));
+
+        // Then
+        assertThat(taskEventStreamService.eventsAfter(1L, 0)).hasSize(1);
+        assertThat(taskEventStreamService.eventsAfter(2L, 0)).isEmpty();
+        assertThat(taskEventStreamService.subscriberCount(1L)).isEqualTo(1);
+        assertThat(taskEventStreamService.subscriberCount(2L)).isEqualTo(1);
+    }
+
+    @Test
+    void shouldNotPruneChannelsWithSubscribers() {
+        // Given
+        ReflectionTestUtils.setField(taskEventStreamService, "idleRetentionMs", 0L);
+        taskEventStreamService.subscribe(1L, null);
+
+        // When
+        taskEventStreamService.pruneIdleChannels();
+
+        // Then
+        assertThat(taskEventStreamService.hasChannel(1L)).isTrue();
+        assertThat(taskEventStreamService.subscriberCount(1L)).isEqualTo(1);
+    }
+
+    private TaskDto taskDto(Long id) {
+        TaskDto dto = new TaskDto("Task " + id, "Description", LocalDate.now(), "TO_DO");
+        dto.setId(id);
+        return dto;
+    }
+}
@@ -0,0 +1,200 @@
+package dev.tasksys.service;
+
+import dev.tasksys.exception.TaskDependencyCycleException;
+import dev.tasksys.model.TaskChangeEvent;
+import dev.tasksys.model.TaskDependency;
+import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskGraphDto;
+import dev.tasksys.model.TaskStatus;
+import dev.tasksys.model.User;
+import dev.tasksys.repository.TaskDependencyRepository;
+import dev.tasksys.repository.TaskRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockedStatic;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaskGraphServiceTest {
+
+    @Mock
+    private TaskRepository taskRepository;
+
+    @Mock
+    private TaskDependencyRepository dependencyRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SecurityContext securityContext;
+
+    @Mock
+    private Authentication authentication;
+
+    @InjectMocks
+    private TaskGraphService taskGraphService;
+
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        testUser = new User("testuser", "test@example.com", "password");
+        testUser.setId(1L);
+        ReflectionTestUtils.setField(taskGraphService, "maxCachedUsers", 100);
+    }
+
+    @Test
+    void shouldRejectDependencyThatClosesCycle() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given task 1 is blocked by task 3, which waits for its subtask 2
+            authenticate(mockedSecurityContext);
+            when(taskRepository.findGraphNodes(1L)).thenReturn(nodes(
+                    new Object[]{1L, TaskStatus.TO_DO, null},
+                    new Object[]{2L, TaskStatus.TO_DO, 3L},
+                    new Object[]{3L, TaskStatus.TO_DO, null}));
+            when(dependencyRepository.findByUserId(1L)).thenReturn(List.of(new TaskDependency(1L, 1L, 3L)));
+            when(taskRepository.countByUserIdAndIdIn(eq(1L), anyList())).thenReturn(2L);
+
+            // When / Then
+            assertThatThrownBy(() -> taskGraphService.addDependency(2L, 1L))
+                    .isInstanceOf(TaskDependencyCycleException.class);
+            verify(dependencyRepository, never()).save(any(TaskDependency.class));
+        }
+    }
+
+    @Test
+    void shouldRejectParentThatBlocksTask() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given task 1 is blocked by task 2
+            authenticate(mockedSecurityContext);
+            when(taskRepository.findGraphNodes(1L)).thenReturn(nodes(
+                    new Object[]{1L, TaskStatus.TO_DO, null},
+                    new Object[]{2L, TaskStatus.TO_DO, null}));
+            when(dependencyRepository.findByUserId(1L)).thenReturn(List.of(new TaskDependency(1L, 1L, 2L)));
+            when(taskRepository.countByUserIdAndIdIn(eq(1L), anyList())).thenReturn(2L);
+
+            // When / Then
+            assertThatThrownBy(() -> taskGraphService.setParent(1L, 2L))
+                    .isInstanceOf(TaskDependencyCycleException.class);
+            verify(taskRepository, never()).updateParent(any(), any(), any());
+        }
+    }
+
+    @Test
+    void shouldAddDependencyAndUpdateReadiness() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            authenticate(mockedSecurityContext);
+            when(taskRepository.findGraphNodes(1L)).thenReturn(nodes(
+                    new Object[]{1L, TaskStatus.TO_DO, null},
+                    new Object[]{2L, TaskStatus.IN_PROGRESS, null}));
+            when(dependencyRepository.findByUserId(1L)).thenReturn(List.of());
+            when(taskRepository.countByUserIdAndIdIn(eq(1L), anyList())).thenReturn(2L);
+
+            // When
+            taskGraphService.addDependency(1L, 2L);
+            TaskGraphDto.Readiness readiness = taskGraphService.getReadiness(1L);
+
+            // Then
+            assertThat(readiness.isReady()).isFalse();
+            assertThat(readiness.getOpenBlockers()).containsExactly(2L);
+            assertThat(taskGraphService.getReadyTaskIds()).containsExactly(2L);
+            verify(dependencyRepository).save(any(TaskDependency.class));
+            verify(eventPublisher).publishEvent(any(TaskChangeEvent.class));
+        }
+    }
+
+    @Test
+    void shouldReportTasksUnblockedByCompletion() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given task 2 is blocked only by task 1, task 3 by tasks 1 and 4, and task 1 is a subtask of task 5
+            authenticate(mockedSecurityContext);
+            when(taskRepository.findGraphNodes(1L)).thenReturn(nodes(
+                    new Object[]{1L, TaskStatus.IN_PROGRESS, 5L},
+                    new Object[]{2L, TaskStatus.TO_DO, null},
+                    new Object[]{3L, TaskStatus.TO_DO, null},
+                    new Object[]{4L, TaskStatus.TO_DO, null},
+                    new Object[]{5L, TaskStatus.TO_DO, null}));
+            when(dependencyRepository.findByUserId(1L)).thenReturn(List.of(
+                    new TaskDependency(1L, 2L, 1L),
+                    new TaskDependency(1L, 3L, 1L),
+                    new TaskDependency(1L, 3L, 4L)));
+
+            // When
+            TaskGraphDto.Unblocks unblocks = taskGraphService.getUnblocks(1L);
+
+            // Then
+            assertThat(unblocks.getUnblocked()).containsExactly(2L, 5L);
+        }
+    }
+
+    @Test
+    void shouldApplyStatusChangesToCachedGraph() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            authenticate(mockedSecurityContext);
+            when(taskRepository.findGraphNodes(1L)).thenReturn(nodes(
+                    new Object[]{1L, TaskStatus.TO_DO, null},
+                    new Object[]{2L, TaskStatus.TO_DO, null}));
+            when(dependencyRepository.findByUserId(1L)).thenReturn(List.of(new TaskDependency(1L, 1L, 2L)));
+            assertThat(taskGraphService.getReadyTaskIds()).containsExactly(2L);
+
+            TaskDto done = new TaskDto("Blocker", null, LocalDate.now(), "DONE");
+            done.setId(2L);
+
+            // When
+            taskGraphService.onTaskChange(TaskChangeEvent.updated(1L, done));
+
+            // Then
+            assertThat(taskGraphService.getReadyTaskIds()).containsExactly(1L);
+            verify(taskRepository, times(1)).findGraphNodes(1L);
+        }
+    }
+
+    @Test
+    void shouldEvictGraphOnBulkChange() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            authenticate(mockedSecurityContext);
+            when(taskRepository.findGraphNodes(1L)).thenReturn(nodes(new Object[]{1L, TaskStatus.TO_DO, null}));
+            when(dependencyRepository.findByUserId(1L)).thenReturn(List.of());
+            taskGraphService.getReadyTaskIds();
+
+            // When
+            taskGraphService.onTaskChange(TaskChangeEvent.bulkUpdated(1L));
+
+            // Then
+            assertThat(taskGraphService.cachedUsers()).isZero();
+        }
+    }
+
+    private void authenticate(MockedStatic<SecurityContextHolder> mockedSecurityContext) {
+        mockedSecurityContext.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+        when(securityContext.getAuthentication()).thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(testUser);
+    }
+
+    private static List<Object[]> nodes(Object[]... rows) {
+        return new ArrayList<>(List.of(rows));
+    }
+}
@@ -0,0 +1,69 @@
+package dev.tasksys.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TaskImportServiceTest {
+
+    @Test
+    void shouldReserveWholeBlocksBelowEachSequenceValue() throws SQLException {
+        // Given
+        Connection connection = sequence(List.of(List.of(2050L, 2100L)));
+
+        // When
+        long[] ids = TaskImportService.reserveIds(connection, 60);
+
+        // Then
+        assertArrayEquals(LongStream.rangeClosed(2001, 2060).toArray(), ids);
+    }
+
+    @Test
+    void shouldTakeOnlyTheInitialValueLikeHibernatesFirstCaller() throws SQLException {
+        // Given a fresh sequence: 1000 owns no ids below it, 1050 owns 1001..1050
+        Connection connection = sequence(List.of(List.of(1000L, 1050L), List.of(1100L)));
+
+        // When
+        long[] ids = TaskImportService.reserveIds(connection, 60);
+
+        // Then
+        assertArrayEquals(LongStream.rangeClosed(1000, 1059).toArray(), ids);
+    }
+
+    @Test
+    void shouldFailWhenSequenceReturnsTooFewValues() throws SQLException {
+        // Given
+        Connection connection = sequence(List.of(List.of(1000L), List.of()));
+
+        // When / Then
+        assertThrows(SQLException.class, () -> TaskImportService.reserveIds(connection, 10));
+    }
+
+    // Each statement execution returns the next list of sequence values
+    private static Connection sequence(List<List<Long>> rounds) throws SQLException {
+        Connection connection = mock(Connection.class);
+        PreparedStatement statement = mock(PreparedStatement.class);
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+        Deque<List<Long>> remaining = new ArrayDeque<>(rounds);
+        when(statement.executeQuery()).thenAnswer(invocation -> {
+            Deque<Long> values = new ArrayDeque<>(remaining.isEmpty() ? List.of() : remaining.poll());
+            ResultSet resultSet = mock(ResultSet.class);
+            Long[] current = new Long[1];
+            when(resultSet.next()).thenAnswer(next -> (current[0] = values.poll()) != null);
+            when(resultSet.getLong(1)).thenAnswer(get -> current[0]);
+            return resultSet;
+        });
+        return connection;
+    }
+}
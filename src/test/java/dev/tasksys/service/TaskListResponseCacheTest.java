@@ -0,0 +1,109 @@
+package dev.tasksys.service;
+
+import dev.tasksys.model.TaskChangeEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskListResponseCacheTest {
+
+    private TaskListResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new TaskListResponseCache();
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "maxBytes", 64L);
+        ReflectionTestUtils.setField(cache, "maxEntryBytes", 32);
+        ReflectionTestUtils.setField(cache, "maxUsers", 10);
+    }
+
+    @Test
+    void shouldServeStoredResponseUntilUserIsEvicted() {
+        // Given
+        fill(1L, "all", "[{\"id\":1}]");
+
+        // When
+        TaskListResponseCache.Entry hit = cache.get(1L, "all");
+        cache.onTaskChange(TaskChangeEvent.patched(1L, 1L));
+
+        // Then
+        assertNotNull(hit);
+        assertEquals("[{\"id\":1}]", new String(hit.body(), StandardCharsets.UTF_8));
+        assertNull(cache.get(1L, "all"));
+        assertEquals(0L, cache.sizeInBytes());
+        assertEquals(0.5, cache.hitRatio());
+    }
+
+    @Test
+    void shouldDropFillRenderedBeforeConcurrentWrite() {
+        // Given
+        TaskListResponseCache.Ticket ticket = cache.begin(1L);
+
+        // When
+        cache.evict(1L);
+        cache.put(ticket, "all", entry("[]"));
+
+        // Then
+        assertNull(cache.get(1L, "all"));
+        assertEquals(0L, cache.entries());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedUsersToStayWithinByteBound() {
+        // Given
+        fill(1L, "all", "a".repeat(30));
+        fill(2L, "all", "b".repeat(30));
+        cache.get(1L, "all");
+
+        // When
+        fill(3L, "all", "c".repeat(30));
+
+        // Then
+        assertNotNull(cache.get(1L, "all"));
+        assertNull(cache.get(2L, "all"));
+        assertNotNull(cache.get(3L, "all"));
+        assertEquals(60L, cache.sizeInBytes());
+    }
+
+    @Test
+    void shouldNotStoreOversizedResponses() {
+        // When
+        fill(1L, "all", "x".repeat(33));
+
+        // Then
+        assertNull(cache.get(1L, "all"));
+        assertEquals(0L, cache.sizeInBytes());
+    }
+
+    @Test
+    void shouldExportHitAndSizeMetrics() {
+        // Given
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache.bindTo(registry);
+        fill(1L, "status:TO_DO", "[]");
+
+        // When
+        cache.get(1L, "status:TO_DO");
+        cache.get(1L, "all");
+
+        // Then
+        assertEquals(1.0, registry.get("tasks.list.cache.requests").tag("result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("tasks.list.cache.requests").tag("result", "miss").functionCounter().count());
+        assertEquals(2.0, registry.get("tasks.list.cache.size").gauge().value());
+        assertEquals(1.0, registry.get("tasks.list.cache.entries").gauge().value());
+    }
+
+    private void fill(Long userId, String view, String body) {
+        cache.put(cache.begin(userId), view, entry(body));
+    }
+
+    private static TaskListResponseCache.Entry entry(String body) {
+        return new TaskListResponseCache.Entry(body.getBytes(StandardCharsets.UTF_8), "\"etag\"");
+    }
+}
@@ -1,10 +1,13 @@
 package dev.tasksys.service;
 
+import dev.tasksys.model.TaskChangeEvent;
 import dev.tasksys.model.TaskDto;
+import dev.tasksys.model.TaskPatchDto;
 import dev.tasksys.model.Task;
 import dev.tasksys.model.TaskStatus;
 import dev.tasksys.model.User;
 import dev.tasksys.exception.TaskNotFoundException;
+import dev.tasksys.exception.TaskVersionMismatchException;
 import dev.tasksys.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,6 +16,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -33,6 +37,12 @@ class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskBodyService taskBodyService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Mock
     private SecurityContext securityContext;
 
@@ -74,6 +84,32 @@ class TaskServiceTest {
             assertThat(result.getTitle()).isEqualTo("Test Task");
             assertThat(result.getStatus()).isEqualTo("TO_DO");
             verify(taskRepository).save(any(Task.class));
+            verify(eventPublisher).publishEvent(any(TaskChangeEvent.class));
+        }
+    }
+
+    @Test
+    void shouldStoreBodySeparatelyAndKeepPreviewOnTask() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            mockedSecurityContext.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getPrincipal()).thenReturn(testUser);
+            when(taskRepository.save(any(Task.class))).thenAnswer(invocation -> {
+                Task saved = invocation.getArgument(0);
+                saved.setId(1L);
+                return saved;
+            });
+            String body = "Long   form\n\nnotes " + "x".repeat(500);
+            testTaskDto.setBody(body);
+
+            // When
+            TaskDto result = taskService.createTask(testTaskDto);
+
+            // Then
+            verify(taskBodyService).write(1L, 1L, body);
+            assertThat(result.getBody()).isNull();
+            assertThat(result.getBodyPreview()).startsWith("Long form notes xxx").hasSize(TaskBodyService.PREVIEW_LENGTH);
         }
     }
 
@@ -154,6 +190,55 @@ class TaskServiceTest {
         }
     }
 
+    @Test
+    void shouldRejectUpdateWhenExpectedVersionDiffers() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            mockedSecurityContext.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getPrincipal()).thenReturn(testUser);
+            testTask.setVersion(5L);
+            when(taskRepository.findByIdAndUserId(1L, 1L)).thenReturn(Optional.of(testTask));
+
+            // When & Then
+            assertThatThrownBy(() -> taskService.updateTask(1L, testTaskDto, 4L)).isInstanceOf(TaskVersionMismatchException.class);
+            verify(taskRepository, never()).save(any(Task.class));
+        }
+    }
+
+    @Test
+    void shouldPatchTaskWithSingleUpdate() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            mockedSecurityContext.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getPrincipal()).thenReturn(testUser);
+            when(taskRepository.patch(1L, 1L, null, null, null, null, TaskStatus.DONE)).thenReturn(1);
+
+            // When
+            taskService.patchTask(1L, new TaskPatchDto(null, null, null, "done"), null);
+
+            // Then
+            verify(taskRepository).patch(1L, 1L, null, null, null, null, TaskStatus.DONE);
+            verify(taskRepository, never()).findByIdAndUserId(any(), any());
+            verify(eventPublisher).publishEvent(any(TaskChangeEvent.class));
+        }
+    }
+
+    @Test
+    void shouldThrowExceptionWhenPatchedTaskNotFound() {
+        try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
+            // Given
+            mockedSecurityContext.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+            when(securityContext.getAuthentication()).thenReturn(authentication);
+            when(authentication.getPrincipal()).thenReturn(testUser);
+            when(taskRepository.patch(999L, 1L, null, "Title", null, null, null)).thenReturn(0);
+
+            // When & Then
+            assertThatThrownBy(() -> taskService.patchTask(999L, new TaskPatchDto("Title", null, null, null), null)).isInstanceOf(TaskNotFoundException.class).hasMessage("Task not found with id: 999");
+        }
+    }
+
     @Test
     void shouldDeleteTaskForCurrentUser() {
         try (MockedStatic<SecurityContextHolder> mockedSecurityContext = mockStatic(SecurityContextHolder.class)) {
@@ -169,6 +254,7 @@ class TaskServiceTest {
             // Then
             verify(taskRepository).findByIdAndUserId(1L, 1L);
             verify(taskRepository).delete(testTask);
+            verify(eventPublisher).publishEvent(any(TaskChangeEvent.class));
         }
     }
 
@@ -195,7 +281,7 @@ class TaskServiceTest {
             when(authentication.getPrincipal()).thenReturn(testUser);
 
             List<Task> tasks = Arrays.asList(testTask);
-            when(taskRepository.findByUserIdAndStatus(1L, TaskStatus.TO_DO)).thenReturn(tasks);
+            when(taskRepository.findByUserIdAndStatusInBoardOrder(1L, TaskStatus.TO_DO)).thenReturn(tasks);
 
             // When
             List<TaskDto> result = taskService.getTasksByStatus("TO_DO");
@@ -203,7 +289,7 @@ class TaskServiceTest {
             // Then
             assertThat(result).hasSize(1);
             assertThat(result.getFirst().getStatus()).isEqualTo("TO_DO");
-            verify(taskRepository).findByUserIdAndStatus(1L, TaskStatus.TO_DO);
+            verify(taskRepository).findByUserIdAndStatusInBoardOrder(1L, TaskStatus.TO_DO);
         }
     }
 
@@ -1,5 +1,6 @@
 package dev.tasksys.service;
 
+import dev.tasksys.config.ShardRouter;
 import dev.tasksys.model.User;
 import dev.tasksys.repository.UserRepository;
 import org.junit.jupiter.api.BeforeEach;
@@ -29,6 +30,12 @@ class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private InvalidationBus invalidationBus;
+
+    @Mock
+    private ShardRouter shardRouter;
+
     @InjectMocks
     private UserService userService;
 
@@ -63,6 +70,20 @@ class UserServiceTest {
         assertThatThrownBy(() -> userService.loadUserByUsername("nonexistent")).isInstanceOf(UsernameNotFoundException.class).hasMessage("User not found: nonexistent");
     }
 
+    @Test
+    void shouldConfirmMissOnPrimaryBeforeRejectingUser() {
+        // Given
+        when(userRepository.findByUsername("testuser")).thenReturn(Optional.empty());
+        when(userRepository.findUncachedByUsername("testuser")).thenReturn(Optional.of(testUser));
+
+        // When
+        UserDetails result = userService.loadUserByUsername("testuser");
+
+        // Then
+        assertThat(result).isEqualTo(testUser);
+        verify(userRepository).findUncachedByUsername("testuser");
+    }
+
     @Test
     void shouldCreateUserSuccessfully() {
         // Given
@@ -80,6 +101,8 @@ class UserServiceTest {
         verify(userRepository).existsByEmail("new@example.com");
         verify(passwordEncoder).encode("password123");
         verify(userRepository).save(any(User.class));
+        verify(invalidationBus).userChanged(1L);
+        verify(shardRouter).userChanged(1L);
     }
 
     @Test